@@ -0,0 +1,26 @@
+package org.wespeak.feedback.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** How transcripts are grouped into multi-document LLM analysis requests. */
+@Data
+@ConfigurationProperties(prefix = "app.llm.batch")
+public class AnalysisBatchProperties {
+
+  /** A batch is sent as soon as it holds this many transcripts. */
+  private int maxItems = 16;
+
+  /** A batch is sent before its estimated prompt size would exceed this many tokens. */
+  private int maxTokens = 24000;
+
+  /** How long the first transcript of a batch waits for others to join it. */
+  private Duration linger = Duration.ofMillis(200);
+
+  /** Upper bound on batch requests in flight; the LLM adaptive limit applies below it. */
+  private int concurrency = 8;
+
+  /** How long a caller waits for its result, linger included. */
+  private Duration timeout = Duration.ofMinutes(2);
+}
@@ -0,0 +1,33 @@
+package org.wespeak.feedback.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** How long recordings are split into windows that are transcribed concurrently. */
+@Data
+@ConfigurationProperties(prefix = "app.whisper.chunking")
+public class ChunkingProperties {
+
+  private boolean enabled = true;
+
+  /** Recordings up to this length are transcribed in one request. */
+  private double maxChunkSeconds = 120;
+
+  /** Silence splits are only taken once a window is at least this long. */
+  private double minChunkSeconds = 30;
+
+  /** Minimum length of a pause that counts as a split point. */
+  private int minSilenceMillis = 400;
+
+  /** RMS level, as a fraction of full scale, below which a frame counts as silent. */
+  private double silenceThreshold = 0.02;
+
+  /** Audio shared by two windows when no pause is found and the split is a hard cut. */
+  private double overlapSeconds = 1.0;
+
+  /**
+   * Upper bound on windows transcribed in parallel across all recordings; the Whisper adaptive
+   * limit decides how many of them actually call the API at once.
+   */
+  private int concurrency = 16;
+}
@@ -0,0 +1,31 @@
+package org.wespeak.feedback.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * The recording.uploaded consumer. Connection, group and poll settings are under {@code
+ * spring.kafka}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.kafka")
+public class KafkaConsumerProperties {
+
+  /** Consumes recording.uploaded; when off, recordings only arrive through the seed endpoint. */
+  private boolean enabled = false;
+
+  private String recordingUploadedTopic = "recording.uploaded";
+
+  /**
+   * Workers handing records to the pipeline. Records of different users run in parallel, so this
+   * may be well above the partition count; one user's records are always handled in order.
+   */
+  private int concurrency = 32;
+
+  /** Records handed to the workers but not yet persisted before the consumer stops polling. */
+  private int maxPending = 1000;
+
+  /** Delay before a batch that could not be persisted is polled again. */
+  private Duration retryBackoff = Duration.ofSeconds(2);
+}
@@ -1,26 +1,29 @@
 package org.wespeak.feedback.config;
 
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.wespeak.feedback.service.TranscriptionService;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
-@Slf4j
+/**
+ * Kafka consumption of recording.uploaded, enabled with {@code app.kafka.enabled=true}.
+ *
+ * <p>The listener container itself is configured by Spring Boot from {@code spring.kafka.*} as a
+ * batch listener with manual acknowledgment; see {@code RecordingUploadedConsumer}. Without Kafka
+ * the /api/v1/seed endpoint triggers processing manually.
+ */
 @Configuration
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true")
 public class KafkaListenerConfig {
 
-  private final TranscriptionService transcriptionService;
-
-  // STUBBED: Kafka integration is disabled for this version
-  // In production, this would be:
-  // @Bean
-  // public Consumer<CloudEvent<RecordingUploadedPayload>> recordingUploadedListener() {
-  //     return event -> {
-  //         log.info("Received recording.uploaded event: {}", event.getData());
-  //         transcriptionService.processRecording(event.getData());
-  //     };
-  // }
-
-  // For now, we use the /api/v1/seed endpoint to trigger processing manually
+  /**
+   * Retries a batch from its first unpersisted record; the records before it are committed. The
+   * pipeline de-duplicates recordings, so records replayed after a partial batch are harmless.
+   */
+  @Bean
+  public DefaultErrorHandler kafkaErrorHandler(KafkaConsumerProperties properties) {
+    return new DefaultErrorHandler(
+        new FixedBackOff(properties.getRetryBackoff().toMillis(), FixedBackOff.UNLIMITED_ATTEMPTS));
+  }
 }
@@ -0,0 +1,45 @@
+package org.wespeak.feedback.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Leases on in-flight transcripts and feedbacks, which let several instances share the work. */
+@Data
+@ConfigurationProperties(prefix = "app.lease")
+public class LeaseProperties {
+
+  /** Identifies this instance as the owner of its leases; unique per process by default. */
+  private String owner = defaultOwner();
+
+  /** How long a lease stays valid without renewal. */
+  private Duration duration = Duration.ofMinutes(2);
+
+  /** How often held leases are extended; well below {@link #duration}. */
+  private Duration renewInterval = Duration.ofSeconds(30);
+
+  /**
+   * Longest time a lease is renewed for the same work. Work stuck in this instance beyond it is
+   * left to expire, so the reaper can hand it to another attempt.
+   */
+  private Duration maxHold = Duration.ofHours(1);
+
+  /** How often expired leases of dead instances are looked for. */
+  private Duration reapInterval = Duration.ofMinutes(1);
+
+  /** Expired documents of each kind reclaimed per reaper run. */
+  private int reapBatchSize = 100;
+
+  private static String defaultOwner() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "unknown";
+    }
+    return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+  }
+}
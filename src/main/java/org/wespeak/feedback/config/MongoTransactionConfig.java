@@ -0,0 +1,21 @@
+package org.wespeak.feedback.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class MongoTransactionConfig {
+
+  @Bean
+  public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+    return new MongoTransactionManager(databaseFactory);
+  }
+
+  @Bean
+  public TransactionTemplate transactionTemplate(MongoTransactionManager transactionManager) {
+    return new TransactionTemplate(transactionManager);
+  }
+}
@@ -0,0 +1,35 @@
+package org.wespeak.feedback.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** How the outbox is written and drained. */
+@Data
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+  /**
+   * Writes outbox events in the same Mongo transaction as the feedback. Requires a replica set;
+   * turn off only for a standalone development mongod.
+   */
+  private boolean transactional = true;
+
+  /** Events read and published per relay round. */
+  private int batchSize = 100;
+
+  /** How long the relay waits after a new event for others to join the batch. */
+  private Duration linger = Duration.ofMillis(50);
+
+  /**
+   * Fallback polling interval, which also picks up events left behind by a crash and events
+   * written on instances that are not the relay.
+   */
+  private Duration pollInterval = Duration.ofSeconds(1);
+
+  /**
+   * How long the draining instance stays the relay without renewing; the relay renews before each
+   * batch, and another instance takes over this long after it stopped.
+   */
+  private Duration leaseDuration = Duration.ofSeconds(30);
+}
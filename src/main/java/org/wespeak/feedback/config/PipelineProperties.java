@@ -0,0 +1,53 @@
+package org.wespeak.feedback.config;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Sizing of the recording pipeline: one bounded executor per stage. */
+@Data
+@ConfigurationProperties(prefix = "app.pipeline")
+public class PipelineProperties {
+
+  /** Directory where downloaded recordings are spooled before transcription. */
+  private String spoolDir = System.getProperty("java.io.tmpdir");
+
+  private Stage download = new Stage(4, 100);
+
+  private Stage transcribe = new Stage(4, 100);
+
+  private Stage analyze = new Stage(32, 200);
+
+  private Stage stats = new Stage(2, 500);
+
+  private Priority priority = new Priority();
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Stage {
+    /** Number of worker threads serving the stage. */
+    private int concurrency;
+
+    /** Number of tasks that may wait for a worker before the stage pushes back. */
+    private int queueCapacity;
+  }
+
+  /**
+   * Slack a recording gets in the stage queues; a task is served once no task with an earlier
+   * deadline is waiting, so premium and short recordings overtake free-tier bulk.
+   */
+  @Data
+  public static class Priority {
+    /** Extra slack of free-tier recordings over premium ones. */
+    private Duration freeTierDelay = Duration.ofMinutes(2);
+
+    /** Slack added per minute of recorded audio. */
+    private Duration delayPerRecordedMinute = Duration.ofSeconds(5);
+
+    /** Upper bound of the slack added for long recordings. */
+    private Duration maxDurationDelay = Duration.ofMinutes(2);
+  }
+}
@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -34,6 +35,17 @@ public class R2Config {
         .build();
   }
 
+  @Bean
+  public S3AsyncClient s3AsyncClient() {
+    return S3AsyncClient.builder()
+        .endpointOverride(URI.create("https://" + accountId + ".r2.cloudflarestorage.com"))
+        .credentialsProvider(
+            StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+        .region(Region.of("auto"))
+        .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+        .build();
+  }
+
   @Bean
   public S3Presigner s3Presigner() {
     return S3Presigner.builder()
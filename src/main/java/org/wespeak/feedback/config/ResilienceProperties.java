@@ -0,0 +1,68 @@
+package org.wespeak.feedback.config;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Bulkhead and circuit breaker settings for each external dependency of the pipeline. */
+@Data
+@ConfigurationProperties(prefix = "app.resilience")
+public class ResilienceProperties {
+
+  private Guard storage =
+      new Guard(
+          8, Duration.ofSeconds(5), 0.5, 20, 10, Duration.ofSeconds(30), 3, Duration.ofMinutes(2));
+
+  private Guard transcription =
+      new Guard(
+          16,
+          Duration.ofSeconds(30),
+          0.5,
+          20,
+          10,
+          Duration.ofSeconds(60),
+          2,
+          Duration.ofMinutes(3));
+
+  private Guard llm =
+      new Guard(
+          8, Duration.ofSeconds(30), 0.5, 20, 10, Duration.ofSeconds(60), 2, Duration.ofMinutes(3));
+
+  private Guard mongo =
+      new Guard(
+          64, Duration.ofSeconds(2), 0.5, 50, 20, Duration.ofSeconds(15), 5, Duration.ofSeconds(5));
+
+  /** Pipeline tasks that may wait for an unhealthy dependency before they are failed instead. */
+  private int retryQueueCapacity = 1000;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Guard {
+    /** Bulkhead size: calls allowed into the dependency at once. */
+    private int maxConcurrent;
+
+    /** How long a call waits for a bulkhead slot before it is rejected. */
+    private Duration maxWait;
+
+    /** Share of failed (or slow) calls in the window that opens the breaker. */
+    private double failureRateThreshold;
+
+    /** Number of most recent calls the failure rate is computed over. */
+    private int slidingWindowSize;
+
+    /** Calls needed in the window before the failure rate is trusted. */
+    private int minimumCalls;
+
+    /** How long an open breaker rejects calls before letting trial calls through. */
+    private Duration openDuration;
+
+    /** Trial calls that must succeed in a row to close the breaker again. */
+    private int halfOpenCalls;
+
+    /** Successful calls slower than this count as failures. */
+    private Duration slowCallThreshold;
+  }
+}
@@ -0,0 +1,27 @@
+package org.wespeak.feedback.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Automatic retries of FAILED transcripts and feedbacks. */
+@Data
+@ConfigurationProperties(prefix = "app.retry")
+public class RetryProperties {
+
+  private boolean enabled = true;
+
+  /** Failed attempts after which a document is moved to DEAD_LETTER. */
+  private int maxAttempts = 5;
+
+  /** Delay before the first retry; doubled for every further failed attempt. */
+  private Duration baseDelay = Duration.ofSeconds(30);
+
+  private Duration maxDelay = Duration.ofHours(1);
+
+  /** How often due documents are looked up. */
+  private Duration scanInterval = Duration.ofSeconds(30);
+
+  /** Documents of each kind re-enqueued per scan, which bounds the load after an outage. */
+  private int batchSize = 50;
+}
@@ -0,0 +1,38 @@
+package org.wespeak.feedback.config;
+
+import java.time.Duration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Bounds of the adaptive concurrency limit kept for each external API. */
+@Data
+@ConfigurationProperties(prefix = "app.upstream")
+public class UpstreamLimitProperties {
+
+  private Limit whisper = new Limit(4, 1, 16, Duration.ofSeconds(30), 0.9, 5);
+
+  private Limit llm = new Limit(4, 1, 8, Duration.ofSeconds(60), 0.9, 5);
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Limit {
+    /** Concurrent requests allowed before any feedback has been seen. */
+    private int initialLimit;
+
+    private int minLimit;
+
+    private int maxLimit;
+
+    /** Responses slower than this shrink the limit as if the upstream were overloaded. */
+    private Duration latencyThreshold;
+
+    /** Factor applied to the limit on a slow response; a throttled response halves it. */
+    private double backoffRatio;
+
+    /** Throttled calls are retried after the advertised delay up to this many attempts. */
+    private int maxAttempts;
+  }
+}
@@ -0,0 +1,22 @@
+package org.wespeak.feedback.controller;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.service.DependencyGuards;
+
+/** Actuator endpoint ({@code /actuator/dependencies}) reporting breaker and bulkhead state. */
+@Component
+@Endpoint(id = "dependencies")
+@RequiredArgsConstructor
+public class DependenciesEndpoint {
+
+  private final DependencyGuards dependencyGuards;
+
+  @ReadOperation
+  public Map<String, Map<String, Object>> dependencies() {
+    return dependencyGuards.describe();
+  }
+}
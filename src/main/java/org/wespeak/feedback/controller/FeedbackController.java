@@ -1,15 +1,21 @@
 package org.wespeak.feedback.controller;
 
+import static org.wespeak.feedback.service.FeedbackService.MAX_SEGMENTS;
+
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.wespeak.feedback.dto.*;
+import org.wespeak.feedback.entity.TranscriptSegment;
 import org.wespeak.feedback.service.FeedbackService;
 import org.wespeak.feedback.service.StatsService;
+import tools.jackson.databind.json.JsonMapper;
 
 @Slf4j
 @RestController
@@ -17,17 +23,85 @@ import org.wespeak.feedback.service.StatsService;
 @RequiredArgsConstructor
 public class FeedbackController {
 
+  private static final String NDJSON = "application/x-ndjson";
+
   private final FeedbackService feedbackService;
   private final StatsService statsService;
+  private final JsonMapper jsonMapper;
 
   // Transcripts endpoints
 
+  /**
+   * {@code fields} is an optional comma-separated list of response fields, e.g. {@code
+   * fields=status,wordCount}; only those are loaded and returned. Without it the transcript is
+   * written straight from its BSON.
+   */
   @GetMapping("/transcripts/{transcriptId}")
-  public ResponseEntity<TranscriptResponse> getTranscript(
+  public ResponseEntity<Object> getTranscript(
       @PathVariable String transcriptId,
+      @RequestParam(required = false) String fields,
       @RequestHeader(value = "X-User-Id", defaultValue = "test-user") String userId) {
     log.info("Getting transcript: {} for user: {}", transcriptId, userId);
-    return ResponseEntity.ok(feedbackService.getTranscript(transcriptId, userId));
+    if (fields == null) {
+      return json(feedbackService.getTranscriptJson(transcriptId, userId));
+    }
+    FieldSelection selection = FieldSelection.parse(fields, TranscriptResponse.class);
+    return ResponseEntity.ok(
+        selection.apply(feedbackService.getTranscript(transcriptId, userId, selection)));
+  }
+
+  /**
+   * A range of the transcript's segments, by index with {@code from} and {@code count}, or by time
+   * with {@code start} and {@code end} in seconds. {@code start} alone returns the segment playing
+   * at that offset.
+   */
+  @GetMapping("/transcripts/{transcriptId}/segments")
+  public ResponseEntity<TranscriptSegmentsResponse> getSegments(
+      @PathVariable String transcriptId,
+      @RequestParam(defaultValue = "0") int from,
+      @RequestParam(defaultValue = "50") int count,
+      @RequestParam(required = false) Double start,
+      @RequestParam(required = false) Double end,
+      @RequestHeader(value = "X-User-Id", defaultValue = "test-user") String userId) {
+    log.info("Getting segments of transcript: {} for user: {}", transcriptId, userId);
+    if (start != null) {
+      return ResponseEntity.ok(
+          feedbackService.getSegmentsBetween(
+              transcriptId, userId, start, end != null ? end : start));
+    }
+    return ResponseEntity.ok(feedbackService.getSegments(transcriptId, userId, from, count));
+  }
+
+  /** All segments of the transcript as NDJSON, one per line, read from Mongo in slices. */
+  @GetMapping(value = "/transcripts/{transcriptId}/segments/stream", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> streamSegments(
+      @PathVariable String transcriptId,
+      @RequestHeader(value = "X-User-Id", defaultValue = "test-user") String userId) {
+    log.info("Streaming segments of transcript: {} for user: {}", transcriptId, userId);
+    // Read the first slice up front, so a missing or foreign transcript fails before streaming
+    List<TranscriptSegment> first =
+        feedbackService.getSegments(transcriptId, userId, 0, MAX_SEGMENTS).getSegments();
+    StreamingResponseBody body =
+        out -> {
+          List<TranscriptSegment> slice = first;
+          int from = 0;
+          while (true) {
+            for (TranscriptSegment segment : slice) {
+              out.write(jsonMapper.writeValueAsBytes(segment));
+              out.write('\n');
+            }
+            if (slice.size() < MAX_SEGMENTS) {
+              return;
+            }
+            out.flush();
+            from += MAX_SEGMENTS;
+            slice =
+                feedbackService
+                    .getSegments(transcriptId, userId, from, MAX_SEGMENTS)
+                    .getSegments();
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
   }
 
   @GetMapping("/transcripts")
@@ -40,25 +114,43 @@ public class FeedbackController {
 
   // Feedbacks endpoints
 
+  /**
+   * {@code fields} is an optional comma-separated list of response fields, e.g. {@code
+   * fields=overallScore,summary}; only those are loaded and returned. Without it the feedback is
+   * written straight from its BSON.
+   */
   @GetMapping("/feedbacks/{feedbackId}")
-  public ResponseEntity<FeedbackResponse> getFeedback(
+  public ResponseEntity<Object> getFeedback(
       @PathVariable String feedbackId,
+      @RequestParam(required = false) String fields,
       @RequestHeader(value = "X-User-Id", defaultValue = "test-user") String userId) {
     log.info("Getting feedback: {} for user: {}", feedbackId, userId);
-    return ResponseEntity.ok(feedbackService.getFeedback(feedbackId, userId));
+    if (fields == null) {
+      return json(feedbackService.getFeedbackJson(feedbackId, userId));
+    }
+    FieldSelection selection = FieldSelection.parse(fields, FeedbackResponse.class);
+    return ResponseEntity.ok(
+        selection.apply(feedbackService.getFeedback(feedbackId, userId, selection)));
   }
 
+  /**
+   * Pages by number by default. Passing {@code cursor} (empty for the first page) switches to
+   * cursor mode: pages follow the returned {@code nextCursor}, and the total is only counted with
+   * {@code includeTotal=true}.
+   */
   @GetMapping("/feedbacks/me")
   public ResponseEntity<FeedbackListResponse> getMyFeedbacks(
       @RequestParam(required = false) String targetLanguageCode,
       @RequestParam(defaultValue = "0") int page,
       @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "false") boolean includeTotal,
       @RequestHeader(value = "X-User-Id", defaultValue = "test-user") String userId) {
     log.info(
         "Getting feedbacks for user: {}, language: {}, page: {}, size: {}",
         userId,
         targetLanguageCode,
-        page,
+        cursor != null ? "cursor" : page,
         size);
 
     // Limit max size
@@ -66,6 +158,11 @@ public class FeedbackController {
       size = 50;
     }
 
+    if (cursor != null) {
+      return ResponseEntity.ok(
+          feedbackService.getMyFeedbacksAfter(
+              userId, targetLanguageCode, cursor, Math.max(size, 1), includeTotal));
+    }
     Pageable pageable = PageRequest.of(page, size);
     return ResponseEntity.ok(feedbackService.getMyFeedbacks(userId, targetLanguageCode, pageable));
   }
@@ -100,4 +197,9 @@ public class FeedbackController {
         period);
     return ResponseEntity.ok(statsService.getMyHistory(userId, targetLanguageCode, period));
   }
+
+  /** A response body that is already serialized JSON. */
+  private static ResponseEntity<Object> json(byte[] body) {
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
 }
@@ -3,12 +3,14 @@ package org.wespeak.feedback.controller;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.wespeak.feedback.event.RecordingUploadedPayload;
-import org.wespeak.feedback.service.TranscriptionService;
+import org.wespeak.feedback.service.IngestResult;
+import org.wespeak.feedback.service.RecordingPipeline;
 
 @Slf4j
 @RestController
@@ -16,7 +18,7 @@ import org.wespeak.feedback.service.TranscriptionService;
 @RequiredArgsConstructor
 public class SeedController {
 
-  private final TranscriptionService transcriptionService;
+  private final RecordingPipeline recordingPipeline;
 
   @PostMapping
   public ResponseEntity<Map<String, String>> seedData() {
@@ -35,13 +37,17 @@ public class SeedController {
             .size(2500000L)
             .build();
 
-    // Process the recording (will create transcript and feedback)
-    transcriptionService.processRecording(payload);
+    // Hand the recording to the pipeline (transcript and feedback are created asynchronously)
+    // Seeding again with the same recordingId is idempotent and reports a duplicate
+    IngestResult result = recordingPipeline.submit(payload);
 
-    return ResponseEntity.ok(
-        Map.of(
-            "message", "Test data seeded successfully",
-            "sessionId", payload.getSessionId(),
-            "participantId", payload.getParticipantId()));
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(
+            Map.of(
+                "message", "Test data seeding accepted",
+                "transcriptId", result.getTranscriptId(),
+                "duplicate", String.valueOf(result.isDuplicate()),
+                "sessionId", payload.getSessionId(),
+                "participantId", payload.getParticipantId()));
   }
 }
@@ -0,0 +1,41 @@
+package org.wespeak.feedback.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import org.wespeak.feedback.exception.BadRequestException;
+
+/**
+ * Position in a feedback list sorted by {@code createdAt} descending, then id: the last item
+ * returned. Clients only see it as an opaque string.
+ */
+public record FeedbackCursor(Instant createdAt, String id) {
+
+  public static FeedbackCursor after(FeedbackListItem item) {
+    return new FeedbackCursor(item.getCreatedAt(), item.getId());
+  }
+
+  public String encode() {
+    String position = createdAt.toEpochMilli() + ":" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws BadRequestException if the cursor was not produced by {@link #encode}
+   */
+  public static FeedbackCursor decode(String cursor) {
+    try {
+      String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = position.indexOf(':');
+      if (separator < 0) {
+        throw new BadRequestException("Invalid cursor");
+      }
+      Instant createdAt = Instant.ofEpochMilli(Long.parseLong(position.substring(0, separator)));
+      return new FeedbackCursor(createdAt, position.substring(separator + 1));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+}
@@ -16,4 +16,7 @@ public class FeedbackListResponse {
   private Integer size;
   private Long total;
   private Integer totalPages;
+
+  /** Cursor of the next page in cursor mode; {@code null} on the last page. */
+  private String nextCursor;
 }
@@ -0,0 +1,78 @@
+package org.wespeak.feedback.dto;
+
+import java.beans.PropertyDescriptor;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.wespeak.feedback.exception.BadRequestException;
+
+/**
+ * Response fields a client asked for with {@code fields=}, e.g. {@code fields=status,overallScore}.
+ * Names are the properties of the response type; without a selection every field is returned.
+ */
+public final class FieldSelection {
+
+  private static final FieldSelection ALL = new FieldSelection(null);
+
+  /** Selected field names in request order, or {@code null} for all fields. */
+  private final Set<String> fields;
+
+  private FieldSelection(Set<String> fields) {
+    this.fields = fields;
+  }
+
+  public static FieldSelection all() {
+    return ALL;
+  }
+
+  /**
+   * @throws BadRequestException if a field is not a property of {@code responseType}
+   */
+  public static FieldSelection parse(String fields, Class<?> responseType) {
+    if (fields == null || fields.isBlank()) {
+      return all();
+    }
+    Set<String> known =
+        Arrays.stream(BeanUtils.getPropertyDescriptors(responseType))
+            .map(PropertyDescriptor::getName)
+            .filter(name -> !"class".equals(name))
+            .collect(Collectors.toSet());
+    Set<String> selected = new LinkedHashSet<>();
+    for (String field : fields.split(",")) {
+      String name = field.trim();
+      if (!known.contains(name)) {
+        throw new BadRequestException("Unknown field: " + name);
+      }
+      selected.add(name);
+    }
+    return new FieldSelection(selected);
+  }
+
+  public boolean isAll() {
+    return fields == null;
+  }
+
+  /** The selected names; only meaningful when not {@link #isAll()}. */
+  public Set<String> fields() {
+    return fields;
+  }
+
+  /** The response itself for all fields, otherwise a map of just the selected fields. */
+  public Object apply(Object response) {
+    if (isAll()) {
+      return response;
+    }
+    BeanWrapper properties = PropertyAccessorFactory.forBeanPropertyAccess(response);
+    Map<String, Object> trimmed = new LinkedHashMap<>();
+    for (String field : fields) {
+      trimmed.put(field, properties.getPropertyValue(field));
+    }
+    return trimmed;
+  }
+}
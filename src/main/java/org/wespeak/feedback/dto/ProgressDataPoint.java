@@ -13,4 +13,5 @@ public class ProgressDataPoint {
   private String date;
   private Integer overallScore;
   private Integer sessionsCount;
+  private Integer minutes;
 }
@@ -0,0 +1,19 @@
+package org.wespeak.feedback.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.wespeak.feedback.entity.TranscriptSegment;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptSegmentsResponse {
+  private String transcriptId;
+  /** Index of the first returned segment within the transcript. */
+  private int offset;
+  private List<TranscriptSegment> segments;
+}
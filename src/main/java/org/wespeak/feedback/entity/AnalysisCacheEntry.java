@@ -0,0 +1,47 @@
+package org.wespeak.feedback.entity;
+
+import java.time.Instant;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A stored analysis result, keyed by a hash of the normalized transcript text, the target language
+ * and the analysis model version. Entries expire 30 days after they were written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "analysis_cache")
+public class AnalysisCacheEntry {
+  @Id private String key;
+
+  private String modelVersion;
+
+  private String targetLanguageCode;
+
+  private Integer grammarScore;
+
+  private Integer vocabularyScore;
+
+  private Integer fluencyScore;
+
+  private Integer pronunciationScore;
+
+  private List<FeedbackError> errors;
+
+  private List<String> strengths;
+
+  private List<String> improvements;
+
+  private String summary;
+
+  @Indexed(expireAfter = "30d")
+  private Instant createdAt;
+}
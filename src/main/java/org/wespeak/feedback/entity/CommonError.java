@@ -13,4 +13,7 @@ public class CommonError {
   private ErrorType type;
   private String pattern;
   private Integer frequency;
+
+  /** How much {@code frequency} may overstate the true count; 0 when it is exact. */
+  private Integer overcount;
 }
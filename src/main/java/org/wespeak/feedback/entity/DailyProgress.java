@@ -0,0 +1,50 @@
+package org.wespeak.feedback.entity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/** One learner's completed feedbacks of one UTC day, rolled up as the feedbacks complete. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "daily_progress")
+@CompoundIndex(
+    name = "user_language_day_unique_idx",
+    def = "{'userId': 1, 'targetLanguageCode': 1, 'day': 1}",
+    unique = true)
+public class DailyProgress {
+  @Id @Builder.Default private String id = UUID.randomUUID().toString();
+
+  private String userId;
+
+  private String targetLanguageCode;
+
+  /** ISO date of the UTC day, e.g. 2024-05-31, so days sort and range-query as strings. */
+  private String day;
+
+  @Builder.Default private Integer sessions = 0;
+
+  @Builder.Default private Integer minutes = 0;
+
+  @Builder.Default private Long overallScoreSum = 0L;
+
+  @Builder.Default private Long grammarScoreSum = 0L;
+
+  @Builder.Default private Long vocabularyScoreSum = 0L;
+
+  @Builder.Default private Long fluencyScoreSum = 0L;
+
+  /** Latest feedbacks rolled up into the day, so a replayed stats update is not counted twice. */
+  private List<String> appliedFeedbackIds;
+
+  private Instant updatedAt;
+}
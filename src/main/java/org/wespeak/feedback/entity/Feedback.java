@@ -7,7 +7,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -18,11 +17,24 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "feedbacks")
-@CompoundIndex(name = "user_language_idx", def = "{'userId': 1, 'targetLanguageCode': 1}")
+// The list indexes hold every field of FeedbackListItem, so list pages are covered queries
+@CompoundIndex(
+    name = "user_list_idx",
+    def =
+        "{'userId': 1, 'createdAt': -1, '_id': 1, 'sessionId': 1, 'targetLanguageCode': 1,"
+            + " 'overallScore': 1, 'xpAwarded': 1}")
+@CompoundIndex(
+    name = "user_language_list_idx",
+    def =
+        "{'userId': 1, 'targetLanguageCode': 1, 'createdAt': -1, '_id': 1, 'sessionId': 1,"
+            + " 'overallScore': 1, 'xpAwarded': 1}")
+@CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+@CompoundIndex(name = "status_lease_idx", def = "{'status': 1, 'leaseExpiresAt': 1}")
 public class Feedback {
   @Id @Builder.Default private String id = UUID.randomUUID().toString();
 
-  @Indexed private String transcriptId;
+  @Indexed(unique = true, sparse = true)
+  private String transcriptId;
 
   @Indexed private String userId;
 
@@ -52,7 +64,27 @@ public class Feedback {
 
   @Builder.Default private FeedbackStatus status = FeedbackStatus.PENDING;
 
-  @CreatedDate private Instant createdAt;
+  /**
+   * Set when the document is claimed; auditing would skip it, as the id is assigned up front and
+   * marks the entity as not new.
+   */
+  private Instant createdAt;
+
+  private Instant startedAt;
 
   private Instant completedAt;
+
+  /** Failed attempts so far; reaching the retry limit moves the document to DEAD_LETTER. */
+  private int attempts;
+
+  /** When a FAILED document is due for its next attempt. */
+  private Instant nextAttemptAt;
+
+  private String lastError;
+
+  /** Instance working on the document while it is in flight. */
+  private String leaseOwner;
+
+  /** When the owner's claim lapses unless renewed; an expired lease is reclaimed by the reaper. */
+  private Instant leaseExpiresAt;
 }
@@ -4,5 +4,7 @@ public enum FeedbackStatus {
   PENDING,
   PROCESSING,
   COMPLETED,
-  FAILED
+  FAILED,
+  /** Failed more often than the retry limit allows; no longer retried automatically. */
+  DEAD_LETTER
 }
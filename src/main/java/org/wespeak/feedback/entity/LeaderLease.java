@@ -0,0 +1,24 @@
+package org.wespeak.feedback.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/** Names the one instance that runs a singleton task, such as the outbox relay, until expiry. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "leader_leases")
+public class LeaderLease {
+  /** The task the lease is for. */
+  @Id private String id;
+
+  private String owner;
+
+  private Instant expiresAt;
+}
@@ -0,0 +1,36 @@
+package org.wespeak.feedback.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * An event waiting to be published, written in the same transaction as the state change it
+ * announces. Events are numbered from a server-side counter when written, which orders them
+ * across instances; the relay relies on it to keep each {@code aggregateKey}'s events in order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "outbox")
+public class OutboxEvent {
+  @Id private String id;
+
+  /** Position in the outbox; events written before it existed have none and go first. */
+  @Indexed private Long sequence;
+
+  /** Events sharing a key are published in insertion order; the learner's user id. */
+  private String aggregateKey;
+
+  private String eventType;
+
+  private Object event;
+
+  private Instant createdAt;
+}
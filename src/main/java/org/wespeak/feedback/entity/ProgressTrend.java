@@ -1,7 +1,32 @@
 package org.wespeak.feedback.entity;
 
+import java.util.List;
+
 public enum ProgressTrend {
   IMPROVING,
   STABLE,
-  DECLINING
+  DECLINING;
+
+  /** Compares the two latest scores with the ones before them; scores are newest first. */
+  public static ProgressTrend from(List<Integer> recentScores) {
+    if (recentScores.size() < 3) {
+      return STABLE;
+    }
+
+    double recentAvg =
+        recentScores.stream().limit(2).mapToInt(Integer::intValue).average().orElse(0.0);
+
+    double olderAvg =
+        recentScores.stream().skip(2).mapToInt(Integer::intValue).average().orElse(0.0);
+
+    double diff = recentAvg - olderAvg;
+
+    if (diff >= 5) {
+      return IMPROVING;
+    } else if (diff <= -5) {
+      return DECLINING;
+    } else {
+      return STABLE;
+    }
+  }
 }
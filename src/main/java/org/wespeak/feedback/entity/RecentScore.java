@@ -0,0 +1,16 @@
+package org.wespeak.feedback.entity;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecentScore {
+  private Integer overallScore;
+  private Instant at;
+}
@@ -0,0 +1,11 @@
+package org.wespeak.feedback.entity;
+
+public enum SubscriptionTier {
+  FREE,
+  PREMIUM;
+
+  /** Parses the tier sent by other services; anything unknown or missing is treated as FREE. */
+  public static SubscriptionTier from(String value) {
+    return "premium".equalsIgnoreCase(value) ? PREMIUM : FREE;
+  }
+}
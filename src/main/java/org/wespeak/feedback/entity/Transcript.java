@@ -7,7 +7,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
@@ -19,6 +18,9 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @AllArgsConstructor
 @Document(collection = "transcripts")
 @CompoundIndex(name = "session_participant_idx", def = "{'sessionId': 1, 'participantId': 1}")
+@CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+@CompoundIndex(name = "status_lease_idx", def = "{'status': 1, 'leaseExpiresAt': 1}")
+@CompoundIndex(name = "participant_created_idx", def = "{'participantId': 1, 'createdAt': 1}")
 public class Transcript {
   @Id @Builder.Default private String id = UUID.randomUUID().toString();
 
@@ -26,10 +28,17 @@ public class Transcript {
 
   @Indexed private String participantId;
 
+  @Indexed(unique = true, sparse = true)
   private String recordingId;
 
   @Indexed private String targetLanguageCode;
 
+  /** Where the recording is stored; kept so a failed transcription can be retried. */
+  private String audioUrl;
+
+  /** Tier of the participant when the recording was uploaded; decides scheduling and quota. */
+  private SubscriptionTier subscriptionTier;
+
   private String content;
 
   private List<TranscriptSegment> segments;
@@ -42,7 +51,27 @@ public class Transcript {
 
   @Builder.Default private TranscriptStatus status = TranscriptStatus.PENDING;
 
-  @CreatedDate private Instant createdAt;
+  /**
+   * Set when the document is claimed; auditing would skip it, as the id is assigned up front and
+   * marks the entity as not new.
+   */
+  private Instant createdAt;
+
+  private Instant startedAt;
 
   private Instant completedAt;
+
+  /** Failed attempts so far; reaching the retry limit moves the document to DEAD_LETTER. */
+  private int attempts;
+
+  /** When a FAILED document is due for its next attempt. */
+  private Instant nextAttemptAt;
+
+  private String lastError;
+
+  /** Instance working on the document while it is in flight. */
+  private String leaseOwner;
+
+  /** When the owner's claim lapses unless renewed; an expired lease is reclaimed by the reaper. */
+  private Instant leaseExpiresAt;
 }
@@ -1,7 +1,9 @@
 package org.wespeak.feedback.entity;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,8 +11,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 @Data
 @Builder
@@ -22,6 +26,13 @@ import org.springframework.data.mongodb.core.mapping.Document;
     def = "{'userId': 1, 'targetLanguageCode': 1}",
     unique = true)
 public class UserFeedbackStats {
+
+  /** Size of the rolling window of recent scores. */
+  public static final int RECENT_SCORES = 5;
+
+  /** Latest feedbacks remembered per write, so a replayed stats update is not counted twice. */
+  public static final int APPLIED_FEEDBACKS = 50;
+
   @Id @Builder.Default private String id = UUID.randomUUID().toString();
 
   private String userId;
@@ -32,19 +43,98 @@ public class UserFeedbackStats {
 
   @Builder.Default private Integer totalMinutes = 0;
 
-  @Builder.Default private Double averageOverallScore = 0.0;
+  // Score sums are only ever incremented; averages are derived from them on read
+
+  @Builder.Default private Long overallScoreSum = 0L;
+
+  @Builder.Default private Long grammarScoreSum = 0L;
+
+  @Builder.Default private Long vocabularyScoreSum = 0L;
+
+  @Builder.Default private Long fluencyScoreSum = 0L;
+
+  /** Sessions whose scores are in the sums; behind {@code totalSessions} only on legacy stats. */
+  private Integer summedSessions;
+
+  // Averages of stats written before score sums existed, until StatsMigration folds them in
+
+  @Field("averageOverallScore")
+  private Double legacyOverallScoreAverage;
 
-  @Builder.Default private Double averageGrammarScore = 0.0;
+  @Field("averageGrammarScore")
+  private Double legacyGrammarScoreAverage;
 
-  @Builder.Default private Double averageVocabularyScore = 0.0;
+  @Field("averageVocabularyScore")
+  private Double legacyVocabularyScoreAverage;
 
-  @Builder.Default private Double averageFluencyScore = 0.0;
+  @Field("averageFluencyScore")
+  private Double legacyFluencyScoreAverage;
 
+  /** Space-Saving counters of the learner's recurring errors, most frequent first. */
   private List<CommonError> commonErrors;
 
-  @Builder.Default private ProgressTrend progressTrend = ProgressTrend.STABLE;
+  /** Bumped on every rewrite of {@code commonErrors}, which is updated by compare-and-set. */
+  private Long commonErrorsVersion;
+
+  /** Latest feedbacks counted into {@code commonErrors}. */
+  private List<String> commonErrorsFeedbackIds;
+
+  /** Latest feedbacks counted into the sessions, sums and recent scores. */
+  private List<String> appliedFeedbackIds;
+
+  /** Overall scores of the latest feedbacks, newest first, capped at {@link #RECENT_SCORES}. */
+  @Builder.Default private List<RecentScore> recentScores = new ArrayList<>();
 
   private Instant lastFeedbackAt;
 
   @LastModifiedDate private Instant updatedAt;
+
+  @Transient
+  public double getAverageOverallScore() {
+    return average(overallScoreSum, legacyOverallScoreAverage);
+  }
+
+  @Transient
+  public double getAverageGrammarScore() {
+    return average(grammarScoreSum, legacyGrammarScoreAverage);
+  }
+
+  @Transient
+  public double getAverageVocabularyScore() {
+    return average(vocabularyScoreSum, legacyVocabularyScoreAverage);
+  }
+
+  @Transient
+  public double getAverageFluencyScore() {
+    return average(fluencyScoreSum, legacyFluencyScoreAverage);
+  }
+
+  @Transient
+  public ProgressTrend getProgressTrend() {
+    return ProgressTrend.from(recentOverallScores());
+  }
+
+  /** Overall scores of the rolling window, newest first. */
+  public List<Integer> recentOverallScores() {
+    if (recentScores == null) {
+      return List.of();
+    }
+    return recentScores.stream()
+        .map(RecentScore::getOverallScore)
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  /** Legacy stats count the sessions not yet in the sums at their stored average. */
+  private double average(Long sum, Double legacyAverage) {
+    if (totalSessions == null || totalSessions == 0) {
+      return 0.0;
+    }
+    double total = sum != null ? sum : 0;
+    if (legacyAverage != null) {
+      int legacySessions = totalSessions - (summedSessions != null ? summedSessions : 0);
+      total += legacyAverage * legacySessions;
+    }
+    return total / totalSessions;
+  }
 }
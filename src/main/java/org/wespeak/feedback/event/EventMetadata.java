@@ -10,6 +10,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class EventMetadata {
+  /** Unique per event; publishing is at-least-once, so consumers de-duplicate on it. */
+  private String eventId;
+
   private String correlationId;
   private String source;
 }
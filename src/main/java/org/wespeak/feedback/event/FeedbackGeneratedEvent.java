@@ -17,22 +17,3 @@ public class FeedbackGeneratedEvent {
   private FeedbackGeneratedPayload payload;
   private EventMetadata metadata;
 }
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-class FeedbackGeneratedPayload {
-  private String feedbackId;
-  private String transcriptId;
-  private String sessionId;
-  private String userId;
-  private String targetLanguageCode;
-  private Integer overallScore;
-  private Integer grammarScore;
-  private Integer vocabularyScore;
-  private Integer fluencyScore;
-  private Integer xpAwarded;
-  private Integer errorsCount;
-  private String progressTrend;
-}
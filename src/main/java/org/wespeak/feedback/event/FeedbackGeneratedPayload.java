@@ -0,0 +1,25 @@
+package org.wespeak.feedback.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackGeneratedPayload {
+  private String feedbackId;
+  private String transcriptId;
+  private String sessionId;
+  private String userId;
+  private String targetLanguageCode;
+  private Integer overallScore;
+  private Integer grammarScore;
+  private Integer vocabularyScore;
+  private Integer fluencyScore;
+  private Integer xpAwarded;
+  private Integer errorsCount;
+  private String progressTrend;
+}
@@ -18,4 +18,7 @@ public class RecordingUploadedPayload {
   private Integer duration;
   private String format;
   private Long size;
+
+  /** "premium" or "free"; missing means free. */
+  private String subscriptionTier;
 }
@@ -1,7 +1,6 @@
 package org.wespeak.feedback.event;
 
 import java.time.Instant;
-import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,16 +17,3 @@ public class XpAwardedEvent {
   private XpAwardedPayload payload;
   private EventMetadata metadata;
 }
-
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-class XpAwardedPayload {
-  private String userId;
-  private Integer amount;
-  private String source;
-  private String sourceId;
-  private String targetLanguageCode;
-  private Map<String, Integer> breakdown;
-}
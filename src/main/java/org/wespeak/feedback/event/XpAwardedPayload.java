@@ -0,0 +1,20 @@
+package org.wespeak.feedback.event;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class XpAwardedPayload {
+  private String userId;
+  private Integer amount;
+  private String source;
+  private String sourceId;
+  private String targetLanguageCode;
+  private Map<String, Integer> breakdown;
+}
@@ -0,0 +1,18 @@
+package org.wespeak.feedback.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/** Thrown without calling a dependency whose breaker is open or whose bulkhead is full. */
+@Getter
+public class DependencyUnavailableException extends RuntimeException {
+
+  private final String dependency;
+  private final Duration retryAfter;
+
+  public DependencyUnavailableException(String dependency, Duration retryAfter, String reason) {
+    super(dependency + " is unavailable: " + reason);
+    this.dependency = dependency;
+    this.retryAfter = retryAfter;
+  }
+}
@@ -4,6 +4,7 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,16 +16,48 @@ public class GlobalExceptionHandler {
 
   @ExceptionHandler(ResourceNotFoundException.class)
   public ResponseEntity<Map<String, Object>> handleResourceNotFound(ResourceNotFoundException ex) {
-    log.error("Resource not found: {}", ex.getMessage());
+    log.info("Resource not found: {}", ex.getMessage());
     return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
   }
 
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<Map<String, Object>> handleBadRequest(BadRequestException ex) {
+    log.info("Bad request: {}", ex.getMessage());
+    return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+  }
+
   @ExceptionHandler(ForbiddenException.class)
   public ResponseEntity<Map<String, Object>> handleForbidden(ForbiddenException ex) {
     log.error("Access forbidden: {}", ex.getMessage());
     return buildErrorResponse(HttpStatus.FORBIDDEN, ex.getMessage());
   }
 
+  @ExceptionHandler(PipelineSaturatedException.class)
+  public ResponseEntity<Map<String, Object>> handlePipelineSaturated(
+      PipelineSaturatedException ex) {
+    log.warn("Pipeline saturated: {}", ex.getMessage());
+    return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+  }
+
+  @ExceptionHandler(DependencyUnavailableException.class)
+  public ResponseEntity<Map<String, Object>> handleDependencyUnavailable(
+      DependencyUnavailableException ex) {
+    log.warn("Dependency unavailable: {}", ex.getMessage());
+    long retryAfterSeconds = Math.max(1, ex.getRetryAfter().toSeconds());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+        .body(buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()).getBody());
+  }
+
+  @ExceptionHandler(QuotaExceededException.class)
+  public ResponseEntity<Map<String, Object>> handleQuotaExceeded(QuotaExceededException ex) {
+    log.info("Quota exceeded: {}", ex.getMessage());
+    long retryAfterSeconds = Math.max(1, ex.getRetryAfter().toSeconds());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+        .body(buildErrorResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()).getBody());
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
     log.error("Unexpected error", ex);
@@ -0,0 +1,7 @@
+package org.wespeak.feedback.exception;
+
+public class PipelineSaturatedException extends RuntimeException {
+  public PipelineSaturatedException(String message) {
+    super(message);
+  }
+}
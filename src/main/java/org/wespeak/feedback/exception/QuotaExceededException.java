@@ -0,0 +1,17 @@
+package org.wespeak.feedback.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/** The user has used up their daily feedback quota; nothing was downloaded or analyzed. */
+@Getter
+public class QuotaExceededException extends RuntimeException {
+
+  /** Time until the quota resets. */
+  private final Duration retryAfter;
+
+  public QuotaExceededException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
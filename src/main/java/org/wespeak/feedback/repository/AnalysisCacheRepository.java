@@ -0,0 +1,8 @@
+package org.wespeak.feedback.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import org.wespeak.feedback.entity.AnalysisCacheEntry;
+
+@Repository
+public interface AnalysisCacheRepository extends MongoRepository<AnalysisCacheEntry, String> {}
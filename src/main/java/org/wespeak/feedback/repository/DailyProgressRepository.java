@@ -0,0 +1,12 @@
+package org.wespeak.feedback.repository;
+
+import java.util.List;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import org.wespeak.feedback.entity.DailyProgress;
+
+@Repository
+public interface DailyProgressRepository extends MongoRepository<DailyProgress, String> {
+  List<DailyProgress> findByUserIdAndTargetLanguageCodeAndDayGreaterThanEqualOrderByDayAsc(
+      String userId, String languageCode, String fromDay);
+}
@@ -1,22 +1,27 @@
 package org.wespeak.feedback.repository;
 
-import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import org.wespeak.feedback.dto.FeedbackListItem;
 import org.wespeak.feedback.entity.Feedback;
 
 @Repository
-public interface FeedbackRepository extends MongoRepository<Feedback, String> {
-  Page<Feedback> findByUserId(String userId, Pageable pageable);
+public interface FeedbackRepository
+    extends MongoRepository<Feedback, String>, FeedbackRepositoryCustom {
+  // List pages are projected straight into FeedbackListItem and covered by the list indexes
 
-  Page<Feedback> findByUserIdAndTargetLanguageCode(
+  Page<FeedbackListItem> findListItemsByUserIdOrderByCreatedAtDesc(
+      String userId, Pageable pageable);
+
+  Page<FeedbackListItem> findListItemsByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
       String userId, String languageCode, Pageable pageable);
 
   Optional<Feedback> findBySessionIdAndUserId(String sessionId, String userId);
 
-  List<Feedback> findTop5ByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
-      String userId, String languageCode);
+  long countByUserId(String userId);
+
+  long countByUserIdAndTargetLanguageCode(String userId, String languageCode);
 }
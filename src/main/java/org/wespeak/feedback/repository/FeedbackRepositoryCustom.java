@@ -0,0 +1,22 @@
+package org.wespeak.feedback.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.wespeak.feedback.dto.FeedbackCursor;
+import org.wespeak.feedback.dto.FeedbackListItem;
+import org.wespeak.feedback.entity.Feedback;
+
+public interface FeedbackRepositoryCustom {
+
+  /**
+   * Up to {@code limit} list items of the user, newest first, starting after {@code after} or
+   * from the newest when it is {@code null}. {@code languageCode} may be {@code null} for all
+   * languages.
+   */
+  List<FeedbackListItem> findListItemsAfter(
+      String userId, String languageCode, FeedbackCursor after, int limit);
+
+  /** The feedback with only {@code fields} and its owner loaded. */
+  Optional<Feedback> findByIdWithFields(String id, Collection<String> fields);
+}
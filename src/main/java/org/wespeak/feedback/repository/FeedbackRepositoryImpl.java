@@ -0,0 +1,54 @@
+package org.wespeak.feedback.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.wespeak.feedback.dto.FeedbackCursor;
+import org.wespeak.feedback.dto.FeedbackListItem;
+import org.wespeak.feedback.entity.Feedback;
+
+/**
+ * Keyset pagination over the list indexes: a page seeks to the cursor's {@code (createdAt, _id)}
+ * instead of skipping the pages before it, so page N costs the same as page 1.
+ */
+@RequiredArgsConstructor
+class FeedbackRepositoryImpl implements FeedbackRepositoryCustom {
+
+  private static final Sort NEWEST_FIRST =
+      Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id"));
+
+  private final MongoTemplate mongoTemplate;
+
+  @Override
+  public List<FeedbackListItem> findListItemsAfter(
+      String userId, String languageCode, FeedbackCursor after, int limit) {
+    Criteria criteria = where("userId").is(userId);
+    if (languageCode != null) {
+      criteria = criteria.and("targetLanguageCode").is(languageCode);
+    }
+    if (after != null) {
+      // Sorted by createdAt descending, ties by id ascending, as in the list indexes
+      criteria =
+          criteria.orOperator(
+              where("createdAt").lt(after.createdAt()),
+              where("createdAt").is(after.createdAt()).and("id").gt(after.id()));
+    }
+    Query query = query(criteria).with(NEWEST_FIRST).limit(limit);
+    return mongoTemplate.query(Feedback.class).as(FeedbackListItem.class).matching(query).all();
+  }
+
+  @Override
+  public Optional<Feedback> findByIdWithFields(String id, Collection<String> fields) {
+    Query query = query(where("id").is(id));
+    query.fields().include(fields.toArray(String[]::new)).include("userId");
+    return Optional.ofNullable(mongoTemplate.findOne(query, Feedback.class));
+  }
+}
@@ -0,0 +1,66 @@
+package org.wespeak.feedback.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import org.wespeak.feedback.config.LeaseProperties;
+import org.wespeak.feedback.entity.LeaderLease;
+import org.wespeak.feedback.service.DependencyGuard;
+import org.wespeak.feedback.service.DependencyGuards;
+
+/**
+ * Leases that make one instance at a time the holder of a task, identified by this instance's
+ * {@code app.lease.owner}. The holder keeps the lease by renewing it; another instance takes it
+ * over once it expired.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LeaderLeaseStore {
+
+  private final MongoTemplate mongoTemplate;
+  private final DependencyGuards dependencyGuards;
+  private final LeaseProperties leaseProperties;
+
+  /**
+   * Takes or renews the lease on {@code task} for {@code duration}; returns {@code false} if
+   * another instance holds it.
+   */
+  public boolean tryHold(String task, Duration duration) {
+    Instant now = Instant.now();
+    Query query =
+        query(
+            where("id")
+                .is(task)
+                .orOperator(where("owner").is(owner()), where("expiresAt").lt(now)));
+    Update update = new Update().set("owner", owner()).set("expiresAt", now.plus(duration));
+    try {
+      mongo().call(() -> mongoTemplate.upsert(query, update, LeaderLease.class));
+      return true;
+    } catch (DuplicateKeyException e) {
+      // The lease exists and is held by someone else, so the upsert fell back to an insert
+      return false;
+    }
+  }
+
+  /** Gives up the lease if this instance holds it, so another can take over right away. */
+  public void release(String task) {
+    Query query = query(where("id").is(task).and("owner").is(owner()));
+    mongo().call(() -> mongoTemplate.remove(query, LeaderLease.class));
+  }
+
+  private String owner() {
+    return leaseProperties.getOwner();
+  }
+
+  private DependencyGuard mongo() {
+    return dependencyGuards.mongo();
+  }
+}
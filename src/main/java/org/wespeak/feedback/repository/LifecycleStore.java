@@ -0,0 +1,535 @@
+package org.wespeak.feedback.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.result.UpdateResult;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.wespeak.feedback.config.LeaseProperties;
+import org.wespeak.feedback.config.OutboxProperties;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.FeedbackStatus;
+import org.wespeak.feedback.entity.OutboxEvent;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.TranscriptStatus;
+import org.wespeak.feedback.service.DependencyGuard;
+import org.wespeak.feedback.service.DependencyGuards;
+
+/**
+ * Status transitions for transcripts and feedbacks as targeted {@code $set} updates.
+ *
+ * <p>Each transition is guarded by the expected current status, so a document is never moved
+ * backwards or completed twice. Methods return {@code false} when the guard did not match.
+ *
+ * <p>A failed attempt is recorded as FAILED with the time of the next attempt, or as DEAD_LETTER
+ * once retries are exhausted; the retry scheduler finds due documents through the {@code (status,
+ * nextAttemptAt)} index and claims them back with the same guarded updates.
+ *
+ * <p>Documents in flight carry a lease: an owner (this instance's {@code app.lease.owner}) and an
+ * expiry that the owner keeps renewing. Transitions of in-flight documents only apply to the
+ * owner's own documents, so an instance that lost its lease cannot overwrite the work of the
+ * instance that took over. Expired leases are found by the reaper through the {@code (status,
+ * leaseExpiresAt)} index and reclaimed with a compare-and-set on the expiry it read.
+ *
+ * <p>All writes go through the Mongo dependency guard, so they fail fast with {@link
+ * org.wespeak.feedback.exception.DependencyUnavailableException} while Mongo is unhealthy.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LifecycleStore {
+
+  private static final TranscriptStatus[] TRANSCRIPT_IN_FLIGHT = {
+    TranscriptStatus.PENDING, TranscriptStatus.PROCESSING
+  };
+
+  private static final String SEQUENCES = "sequences";
+  private static final String OUTBOX_SEQUENCE = "outbox";
+  private static final int COMPLETION_ATTEMPTS = 5;
+
+  private final MongoTemplate mongoTemplate;
+  private final DependencyGuards dependencyGuards;
+  private final TransactionTemplate transactionTemplate;
+  private final OutboxProperties outboxProperties;
+  private final LeaseProperties leaseProperties;
+
+  // Transcripts
+
+  /**
+   * Claims the transcript's recording: inserts the transcript leased to this instance, or returns
+   * the one already stored for the same {@code recordingId}. Callers compare ids to tell a fresh
+   * claim from a duplicate.
+   */
+  public Transcript claimTranscript(Transcript transcript) {
+    if (transcript.getCreatedAt() == null) {
+      transcript.setCreatedAt(Instant.now());
+    }
+    transcript.setLeaseOwner(owner());
+    transcript.setLeaseExpiresAt(leaseExpiry());
+    try {
+      return mongo().call(() -> mongoTemplate.insert(transcript));
+    } catch (DuplicateKeyException e) {
+      Transcript existing =
+          mongo()
+              .call(
+                  () ->
+                      mongoTemplate.findOne(
+                          query(where("recordingId").is(transcript.getRecordingId())),
+                          Transcript.class));
+      if (existing == null) {
+        throw e;
+      }
+      return existing;
+    }
+  }
+
+  /** Gives a claim back when the transcript could not be scheduled, so a redelivery can retry. */
+  public boolean releaseTranscript(String transcriptId) {
+    Query query = query(owned(transcriptId).and("status").is(TranscriptStatus.PENDING));
+    return mongo().call(() -> mongoTemplate.remove(query, Transcript.class)).getDeletedCount() > 0;
+  }
+
+  /** Starts working on a PENDING transcript this instance holds, renewing its lease. */
+  public boolean markTranscriptProcessing(String transcriptId) {
+    Query query = query(owned(transcriptId).and("status").is(TranscriptStatus.PENDING));
+    Update update =
+        new Update()
+            .set("status", TranscriptStatus.PROCESSING)
+            .set("startedAt", Instant.now())
+            .set("leaseExpiresAt", leaseExpiry());
+    Transcript claimed =
+        mongo()
+            .call(
+                () ->
+                    mongoTemplate.findAndModify(
+                        query,
+                        update,
+                        FindAndModifyOptions.options().returnNew(true),
+                        Transcript.class));
+    return claimed != null;
+  }
+
+  /** Writes the transcription result in a single update once processing has finished. */
+  public boolean completeTranscript(Transcript transcript) {
+    Update update =
+        new Update()
+            .set("content", transcript.getContent())
+            .set("segments", transcript.getSegments())
+            .set("wordCount", transcript.getWordCount())
+            .set("confidence", transcript.getConfidence())
+            .set("status", TranscriptStatus.COMPLETED)
+            .set("completedAt", transcript.getCompletedAt())
+            .unset("leaseOwner")
+            .unset("leaseExpiresAt");
+    Query query = query(owned(transcript.getId()).and("status").is(TranscriptStatus.PROCESSING));
+    return updateFirst(query, update, Transcript.class);
+  }
+
+  /**
+   * Records a failed attempt of the transcript. A {@code null} {@code nextAttemptAt} moves it to
+   * DEAD_LETTER instead of FAILED.
+   */
+  public boolean markTranscriptFailed(
+      String transcriptId, int attempts, Instant nextAttemptAt, String error) {
+    Query query = query(owned(transcriptId).and("status").in((Object[]) TRANSCRIPT_IN_FLIGHT));
+    TranscriptStatus status =
+        nextAttemptAt != null ? TranscriptStatus.FAILED : TranscriptStatus.DEAD_LETTER;
+    Update update = failedAttempt(status, attempts, nextAttemptAt, error);
+    return updateFirst(query, update, Transcript.class);
+  }
+
+  public Optional<Transcript> findTranscript(String transcriptId) {
+    return Optional.ofNullable(
+        mongo().call(() -> mongoTemplate.findById(transcriptId, Transcript.class)));
+  }
+
+  /** Number of the participant's transcripts created at or after {@code since}. */
+  public long countTranscriptsSince(String participantId, Instant since) {
+    Query query = query(where("participantId").is(participantId).and("createdAt").gte(since));
+    return mongo().call(() -> mongoTemplate.count(query, Transcript.class));
+  }
+
+  /** FAILED transcripts whose next attempt is due, oldest first. */
+  public List<Transcript> findTranscriptsDueForRetry(Instant now, int limit) {
+    Query query = dueForRetry(TranscriptStatus.FAILED, now, limit);
+    return mongo().call(() -> mongoTemplate.find(query, Transcript.class));
+  }
+
+  /** Moves a due transcript back to PENDING, leased to this instance, so it can run again. */
+  public boolean claimTranscriptForRetry(String transcriptId) {
+    Update update =
+        new Update()
+            .set("status", TranscriptStatus.PENDING)
+            .set("leaseOwner", owner())
+            .set("leaseExpiresAt", leaseExpiry())
+            .unset("nextAttemptAt");
+    Query query = query(where("id").is(transcriptId).and("status").is(TranscriptStatus.FAILED));
+    return updateFirst(query, update, Transcript.class);
+  }
+
+  /** Returns a claimed transcript to FAILED when the pipeline had no room for it. */
+  public boolean deferTranscriptRetry(String transcriptId, Instant nextAttemptAt) {
+    Query query = query(owned(transcriptId).and("status").is(TranscriptStatus.PENDING));
+    return updateFirst(query, deferral(TranscriptStatus.FAILED, nextAttemptAt), Transcript.class);
+  }
+
+  /** Extends this instance's leases on the given in-flight transcripts. */
+  public long renewTranscriptLeases(Collection<String> transcriptIds) {
+    return renewLeases(transcriptIds, TRANSCRIPT_IN_FLIGHT, Transcript.class);
+  }
+
+  /** In-flight transcripts whose lease has expired, or that never had one, oldest first. */
+  public List<Transcript> findTranscriptsWithExpiredLease(Instant now, int limit) {
+    Query query = expiredLeases(TRANSCRIPT_IN_FLIGHT, now, limit);
+    return mongo().call(() -> mongoTemplate.find(query, Transcript.class));
+  }
+
+  /**
+   * Fails a transcript whose owner stopped renewing its lease, unless the lease was renewed since
+   * it was read. {@code nextAttemptAt} is handled as in {@link #markTranscriptFailed}.
+   */
+  public boolean reclaimTranscript(
+      Transcript expired, int attempts, Instant nextAttemptAt, String error) {
+    TranscriptStatus status =
+        nextAttemptAt != null ? TranscriptStatus.FAILED : TranscriptStatus.DEAD_LETTER;
+    Query query = leaseUnchanged(expired.getId(), expired.getStatus(), expired.getLeaseExpiresAt());
+    Update update = failedAttempt(status, attempts, nextAttemptAt, error);
+    return updateFirst(query, update, Transcript.class);
+  }
+
+  // Feedbacks
+
+  /**
+   * Claims the feedback slot of the feedback's transcript: inserts it leased to this instance, or
+   * returns the feedback already stored for the same {@code transcriptId}. Callers compare ids to
+   * tell the two apart.
+   */
+  public Feedback claimFeedback(Feedback feedback) {
+    if (feedback.getCreatedAt() == null) {
+      feedback.setCreatedAt(Instant.now());
+    }
+    feedback.setLeaseOwner(owner());
+    feedback.setLeaseExpiresAt(leaseExpiry());
+    try {
+      return mongo().call(() -> mongoTemplate.insert(feedback));
+    } catch (DuplicateKeyException e) {
+      Feedback existing =
+          mongo()
+              .call(
+                  () ->
+                      mongoTemplate.findOne(
+                          query(where("transcriptId").is(feedback.getTranscriptId())),
+                          Feedback.class));
+      if (existing == null) {
+        throw e;
+      }
+      return existing;
+    }
+  }
+
+  /**
+   * Takes a PROCESSING feedback found by {@link #claimFeedback} over, if this instance already
+   * holds it or its owner's lease has expired. Returns empty while another instance works on it.
+   */
+  public Optional<Feedback> takeOverFeedback(String feedbackId) {
+    Criteria leaseAvailable =
+        new Criteria()
+            .orOperator(
+                where("leaseOwner").is(owner()),
+                where("leaseExpiresAt").lt(Instant.now()),
+                where("leaseExpiresAt").is(null));
+    Query query =
+        query(
+            where("id")
+                .is(feedbackId)
+                .and("status")
+                .is(FeedbackStatus.PROCESSING)
+                .andOperator(leaseAvailable));
+    Update update = new Update().set("leaseOwner", owner()).set("leaseExpiresAt", leaseExpiry());
+    return Optional.ofNullable(
+        mongo()
+            .call(
+                () ->
+                    mongoTemplate.findAndModify(
+                        query,
+                        update,
+                        FindAndModifyOptions.options().returnNew(true),
+                        Feedback.class)));
+  }
+
+  /**
+   * Writes the analysis result in a single update once processing has finished, together with the
+   * outbox events announcing it. The events are only written if the feedback was completed.
+   *
+   * <p>In a transaction the events are numbered inside it: the counter update conflicts with any
+   * other completion in flight, so transactions commit in sequence order and the relay never
+   * passes over a lower number that is still uncommitted. A completion that lost the conflict is
+   * retried from the start. Without transactions the events are numbered up front, and events of
+   * the same learner are only ordered by sequence, not by the order their writes landed in.
+   */
+  public boolean completeFeedback(Feedback feedback, List<OutboxEvent> events) {
+    Update update =
+        new Update()
+            .set("overallScore", feedback.getOverallScore())
+            .set("grammarScore", feedback.getGrammarScore())
+            .set("vocabularyScore", feedback.getVocabularyScore())
+            .set("fluencyScore", feedback.getFluencyScore())
+            .set("pronunciationScore", feedback.getPronunciationScore())
+            .set("errors", feedback.getErrors())
+            .set("strengths", feedback.getStrengths())
+            .set("improvements", feedback.getImprovements())
+            .set("summary", feedback.getSummary())
+            .set("xpAwarded", feedback.getXpAwarded())
+            .set("status", FeedbackStatus.COMPLETED)
+            .set("completedAt", feedback.getCompletedAt())
+            .unset("leaseOwner")
+            .unset("leaseExpiresAt");
+    Query query = query(owned(feedback.getId()).and("status").is(FeedbackStatus.PROCESSING));
+
+    if (!outboxProperties.isTransactional()) {
+      numberEvents(events);
+      return mongo().call(() -> writeCompletion(query, update, events, false));
+    }
+    return mongo().call(() -> completeInTransaction(query, update, events));
+  }
+
+  /**
+   * Records a failed attempt of the feedback. A {@code null} {@code nextAttemptAt} moves it to
+   * DEAD_LETTER instead of FAILED.
+   */
+  public boolean markFeedbackFailed(
+      String feedbackId, int attempts, Instant nextAttemptAt, String error) {
+    Query query = query(owned(feedbackId).and("status").is(FeedbackStatus.PROCESSING));
+    FeedbackStatus status =
+        nextAttemptAt != null ? FeedbackStatus.FAILED : FeedbackStatus.DEAD_LETTER;
+    Update update = failedAttempt(status, attempts, nextAttemptAt, error);
+    return updateFirst(query, update, Feedback.class);
+  }
+
+  public Optional<Feedback> findFeedbackForTranscript(String transcriptId) {
+    return Optional.ofNullable(
+        mongo()
+            .call(
+                () ->
+                    mongoTemplate.findOne(
+                        query(where("transcriptId").is(transcriptId)), Feedback.class)));
+  }
+
+  /** FAILED feedbacks whose next attempt is due, oldest first. */
+  public List<Feedback> findFeedbacksDueForRetry(Instant now, int limit) {
+    Query query = dueForRetry(FeedbackStatus.FAILED, now, limit);
+    return mongo().call(() -> mongoTemplate.find(query, Feedback.class));
+  }
+
+  /** Moves a due feedback back to PROCESSING, leased to this instance; the analysis resumes it. */
+  public boolean claimFeedbackForRetry(String feedbackId) {
+    Update update =
+        new Update()
+            .set("status", FeedbackStatus.PROCESSING)
+            .set("startedAt", Instant.now())
+            .set("leaseOwner", owner())
+            .set("leaseExpiresAt", leaseExpiry())
+            .unset("nextAttemptAt");
+    Query query = query(where("id").is(feedbackId).and("status").is(FeedbackStatus.FAILED));
+    return updateFirst(query, update, Feedback.class);
+  }
+
+  /** Returns a claimed feedback to FAILED when the pipeline had no room for it. */
+  public boolean deferFeedbackRetry(String feedbackId, Instant nextAttemptAt) {
+    Query query = query(owned(feedbackId).and("status").is(FeedbackStatus.PROCESSING));
+    return updateFirst(query, deferral(FeedbackStatus.FAILED, nextAttemptAt), Feedback.class);
+  }
+
+  /** Extends this instance's leases on the given PROCESSING feedbacks. */
+  public long renewFeedbackLeases(Collection<String> feedbackIds) {
+    return renewLeases(
+        feedbackIds, new FeedbackStatus[] {FeedbackStatus.PROCESSING}, Feedback.class);
+  }
+
+  /** PROCESSING feedbacks whose lease has expired, or that never had one, oldest first. */
+  public List<Feedback> findFeedbacksWithExpiredLease(Instant now, int limit) {
+    Query query = expiredLeases(new FeedbackStatus[] {FeedbackStatus.PROCESSING}, now, limit);
+    return mongo().call(() -> mongoTemplate.find(query, Feedback.class));
+  }
+
+  /**
+   * Fails a feedback whose owner stopped renewing its lease, unless the lease was renewed since it
+   * was read. {@code nextAttemptAt} is handled as in {@link #markFeedbackFailed}.
+   */
+  public boolean reclaimFeedback(
+      Feedback expired, int attempts, Instant nextAttemptAt, String error) {
+    FeedbackStatus status =
+        nextAttemptAt != null ? FeedbackStatus.FAILED : FeedbackStatus.DEAD_LETTER;
+    Query query = leaseUnchanged(expired.getId(), expired.getStatus(), expired.getLeaseExpiresAt());
+    Update update = failedAttempt(status, attempts, nextAttemptAt, error);
+    return updateFirst(query, update, Feedback.class);
+  }
+
+  private static Update failedAttempt(
+      Enum<?> status, int attempts, Instant nextAttemptAt, String error) {
+    return new Update()
+        .set("status", status)
+        .set("attempts", attempts)
+        .set("nextAttemptAt", nextAttemptAt)
+        .set("lastError", error)
+        .unset("leaseOwner")
+        .unset("leaseExpiresAt");
+  }
+
+  private static Update deferral(Enum<?> failedStatus, Instant nextAttemptAt) {
+    return new Update()
+        .set("status", failedStatus)
+        .set("nextAttemptAt", nextAttemptAt)
+        .unset("leaseOwner")
+        .unset("leaseExpiresAt");
+  }
+
+  private static Query dueForRetry(Enum<?> failedStatus, Instant now, int limit) {
+    return query(where("status").is(failedStatus).and("nextAttemptAt").lte(now))
+        .with(Sort.by("nextAttemptAt"))
+        .limit(limit);
+  }
+
+  private static Query expiredLeases(Enum<?>[] statuses, Instant now, int limit) {
+    Criteria expired =
+        new Criteria()
+            .orOperator(where("leaseExpiresAt").lt(now), where("leaseExpiresAt").is(null));
+    return query(where("status").in((Object[]) statuses).andOperator(expired))
+        .with(Sort.by("leaseExpiresAt"))
+        .limit(limit);
+  }
+
+  /** Matches the document only if its status and lease expiry are still the ones read. */
+  private static Query leaseUnchanged(String id, Enum<?> status, Instant leaseExpiresAt) {
+    return query(
+        where("id").is(id).and("status").is(status).and("leaseExpiresAt").is(leaseExpiresAt));
+  }
+
+  private long renewLeases(Collection<String> ids, Enum<?>[] statuses, Class<?> entityClass) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    Query query =
+        query(
+            where("id")
+                .in(ids)
+                .and("leaseOwner")
+                .is(owner())
+                .and("status")
+                .in((Object[]) statuses));
+    Update update = new Update().set("leaseExpiresAt", leaseExpiry());
+    return mongo()
+        .call(() -> mongoTemplate.updateMulti(query, update, entityClass))
+        .getModifiedCount();
+  }
+
+  private Criteria owned(String id) {
+    return where("id").is(id).and("leaseOwner").is(owner());
+  }
+
+  private String owner() {
+    return leaseProperties.getOwner();
+  }
+
+  private Instant leaseExpiry() {
+    return Instant.now().plus(leaseProperties.getDuration());
+  }
+
+  /**
+   * Numbers outbox events from the server-side outbox counter, in list order. Numbers of events
+   * that end up not being written are skipped.
+   */
+  private void numberEvents(List<OutboxEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    Document counter;
+    try {
+      counter = mongo().call(() -> incrementSequence(events.size()));
+    } catch (DuplicateKeyException e) {
+      // Another instance created the counter concurrently; it exists now
+      counter = mongo().call(() -> incrementSequence(events.size()));
+    }
+    assignSequences(events, counter);
+  }
+
+  private Document incrementSequence(int count) {
+    Query query = query(where("_id").is(OUTBOX_SEQUENCE));
+    Update update = new Update().inc("value", count);
+    FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true).upsert(true);
+    return mongoTemplate.findAndModify(query, update, options, Document.class, SEQUENCES);
+  }
+
+  private static void assignSequences(List<OutboxEvent> events, Document counter) {
+    long next = counter.get("value", Number.class).longValue() - events.size();
+    for (OutboxEvent event : events) {
+      event.setSequence(++next);
+    }
+  }
+
+  /**
+   * Runs the completion in a transaction, retrying it when it lost a write conflict to another
+   * transaction, or when the first use of the counter collided with another instance creating it.
+   */
+  private boolean completeInTransaction(Query query, Update update, List<OutboxEvent> events) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return Boolean.TRUE.equals(
+            transactionTemplate.execute(status -> writeCompletion(query, update, events, true)));
+      } catch (RuntimeException e) {
+        if (attempt >= COMPLETION_ATTEMPTS || !isConflict(e)) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  private boolean writeCompletion(
+      Query query, Update update, List<OutboxEvent> events, boolean numberInside) {
+    UpdateResult result = mongoTemplate.updateFirst(query, update, Feedback.class);
+    boolean completed = result.getModifiedCount() > 0;
+    if (completed && !events.isEmpty()) {
+      if (numberInside) {
+        assignSequences(events, incrementSequence(events.size()));
+      }
+      mongoTemplate.insertAll(events);
+    }
+    return completed;
+  }
+
+  private static boolean isConflict(RuntimeException e) {
+    if (e instanceof DuplicateKeyException) {
+      return true;
+    }
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof MongoException mongoException
+          && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean updateFirst(Query query, Update update, Class<?> entityClass) {
+    UpdateResult result = mongo().call(() -> mongoTemplate.updateFirst(query, update, entityClass));
+    return result.getModifiedCount() > 0;
+  }
+
+  private DependencyGuard mongo() {
+    return dependencyGuards.mongo();
+  }
+}
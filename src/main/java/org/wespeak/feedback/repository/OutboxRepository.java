@@ -0,0 +1,12 @@
+package org.wespeak.feedback.repository;
+
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import org.wespeak.feedback.entity.OutboxEvent;
+
+@Repository
+public interface OutboxRepository extends MongoRepository<OutboxEvent, String> {
+  List<OutboxEvent> findAllByOrderBySequenceAscIdAsc(Pageable pageable);
+}
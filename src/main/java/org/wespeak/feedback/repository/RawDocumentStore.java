@@ -0,0 +1,52 @@
+package org.wespeak.feedback.repository;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.service.DependencyGuard;
+import org.wespeak.feedback.service.DependencyGuards;
+
+/**
+ * Reads feedbacks and transcripts as undecoded {@link RawBsonDocument}s for the detail endpoints,
+ * which write them to JSON as they are. Ownership is part of the filter, so a document of another
+ * user reads as empty just like a missing one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RawDocumentStore {
+
+  private final MongoTemplate mongoTemplate;
+  private final DependencyGuards dependencyGuards;
+
+  public Optional<RawBsonDocument> findFeedback(String id, String userId) {
+    return findOwned(Feedback.class, id, "userId", userId);
+  }
+
+  public Optional<RawBsonDocument> findTranscript(String id, String participantId) {
+    return findOwned(Transcript.class, id, "participantId", participantId);
+  }
+
+  private Optional<RawBsonDocument> findOwned(
+      Class<?> entityClass, String id, String ownerField, String owner) {
+    return Optional.ofNullable(
+        mongo()
+            .call(
+                () ->
+                    mongoTemplate
+                        .getCollection(mongoTemplate.getCollectionName(entityClass))
+                        .withDocumentClass(RawBsonDocument.class)
+                        .find(and(eq("_id", id), eq(ownerField, owner)))
+                        .first()));
+  }
+
+  private DependencyGuard mongo() {
+    return dependencyGuards.mongo();
+  }
+}
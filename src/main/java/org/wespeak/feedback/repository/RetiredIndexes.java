@@ -0,0 +1,53 @@
+package org.wespeak.feedback.repository;
+
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.entity.Feedback;
+
+/**
+ * Drops indexes an entity no longer declares. Automatic index creation only adds indexes, so one
+ * replaced by another would otherwise stay and be maintained on every write.
+ *
+ * <p>Runs once the application is ready, after the replacement indexes were created. A missing
+ * index is skipped, so every instance may run it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetiredIndexes {
+
+  /** Names of dropped indexes per entity; user_language_idx became user_language_list_idx. */
+  static final Map<Class<?>, List<String>> RETIRED =
+      Map.of(Feedback.class, List.of("user_language_idx"));
+
+  private final MongoTemplate mongoTemplate;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void dropRetired() {
+    RETIRED.forEach(
+        (entity, names) -> {
+          try {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            List<String> existing =
+                indexOps.getIndexInfo().stream().map(IndexInfo::getName).toList();
+            for (String name : names) {
+              if (existing.contains(name)) {
+                indexOps.dropIndex(name);
+                log.info("Dropped retired index {} of {}", name, entity.getSimpleName());
+              }
+            }
+          } catch (DataAccessException e) {
+            log.warn("Could not drop retired indexes of {}", entity.getSimpleName(), e);
+          }
+        });
+  }
+}
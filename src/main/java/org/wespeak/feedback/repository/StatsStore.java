@@ -0,0 +1,387 @@
+package org.wespeak.feedback.repository;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.lookup;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.merge;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.mongodb.client.result.UpdateResult;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import org.wespeak.feedback.entity.CommonError;
+import org.wespeak.feedback.entity.DailyProgress;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.FeedbackStatus;
+import org.wespeak.feedback.entity.RecentScore;
+import org.wespeak.feedback.entity.UserFeedbackStats;
+import org.wespeak.feedback.service.DependencyGuard;
+import org.wespeak.feedback.service.DependencyGuards;
+
+/**
+ * Writes to the learners' stats as single atomic upserts.
+ *
+ * <p>Stats keep counts and score sums that are only ever {@code $inc}remented, so concurrent
+ * feedbacks of the same learner never overwrite each other and each update is one round trip.
+ * Averages are derived from the sums on read.
+ *
+ * <p>The latest overall scores are kept as a rolling window maintained with {@code $push} and
+ * {@code $slice}, so the improvement bonus and the progress trend need no feedback history query.
+ *
+ * <p>Common error counters cannot be expressed as an update operator; they are rewritten with a
+ * compare-and-set on {@code commonErrorsVersion}.
+ *
+ * <p>Each feedback is also added to a per-day rollup in {@code daily_progress}, so progress
+ * history is read as a range of days rather than recomputed from feedbacks.
+ *
+ * <p>Every write remembers the ids of the latest feedbacks it folded in and skips a feedback it
+ * already holds, so a stats update replayed after a dependency failure counts nothing twice.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class StatsStore {
+
+  private static final String STATS_COLLECTION = "user_feedback_stats";
+
+  /** Stats written before score sums existed; their averages are still to be folded in. */
+  private static final Query LEGACY_STATS = query(where("averageOverallScore").exists(true));
+
+  private static final Document IS_LEGACY =
+      new Document("$ne", List.of(new Document("$type", "$averageOverallScore"), "missing"));
+
+  private final MongoTemplate mongoTemplate;
+  private final DependencyGuards dependencyGuards;
+
+  /** Folds a completed feedback into the stats of its learner and language. */
+  public void recordFeedback(Feedback feedback, int durationSeconds) {
+    Query query =
+        query(
+            where("userId")
+                .is(feedback.getUserId())
+                .and("targetLanguageCode")
+                .is(feedback.getTargetLanguageCode())
+                .and("appliedFeedbackIds")
+                .ne(feedback.getId()));
+    Instant now = Instant.now();
+    RecentScore recentScore =
+        RecentScore.builder().overallScore(feedback.getOverallScore()).at(now).build();
+    Update update =
+        new Update()
+            .inc("totalSessions", 1)
+            .inc("summedSessions", 1)
+            .inc("totalMinutes", durationSeconds / 60)
+            .inc("overallScoreSum", feedback.getOverallScore())
+            .inc("grammarScoreSum", feedback.getGrammarScore())
+            .inc("vocabularyScoreSum", feedback.getVocabularyScore())
+            .inc("fluencyScoreSum", feedback.getFluencyScore())
+            .max("lastFeedbackAt", now)
+            .set("updatedAt", now)
+            .setOnInsert("_id", UUID.randomUUID().toString())
+            .setOnInsert("commonErrors", new ArrayList<>());
+    update
+        .push("recentScores")
+        .atPosition(Update.Position.FIRST)
+        .slice(UserFeedbackStats.RECENT_SCORES)
+        .each(recentScore);
+    rememberApplied(update, "appliedFeedbackIds", feedback);
+    upsertOnce(query, update, UserFeedbackStats.class);
+  }
+
+  /** Adds a completed feedback to the rollup of the UTC day it completed on. */
+  public void recordDailyProgress(Feedback feedback, int durationSeconds) {
+    Instant completedAt =
+        feedback.getCompletedAt() != null ? feedback.getCompletedAt() : Instant.now();
+    Query query =
+        query(
+            where("userId")
+                .is(feedback.getUserId())
+                .and("targetLanguageCode")
+                .is(feedback.getTargetLanguageCode())
+                .and("day")
+                .is(dayOf(completedAt))
+                .and("appliedFeedbackIds")
+                .ne(feedback.getId()));
+    Update update =
+        new Update()
+            .inc("sessions", 1)
+            .inc("minutes", durationSeconds / 60)
+            .inc("overallScoreSum", feedback.getOverallScore())
+            .inc("grammarScoreSum", feedback.getGrammarScore())
+            .inc("vocabularyScoreSum", feedback.getVocabularyScore())
+            .inc("fluencyScoreSum", feedback.getFluencyScore())
+            .set("updatedAt", Instant.now())
+            .setOnInsert("_id", UUID.randomUUID().toString());
+    rememberApplied(update, "appliedFeedbackIds", feedback);
+    upsertOnce(query, update, DailyProgress.class);
+  }
+
+  /**
+   * Rebuilds the daily rollups from all completed feedbacks in one server-side aggregation that
+   * replaces each day's rollup; running it again yields the same rollups.
+   */
+  public void rebuildDailyProgress() {
+    Aggregation aggregation =
+        newAggregation(
+                match(where("status").is(FeedbackStatus.COMPLETED.name())),
+                lookup("transcripts", "transcriptId", "_id", "transcript"),
+                unwind("transcript", true),
+                project(
+                        "userId",
+                        "targetLanguageCode",
+                        "overallScore",
+                        "grammarScore",
+                        "vocabularyScore",
+                        "fluencyScore")
+                    .and(
+                        DateOperators.DateToString.dateOf(
+                                ConditionalOperators.ifNull("completedAt")
+                                    .thenValueOf("createdAt"))
+                            .toString("%Y-%m-%d")
+                            .withTimezone(DateOperators.Timezone.valueOf("UTC")))
+                    .as("day")
+                    .and(
+                        ArithmeticOperators.Floor.floorValueOf(
+                            ArithmeticOperators.valueOf(
+                                    ConditionalOperators.ifNull("transcript.duration").then(0))
+                                .divideBy(60)))
+                    .as("minutes"),
+                group("userId", "targetLanguageCode", "day")
+                    .count()
+                    .as("sessions")
+                    .sum("minutes")
+                    .as("minutes")
+                    .sum("overallScore")
+                    .as("overallScoreSum")
+                    .sum("grammarScore")
+                    .as("grammarScoreSum")
+                    .sum("vocabularyScore")
+                    .as("vocabularyScoreSum")
+                    .sum("fluencyScore")
+                    .as("fluencyScoreSum"),
+                project(
+                        "userId",
+                        "targetLanguageCode",
+                        "day",
+                        "sessions",
+                        "minutes",
+                        "overallScoreSum",
+                        "grammarScoreSum",
+                        "vocabularyScoreSum",
+                        "fluencyScoreSum")
+                    .andExclude("_id"),
+                merge()
+                    .intoCollection("daily_progress")
+                    .on("userId", "targetLanguageCode", "day")
+                    .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                    .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                    .build())
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    // Not guarded: a backfill runs far longer than the Mongo guard's slow-call threshold
+    mongoTemplate.aggregate(aggregation, "feedbacks", Document.class);
+  }
+
+  /** Whether any stats still hold averages from before score sums existed. */
+  public boolean hasLegacyAverages() {
+    return mongoTemplate.exists(LEGACY_STATS, STATS_COLLECTION);
+  }
+
+  /**
+   * Fills the recent score window of legacy stats from their latest completed feedbacks, in one
+   * server-side aggregation. Stats without legacy averages keep the window they have.
+   */
+  public void seedRecentScores() {
+    Aggregation aggregation =
+        newAggregation(
+                match(where("status").is(FeedbackStatus.COMPLETED.name())),
+                sort(Sort.Direction.DESC, "createdAt"),
+                group("userId", "targetLanguageCode")
+                    .push(
+                        new Document("overallScore", "$overallScore")
+                            .append(
+                                "at",
+                                new Document(
+                                    "$ifNull", List.of("$completedAt", "$createdAt"))))
+                    .as("recentScores"),
+                project("userId", "targetLanguageCode")
+                    .and(
+                        ArrayOperators.Slice.sliceArrayOf("recentScores")
+                            .itemCount(UserFeedbackStats.RECENT_SCORES))
+                    .as("recentScores")
+                    .andExclude("_id"),
+                merge()
+                    .intoCollection(STATS_COLLECTION)
+                    .on("userId", "targetLanguageCode")
+                    .whenMatched(
+                        MergeOperation.WhenDocumentsMatch.updateWith(
+                            newAggregation(
+                                context ->
+                                    new Document(
+                                        "$set",
+                                        new Document(
+                                            "recentScores",
+                                            new Document(
+                                                "$cond",
+                                                List.of(
+                                                    IS_LEGACY,
+                                                    "$$new.recentScores",
+                                                    "$recentScores")))))))
+                    .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.discardDocument())
+                    .build())
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    // Not guarded, like the rollup rebuild: it runs far longer than the slow-call threshold
+    mongoTemplate.aggregate(aggregation, "feedbacks", Document.class);
+  }
+
+  /**
+   * Folds the averages of legacy stats into their score sums, as average × the sessions not yet
+   * summed, and drops the averages. Each document is rewritten atomically, so feedbacks recorded
+   * meanwhile are neither lost nor counted twice.
+   */
+  public long foldLegacyAverages() {
+    AggregationExpression legacySessions =
+        ArithmeticOperators.Subtract.valueOf(ConditionalOperators.ifNull("totalSessions").then(0))
+            .subtract(ConditionalOperators.ifNull("summedSessions").then(0));
+    AggregationUpdate update =
+        AggregationUpdate.update()
+            .set(
+                SetOperation.builder()
+                    .set("overallScoreSum")
+                    .toValueOf(foldedSum("overallScoreSum", "averageOverallScore", legacySessions))
+                    .and()
+                    .set("grammarScoreSum")
+                    .toValueOf(foldedSum("grammarScoreSum", "averageGrammarScore", legacySessions))
+                    .and()
+                    .set("vocabularyScoreSum")
+                    .toValueOf(
+                        foldedSum("vocabularyScoreSum", "averageVocabularyScore", legacySessions))
+                    .and()
+                    .set("fluencyScoreSum")
+                    .toValueOf(foldedSum("fluencyScoreSum", "averageFluencyScore", legacySessions))
+                    .and()
+                    .set("summedSessions")
+                    .toValueOf(ConditionalOperators.ifNull("totalSessions").then(0)))
+            .unset(
+                "averageOverallScore",
+                "averageGrammarScore",
+                "averageVocabularyScore",
+                "averageFluencyScore",
+                "progressTrend");
+    return mongoTemplate.updateMulti(LEGACY_STATS, update, STATS_COLLECTION).getModifiedCount();
+  }
+
+  private static AggregationExpression foldedSum(
+      String sumField, String averageField, AggregationExpression legacySessions) {
+    return ConvertOperators.ToLong.toLong(
+        ArithmeticOperators.Add.valueOf(ConditionalOperators.ifNull(sumField).then(0))
+            .add(
+                ArithmeticOperators.Round.roundValueOf(
+                    ArithmeticOperators.Multiply.valueOf(
+                            ConditionalOperators.ifNull(averageField).then(0))
+                        .multiplyBy(legacySessions))));
+  }
+
+  /** The UTC day an instant falls on, as rollups are keyed. */
+  public static String dayOf(Instant instant) {
+    return LocalDate.ofInstant(instant, ZoneOffset.UTC).toString();
+  }
+
+  /**
+   * Reads the learner's common error counters for a compare-and-set with {@link
+   * #replaceCommonErrors}; empty if the learner has no stats yet.
+   */
+  public Optional<UserFeedbackStats> findCommonErrors(String userId, String languageCode) {
+    Query query = statsOf(userId, languageCode);
+    query.fields().include("commonErrors", "commonErrorsVersion", "commonErrorsFeedbackIds");
+    return Optional.ofNullable(
+        mongo().call(() -> mongoTemplate.findOne(query, UserFeedbackStats.class)));
+  }
+
+  /**
+   * Stores new common error counters with {@code feedback} counted in, if nobody replaced them
+   * since {@code stats} was read; returns {@code false} otherwise.
+   */
+  public boolean replaceCommonErrors(
+      UserFeedbackStats stats, List<CommonError> commonErrors, Feedback feedback) {
+    Long version = stats.getCommonErrorsVersion();
+    Query query = query(where("id").is(stats.getId()).and("commonErrorsVersion").is(version));
+    Update update =
+        new Update()
+            .set("commonErrors", commonErrors)
+            .set("commonErrorsVersion", version == null ? 1 : version + 1);
+    rememberApplied(update, "commonErrorsFeedbackIds", feedback);
+    UpdateResult result =
+        mongo().call(() -> mongoTemplate.updateFirst(query, update, UserFeedbackStats.class));
+    return result.getModifiedCount() > 0;
+  }
+
+  /** Overall scores of the learner's latest feedbacks, newest first. */
+  public List<Integer> recentScores(String userId, String languageCode) {
+    Query query = statsOf(userId, languageCode);
+    query.fields().include("recentScores");
+    UserFeedbackStats stats =
+        mongo().call(() -> mongoTemplate.findOne(query, UserFeedbackStats.class));
+    return stats != null ? stats.recentOverallScores() : List.of();
+  }
+
+  private static Query statsOf(String userId, String languageCode) {
+    return query(where("userId").is(userId).and("targetLanguageCode").is(languageCode));
+  }
+
+  /** Adds the feedback to the capped list of feedbacks folded into the document. */
+  private static void rememberApplied(Update update, String field, Feedback feedback) {
+    update.push(field).slice(-UserFeedbackStats.APPLIED_FEEDBACKS).each(feedback.getId());
+  }
+
+  /**
+   * Upserts a document whose query excludes it once it holds the feedback. The upsert then falls
+   * back to an insert that collides on the unique key, which means the feedback was applied.
+   */
+  private void upsertOnce(Query query, Update update, Class<?> entityClass) {
+    try {
+      mongo().call(() -> mongoTemplate.upsert(query, update, entityClass));
+    } catch (DuplicateKeyException e) {
+      // Either a concurrent upsert inserted the document first, and this one now matches it, or
+      // the feedback is already applied and the retry collides again
+      try {
+        mongo().call(() -> mongoTemplate.upsert(query, update, entityClass));
+      } catch (DuplicateKeyException applied) {
+        log.debug("Feedback already applied to {}, skipping", entityClass.getSimpleName());
+      }
+    }
+  }
+
+  private DependencyGuard mongo() {
+    return dependencyGuards.mongo();
+  }
+}
@@ -7,7 +7,8 @@ import org.springframework.stereotype.Repository;
 import org.wespeak.feedback.entity.Transcript;
 
 @Repository
-public interface TranscriptRepository extends MongoRepository<Transcript, String> {
+public interface TranscriptRepository
+    extends MongoRepository<Transcript, String>, TranscriptRepositoryCustom {
   List<Transcript> findBySessionId(String sessionId);
 
   Optional<Transcript> findByRecordingId(String recordingId);
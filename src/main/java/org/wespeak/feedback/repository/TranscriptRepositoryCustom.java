@@ -0,0 +1,17 @@
+package org.wespeak.feedback.repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import org.wespeak.feedback.entity.Transcript;
+
+public interface TranscriptRepositoryCustom {
+
+  /** The transcript with only {@code fields} and its participant loaded. */
+  Optional<Transcript> findByIdWithFields(String id, Collection<String> fields);
+
+  /** The transcript with its participant and {@code count} segments from index {@code from}. */
+  Optional<Transcript> findSegmentSlice(String id, int from, int count);
+
+  /** The transcript with its participant and only the start and end times of its segments. */
+  Optional<Transcript> findSegmentTimes(String id);
+}
@@ -0,0 +1,38 @@
+package org.wespeak.feedback.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Collection;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.wespeak.feedback.entity.Transcript;
+
+@RequiredArgsConstructor
+class TranscriptRepositoryImpl implements TranscriptRepositoryCustom {
+
+  private final MongoTemplate mongoTemplate;
+
+  @Override
+  public Optional<Transcript> findByIdWithFields(String id, Collection<String> fields) {
+    Query query = query(where("id").is(id));
+    query.fields().include(fields.toArray(String[]::new)).include("participantId");
+    return Optional.ofNullable(mongoTemplate.findOne(query, Transcript.class));
+  }
+
+  @Override
+  public Optional<Transcript> findSegmentSlice(String id, int from, int count) {
+    Query query = query(where("id").is(id));
+    query.fields().include("participantId").slice("segments", from, count);
+    return Optional.ofNullable(mongoTemplate.findOne(query, Transcript.class));
+  }
+
+  @Override
+  public Optional<Transcript> findSegmentTimes(String id) {
+    Query query = query(where("id").is(id));
+    query.fields().include("participantId", "segments.startTime", "segments.endTime");
+    return Optional.ofNullable(mongoTemplate.findOne(query, Transcript.class));
+  }
+}
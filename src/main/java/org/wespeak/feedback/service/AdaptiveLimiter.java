@@ -0,0 +1,221 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.RestClientResponseException;
+import org.wespeak.feedback.config.UpstreamLimitProperties;
+
+/**
+ * AIMD concurrency limit for one external API.
+ *
+ * <p>Each fast response grows the limit by roughly one per round of calls; a response slower than
+ * the latency threshold shrinks it by the backoff ratio. A throttled response (429, 503 or 529)
+ * halves the limit and stops new calls until the {@code Retry-After} delay has passed, after which
+ * the call is retried. Callers block for a permit instead of failing.
+ */
+@Slf4j
+public class AdaptiveLimiter {
+
+  private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(2);
+
+  private final String name;
+  private final UpstreamLimitProperties.Limit config;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition permitsChanged = lock.newCondition();
+
+  private double limit;
+  private int inFlight;
+  private int waiting;
+  private long pausedUntil;
+
+  private final Timer queueWait;
+  private final Counter throttled;
+
+  public AdaptiveLimiter(
+      String name, UpstreamLimitProperties.Limit config, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.config = config;
+    this.limit = config.getInitialLimit();
+    this.pausedUntil = System.nanoTime();
+
+    Gauge.builder("upstream.limit", this, AdaptiveLimiter::getLimit)
+        .tag("upstream", name)
+        .register(meterRegistry);
+    Gauge.builder("upstream.in.flight", this, AdaptiveLimiter::getInFlight)
+        .tag("upstream", name)
+        .register(meterRegistry);
+    Gauge.builder("upstream.waiting", this, limiter -> limiter.waiting)
+        .tag("upstream", name)
+        .register(meterRegistry);
+    this.queueWait =
+        Timer.builder("upstream.queue.wait")
+            .description("Time spent waiting for a permit to call the upstream")
+            .tag("upstream", name)
+            .register(meterRegistry);
+    this.throttled = meterRegistry.counter("upstream.throttled", "upstream", name);
+  }
+
+  /** Runs the call under a permit, retrying it after the upstream's delay when throttled. */
+  public <T> T call(Supplier<T> request) {
+    for (int attempt = 1; ; attempt++) {
+      acquire();
+      long startedAt = System.nanoTime();
+      try {
+        T result = request.get();
+        onSuccess(System.nanoTime() - startedAt);
+        return result;
+      } catch (RestClientResponseException e) {
+        if (!isThrottled(e.getStatusCode())) {
+          onDropped();
+          throw e;
+        }
+        Duration retryAfter = retryAfter(e.getResponseHeaders(), attempt);
+        onThrottled(retryAfter);
+        if (attempt >= config.getMaxAttempts()) {
+          throw e;
+        }
+        log.warn(
+            "{} throttled the call ({}), retrying in {} ms",
+            name,
+            e.getStatusCode().value(),
+            retryAfter.toMillis());
+      } catch (RuntimeException e) {
+        onDropped();
+        throw e;
+      }
+    }
+  }
+
+  public double getLimit() {
+    lock.lock();
+    try {
+      return limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void acquire() {
+    long waitStartedAt = System.nanoTime();
+    lock.lock();
+    try {
+      waiting++;
+      try {
+        while (true) {
+          long pause = pausedUntil - System.nanoTime();
+          if (pause > 0) {
+            permitsChanged.awaitNanos(pause);
+          } else if (inFlight < (int) limit) {
+            break;
+          } else {
+            permitsChanged.await();
+          }
+        }
+      } finally {
+        waiting--;
+      }
+      inFlight++;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to call " + name, e);
+    } finally {
+      lock.unlock();
+    }
+    queueWait.record(System.nanoTime() - waitStartedAt, TimeUnit.NANOSECONDS);
+  }
+
+  private void onSuccess(long latencyNanos) {
+    lock.lock();
+    try {
+      boolean saturated = inFlight * 2 >= (int) limit;
+      inFlight--;
+      if (latencyNanos > config.getLatencyThreshold().toNanos()) {
+        limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+      } else if (saturated) {
+        // Only grow while the current limit is actually being used
+        limit = Math.min(config.getMaxLimit(), limit + 1 / limit);
+      }
+      permitsChanged.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void onThrottled(Duration retryAfter) {
+    lock.lock();
+    try {
+      inFlight--;
+      throttled.increment();
+      long now = System.nanoTime();
+      // Concurrent rejections from one overload episode only back off once
+      if (pausedUntil - now <= 0) {
+        limit = Math.max(config.getMinLimit(), limit / 2);
+      }
+      pausedUntil = Math.max(pausedUntil - now, retryAfter.toNanos()) + now;
+      permitsChanged.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void onDropped() {
+    lock.lock();
+    try {
+      inFlight--;
+      permitsChanged.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static boolean isThrottled(HttpStatusCode status) {
+    return status.value() == 429 || status.value() == 503 || status.value() == 529;
+  }
+
+  /** Reads {@code Retry-After} as seconds or an HTTP date, else backs off exponentially. */
+  static Duration retryAfter(HttpHeaders headers, int attempt) {
+    String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+    Duration delay = null;
+    if (value != null) {
+      try {
+        delay = Duration.ofSeconds(Long.parseLong(value.trim()));
+      } catch (NumberFormatException notSeconds) {
+        try {
+          ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+          delay = Duration.between(ZonedDateTime.now(at.getZone()), at);
+        } catch (DateTimeParseException notDate) {
+          log.debug("Ignoring unparseable Retry-After: {}", value);
+        }
+      }
+    }
+    if (delay == null) {
+      delay = Duration.ofMillis(500L << Math.min(attempt - 1, 6));
+    }
+    if (delay.isNegative()) {
+      return Duration.ZERO;
+    }
+    return delay.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : delay;
+  }
+}
@@ -0,0 +1,166 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.AnalysisBatchProperties;
+
+/**
+ * Groups analysis requests into batches so several transcripts share one LLM call.
+ *
+ * <p>A batch is sent when it reaches {@code max-items}, when the next transcript would push its
+ * estimated prompt past {@code max-tokens}, or when its first transcript has waited for {@code
+ * linger}. If the answer to a batch cannot be read, its transcripts are retried one by one so a
+ * single bad document cannot fail its neighbours; a transcript missing from a batch answer fails on
+ * its own. Transport, upstream and availability failures fail the whole batch, as sending each
+ * transcript again would only multiply the load on a struggling dependency.
+ */
+@Slf4j
+@Component
+public class AnalysisBatcher {
+
+  private final AnalysisClient analysisClient;
+  private final AnalysisBatchProperties properties;
+  private final ScheduledExecutorService lingerTimer;
+  private final ExecutorService dispatcher;
+  private final DistributionSummary batchSizes;
+
+  private final Object lock = new Object();
+  private List<PendingAnalysis> open = new ArrayList<>();
+  private int openTokens;
+  private ScheduledFuture<?> lingerDeadline;
+
+  public AnalysisBatcher(
+      AnalysisClient analysisClient,
+      AnalysisBatchProperties properties,
+      MeterRegistry meterRegistry) {
+    this.analysisClient = analysisClient;
+    this.properties = properties;
+    this.lingerTimer = Executors.newSingleThreadScheduledExecutor(daemon("analysis-linger"));
+    this.dispatcher =
+        Executors.newFixedThreadPool(properties.getConcurrency(), daemon("analysis-batch"));
+    this.batchSizes =
+        DistributionSummary.builder("analysis.batch.size")
+            .description("Transcripts sent per analysis request")
+            .register(meterRegistry);
+  }
+
+  /** Adds the transcript to the open batch; the future completes once its batch is answered. */
+  public CompletableFuture<AnalysisResult> submit(AnalysisRequest request) {
+    PendingAnalysis pending = new PendingAnalysis(request, new CompletableFuture<>());
+    int tokens = request.estimatedTokens();
+    List<List<PendingAnalysis>> ready = new ArrayList<>(2);
+
+    synchronized (lock) {
+      if (!open.isEmpty() && openTokens + tokens > properties.getMaxTokens()) {
+        ready.add(takeOpen());
+      }
+      open.add(pending);
+      openTokens += tokens;
+      if (open.size() >= properties.getMaxItems() || openTokens >= properties.getMaxTokens()) {
+        ready.add(takeOpen());
+      } else if (open.size() == 1) {
+        List<PendingAnalysis> batch = open;
+        lingerDeadline =
+            lingerTimer.schedule(
+                () -> flushIfOpen(batch),
+                properties.getLinger().toNanos(),
+                TimeUnit.NANOSECONDS);
+      }
+    }
+
+    ready.forEach(this::dispatch);
+    return pending.result().orTimeout(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void flushIfOpen(List<PendingAnalysis> batch) {
+    List<PendingAnalysis> ready = null;
+    synchronized (lock) {
+      // The batch may have filled up and been sent while the timer was firing
+      if (open == batch) {
+        ready = takeOpen();
+      }
+    }
+    if (ready != null) {
+      dispatch(ready);
+    }
+  }
+
+  /** Detaches the open batch and starts a new one; must hold {@link #lock}. */
+  private List<PendingAnalysis> takeOpen() {
+    List<PendingAnalysis> batch = open;
+    open = new ArrayList<>();
+    openTokens = 0;
+    if (lingerDeadline != null) {
+      lingerDeadline.cancel(false);
+      lingerDeadline = null;
+    }
+    return batch;
+  }
+
+  private void dispatch(List<PendingAnalysis> batch) {
+    batchSizes.record(batch.size());
+    dispatcher.execute(() -> send(batch));
+  }
+
+  private void send(List<PendingAnalysis> batch) {
+    Map<String, AnalysisResult> results;
+    try {
+      results = analysisClient.analyze(batch.stream().map(PendingAnalysis::request).toList());
+    } catch (MalformedAnalysisException e) {
+      if (batch.size() == 1) {
+        batch.get(0).result().completeExceptionally(e);
+        return;
+      }
+      log.warn("Unreadable answer for a batch of {}, retrying one by one", batch.size(), e);
+      batch.forEach(pending -> send(List.of(pending)));
+      return;
+    } catch (RuntimeException e) {
+      batch.forEach(pending -> pending.result().completeExceptionally(e));
+      return;
+    }
+
+    for (PendingAnalysis pending : batch) {
+      String id = pending.request().getId();
+      AnalysisResult result = results.get(id);
+      if (result != null) {
+        pending.result().complete(result);
+      } else {
+        pending
+            .result()
+            .completeExceptionally(new IllegalStateException("No analysis returned for " + id));
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    lingerTimer.shutdownNow();
+    dispatcher.shutdownNow();
+  }
+
+  private static ThreadFactory daemon(String prefix) {
+    AtomicInteger threadCount = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private record PendingAnalysis(
+      AnalysisRequest request, CompletableFuture<AnalysisResult> result) {}
+}
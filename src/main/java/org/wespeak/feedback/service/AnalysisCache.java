@@ -0,0 +1,205 @@
+package org.wespeak.feedback.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.entity.AnalysisCacheEntry;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.TranscriptSegment;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+import org.wespeak.feedback.repository.AnalysisCacheRepository;
+
+/**
+ * Two-tier, content-addressed cache of analysis results: Caffeine in front of the {@code
+ * analysis_cache} collection.
+ *
+ * <p>Keys hash the normalized segment text together with the target language and the analysis
+ * model version, so identical utterances share a result and a model or prompt change starts from
+ * an empty cache. The Mongo tier is best effort and goes through the Mongo dependency guard: when
+ * it is unavailable, or the guard is open, lookups count as misses and results are only kept in
+ * memory.
+ */
+@Slf4j
+@Component
+public class AnalysisCache {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final AnalysisCacheRepository repository;
+  private final DependencyGuard mongo;
+  private final String modelVersion;
+  private final boolean mongoTierEnabled;
+  private final Cache<String, AnalysisResult> memory;
+
+  private final Counter memoryHits;
+  private final Counter mongoHits;
+  private final Counter misses;
+  private final Counter savedSeconds;
+  private final Timer uncachedLatency;
+
+  public AnalysisCache(
+      AnalysisCacheRepository repository,
+      AnalysisClient analysisClient,
+      DependencyGuards dependencyGuards,
+      MeterRegistry meterRegistry,
+      @Value("${app.llm.cache.max-size:10000}") long maxSize,
+      @Value("${app.llm.cache.memory-ttl:PT24H}") Duration memoryTtl,
+      @Value("${app.llm.cache.mongo-enabled:true}") boolean mongoTierEnabled) {
+    this.repository = repository;
+    this.mongo = dependencyGuards.mongo();
+    this.modelVersion = analysisClient.modelVersion();
+    this.mongoTierEnabled = mongoTierEnabled;
+    this.memory = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(memoryTtl).build();
+
+    this.memoryHits = meterRegistry.counter("analysis.cache.requests", "result", "memory-hit");
+    this.mongoHits = meterRegistry.counter("analysis.cache.requests", "result", "mongo-hit");
+    this.misses = meterRegistry.counter("analysis.cache.requests", "result", "miss");
+    this.savedSeconds =
+        Counter.builder("analysis.cache.saved.latency")
+            .description("Estimated analysis time avoided by cache hits")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    this.uncachedLatency =
+        Timer.builder("analysis.uncached.latency")
+            .description("Time to analyze a transcript that was not cached")
+            .register(meterRegistry);
+    Gauge.builder("analysis.cache.hit.ratio", this, AnalysisCache::hitRatio)
+        .register(meterRegistry);
+  }
+
+  /** Returns the cache key for the transcript's current text. */
+  public String keyFor(Transcript transcript) {
+    List<TranscriptSegment> segments = transcript.getSegments();
+    String text =
+        segments == null || segments.isEmpty()
+            ? normalize(transcript.getContent())
+            : segments.stream()
+                .map(segment -> normalize(segment.getText()))
+                .collect(Collectors.joining("\n"));
+    String material =
+        String.join("\u0000", modelVersion, transcript.getTargetLanguageCode(), text);
+    return HexFormat.of().formatHex(sha256().digest(material.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  public Optional<AnalysisResult> find(String key) {
+    AnalysisResult cached = memory.getIfPresent(key);
+    if (cached != null) {
+      recordHit(memoryHits);
+      return Optional.of(cached);
+    }
+
+    Optional<AnalysisResult> stored = findStored(key);
+    if (stored.isPresent()) {
+      memory.put(key, stored.get());
+      recordHit(mongoHits);
+    } else {
+      misses.increment();
+    }
+    return stored;
+  }
+
+  /** Stores a freshly computed result; {@code latency} is how long computing it took. */
+  public void put(String key, String targetLanguageCode, AnalysisResult result, Duration latency) {
+    uncachedLatency.record(latency);
+    memory.put(key, result);
+    if (!mongoTierEnabled) {
+      return;
+    }
+    AnalysisCacheEntry entry = toEntry(key, targetLanguageCode, result);
+    try {
+      mongo.call(() -> repository.save(entry));
+    } catch (DataAccessException | DependencyUnavailableException e) {
+      log.warn("Could not store analysis cache entry {}: {}", key, e.getMessage());
+    }
+  }
+
+  private Optional<AnalysisResult> findStored(String key) {
+    if (!mongoTierEnabled) {
+      return Optional.empty();
+    }
+    try {
+      return mongo.call(() -> repository.findById(key)).map(AnalysisCache::toResult);
+    } catch (DataAccessException | DependencyUnavailableException e) {
+      log.warn("Analysis cache lookup failed for {}: {}", key, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private void recordHit(Counter tier) {
+    tier.increment();
+    savedSeconds.increment(uncachedLatency.mean(TimeUnit.SECONDS));
+  }
+
+  private double hitRatio() {
+    double hits = memoryHits.count() + mongoHits.count();
+    double total = hits + misses.count();
+    return total == 0 ? 0 : hits / total;
+  }
+
+  private AnalysisCacheEntry toEntry(String key, String targetLanguageCode, AnalysisResult result) {
+    return AnalysisCacheEntry.builder()
+        .key(key)
+        .modelVersion(modelVersion)
+        .targetLanguageCode(targetLanguageCode)
+        .grammarScore(result.getGrammarScore())
+        .vocabularyScore(result.getVocabularyScore())
+        .fluencyScore(result.getFluencyScore())
+        .pronunciationScore(result.getPronunciationScore())
+        .errors(result.getErrors())
+        .strengths(result.getStrengths())
+        .improvements(result.getImprovements())
+        .summary(result.getSummary())
+        .createdAt(Instant.now())
+        .build();
+  }
+
+  private static AnalysisResult toResult(AnalysisCacheEntry entry) {
+    return AnalysisResult.builder()
+        .grammarScore(entry.getGrammarScore())
+        .vocabularyScore(entry.getVocabularyScore())
+        .fluencyScore(entry.getFluencyScore())
+        .pronunciationScore(entry.getPronunciationScore())
+        .errors(entry.getErrors())
+        .strengths(entry.getStrengths())
+        .improvements(entry.getImprovements())
+        .summary(entry.getSummary())
+        .build();
+  }
+
+  /** Case, Unicode form and whitespace differences do not change what the learner said. */
+  private static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String composed = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    return WHITESPACE.matcher(composed).replaceAll(" ").strip();
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package org.wespeak.feedback.service;
+
+import java.util.List;
+import java.util.Map;
+
+/** Analyzes a batch of transcripts in a single request to the language model. */
+public interface AnalysisClient {
+
+  /**
+   * Returns the results keyed by {@link AnalysisRequest#getId()}. A transcript the model could not
+   * analyze is left out of the map; an exception means the whole request failed, and a {@link
+   * MalformedAnalysisException} that an answer came back but could not be read.
+   */
+  Map<String, AnalysisResult> analyze(List<AnalysisRequest> batch);
+
+  /** Identifies the model and prompt revision; results from different versions are not reused. */
+  String modelVersion();
+}
@@ -0,0 +1,24 @@
+package org.wespeak.feedback.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/** One transcript to analyze, identified within its batch by {@code id}. */
+@Value
+@Builder
+public class AnalysisRequest {
+
+  /** Rough per-document cost of the instructions and JSON framing around the transcript. */
+  private static final int FRAMING_TOKENS = 50;
+
+  String id;
+  String languageCode;
+  String content;
+  int durationSeconds;
+
+  /** Approximates the prompt tokens this transcript adds to a batch (about 4 chars per token). */
+  public int estimatedTokens() {
+    int length = content == null ? 0 : content.length();
+    return FRAMING_TOKENS + (length + 3) / 4;
+  }
+}
@@ -0,0 +1,24 @@
+package org.wespeak.feedback.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+import org.wespeak.feedback.entity.FeedbackError;
+
+/** Scores and comments the analysis produced for a single transcript. */
+@Value
+@Builder
+@Jacksonized
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AnalysisResult {
+  int grammarScore;
+  int vocabularyScore;
+  int fluencyScore;
+  int pronunciationScore;
+  List<FeedbackError> errors;
+  List<String> strengths;
+  List<String> improvements;
+  String summary;
+}
@@ -1,87 +1,90 @@
 package org.wespeak.feedback.service;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.wespeak.feedback.entity.*;
-import org.wespeak.feedback.repository.FeedbackRepository;
-import org.wespeak.feedback.repository.UserFeedbackStatsRepository;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+import org.wespeak.feedback.repository.LifecycleStore;
+import org.wespeak.feedback.repository.StatsStore;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AnalysisService {
 
-  private final FeedbackRepository feedbackRepository;
-  private final UserFeedbackStatsRepository statsRepository;
-
-  public void analyzeTranscript(Transcript transcript) {
+  private final StatsStore statsStore;
+  private final CommonErrorTracker commonErrorTracker;
+  private final StatsService statsService;
+  private final LifecycleStore lifecycleStore;
+  private final AnalysisBatcher analysisBatcher;
+  private final AnalysisCache analysisCache;
+  private final OutboxRelay outboxRelay;
+  private final RetryPolicy retryPolicy;
+  private final WorkLeases workLeases;
+
+  /**
+   * Runs the analysis and returns the completed feedback, or empty if the analysis failed.
+   *
+   * <p>Results for identical transcript text are reused from the analysis cache. Otherwise the
+   * transcript joins the analysis batcher's open batch, so the calling pipeline worker waits for
+   * the linger window and the shared LLM call.
+   *
+   * <p>The feedback.generated and xp.awarded events are written to the outbox together with the
+   * completed feedback, so they are published if and only if the completion is stored.
+   *
+   * @throws DependencyUnavailableException if a dependency is unhealthy; the feedback stays
+   *     PROCESSING and is picked up again when the analysis is retried
+   */
+  public Optional<Feedback> analyzeTranscript(Transcript transcript) {
     log.info("Starting analysis for transcript: {}", transcript.getId());
 
-    // Create Feedback in PENDING status
+    // Create Feedback directly in PROCESSING status, the analysis starts right away
     Feedback feedback =
         Feedback.builder()
             .transcriptId(transcript.getId())
             .userId(transcript.getParticipantId())
             .sessionId(transcript.getSessionId())
             .targetLanguageCode(transcript.getTargetLanguageCode())
-            .status(FeedbackStatus.PENDING)
+            .status(FeedbackStatus.PROCESSING)
+            .startedAt(Instant.now())
             .build();
 
-    feedback = feedbackRepository.save(feedback);
+    Feedback claimed = lifecycleStore.claimFeedback(feedback);
+    if (!claimed.getId().equals(feedback.getId())) {
+      if (claimed.getStatus() != FeedbackStatus.PROCESSING) {
+        log.info("Transcript {} already has feedback {}", transcript.getId(), claimed.getId());
+        return Optional.empty();
+      }
+      Optional<Feedback> takenOver = lifecycleStore.takeOverFeedback(claimed.getId());
+      if (takenOver.isEmpty()) {
+        log.info("Feedback {} is being analyzed by another instance", claimed.getId());
+        return Optional.empty();
+      }
+      log.info("Resuming analysis of feedback {}", claimed.getId());
+      claimed = takenOver.get();
+    }
+    feedback = claimed;
+    workLeases.holdFeedback(feedback.getId());
 
     try {
-      feedback.setStatus(FeedbackStatus.PROCESSING);
-      feedbackRepository.save(feedback);
-
-      // STUBBED: In production, this would call LLM API (Claude/GPT)
-      // For now, create a mock analysis
-
-      // Mock errors found in the transcript
-      List<FeedbackError> mockErrors =
-          List.of(
-              FeedbackError.builder()
-                  .type(ErrorType.GRAMMAR)
-                  .original("I go yesterday")
-                  .correction("I went yesterday")
-                  .explanation("Utilisez le passé simple 'went' pour une action passée.")
-                  .severity(ErrorSeverity.MEDIUM)
-                  .segmentIndex(2)
-                  .build(),
-              FeedbackError.builder()
-                  .type(ErrorType.VOCABULARY)
-                  .original("many peoples")
-                  .correction("many people")
-                  .explanation("'People' est déjà un pluriel. N'ajoutez pas 's'.")
-                  .severity(ErrorSeverity.LOW)
-                  .segmentIndex(2)
-                  .build());
-
-      List<String> mockStrengths =
-          List.of(
-              "Bonne fluidité générale dans l'expression",
-              "Utilisation correcte des temps présents",
-              "Vocabulaire approprié pour décrire des activités quotidiennes");
-
-      List<String> mockImprovements =
-          List.of(
-              "Revoir la conjugaison des verbes irréguliers au passé",
-              "Attention aux pluriels irréguliers en anglais",
-              "Pratiquer l'utilisation des articles (a, an, the)");
-
-      String mockSummary =
-          "Bon travail ! Votre anglais est compréhensible et fluide. "
-              + "Quelques erreurs de grammaire à corriger, notamment sur les temps du passé. "
-              + "Continuez à pratiquer régulièrement.";
-
-      // Calculate scores
-      int grammarScore = 68;
-      int vocabularyScore = 75;
-      int fluencyScore = 78;
-      int pronunciationScore = 70;
+      String cacheKey = analysisCache.keyFor(transcript);
+      AnalysisResult result =
+          analysisCache
+              .find(cacheKey)
+              .orElseGet(() -> analyzeUncached(transcript, cacheKey));
+
+      int grammarScore = result.getGrammarScore();
+      int vocabularyScore = result.getVocabularyScore();
+      int fluencyScore = result.getFluencyScore();
+      int pronunciationScore = result.getPronunciationScore();
 
       // Calculate overall score (weighted average)
       int overallScore =
@@ -92,12 +95,14 @@ public class AnalysisService {
                   + (pronunciationScore * 0.15));
 
       // Calculate XP
-      int xpAwarded =
+      Map<String, Integer> xpBreakdown =
           calculateXp(
               overallScore,
               transcript.getDuration(),
               transcript.getParticipantId(),
               transcript.getTargetLanguageCode());
+      int xpAwarded =
+          Math.min(xpBreakdown.values().stream().mapToInt(Integer::intValue).sum(), 40);
 
       // Update feedback
       feedback.setOverallScore(overallScore);
@@ -105,138 +110,140 @@ public class AnalysisService {
       feedback.setVocabularyScore(vocabularyScore);
       feedback.setFluencyScore(fluencyScore);
       feedback.setPronunciationScore(pronunciationScore);
-      feedback.setErrors(mockErrors);
-      feedback.setStrengths(mockStrengths);
-      feedback.setImprovements(mockImprovements);
-      feedback.setSummary(mockSummary);
+      feedback.setErrors(result.getErrors());
+      feedback.setStrengths(result.getStrengths());
+      feedback.setImprovements(result.getImprovements());
+      feedback.setSummary(result.getSummary());
       feedback.setXpAwarded(xpAwarded);
       feedback.setStatus(FeedbackStatus.COMPLETED);
       feedback.setCompletedAt(Instant.now());
 
-      feedback = feedbackRepository.save(feedback);
+      boolean completed =
+          lifecycleStore.completeFeedback(
+              feedback, FeedbackEvents.forCompletion(feedback, xpBreakdown));
+      workLeases.releaseFeedback(feedback.getId());
+      if (!completed) {
+        log.warn("Feedback {} is no longer ours, dropping result", feedback.getId());
+        return Optional.empty();
+      }
+      outboxRelay.signal();
       log.info("Analysis completed for transcript: {}", transcript.getId());
+      return Optional.of(feedback);
 
-      // Update user stats
-      updateUserStats(feedback, transcript.getDuration());
+    } catch (Exception e) {
+      Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+      if (cause instanceof DependencyUnavailableException unavailable) {
+        throw unavailable;
+      }
+      log.error("Analysis failed for transcript: {}", transcript.getId(), cause);
+      markFailed(feedback, RetryPolicy.describe(cause));
+      return Optional.empty();
+    }
+  }
+
+  private AnalysisResult analyzeUncached(Transcript transcript, String cacheKey) {
+    long startedAt = System.nanoTime();
+    AnalysisResult result =
+        analysisBatcher
+            .submit(
+                AnalysisRequest.builder()
+                    .id(transcript.getId())
+                    .languageCode(transcript.getTargetLanguageCode())
+                    .content(transcript.getContent())
+                    .durationSeconds(transcript.getDuration())
+                    .build())
+            .join();
+    analysisCache.put(
+        cacheKey,
+        transcript.getTargetLanguageCode(),
+        result,
+        Duration.ofNanos(System.nanoTime() - startedAt));
+    return result;
+  }
 
-      // STUBBED: Publish Kafka events (feedback.generated, xp.awarded)
-      log.info("Would publish Kafka events: feedback.generated and xp.awarded");
+  /** Fails the transcript's feedback after its analysis was given up. */
+  public void markFailed(Transcript transcript, String error) {
+    lifecycleStore
+        .findFeedbackForTranscript(transcript.getId())
+        .ifPresent(feedback -> markFailed(feedback, error));
+  }
+
+  /** Records a failed attempt; the analysis is retried later unless its retries ran out. */
+  private void markFailed(Feedback feedback, String error) {
+    int attempts = feedback.getAttempts() + 1;
+    boolean exhausted = retryPolicy.isExhausted(attempts);
+    Instant nextAttemptAt = exhausted ? null : retryPolicy.nextAttemptAt(attempts);
+    feedback.setAttempts(attempts);
+    feedback.setStatus(exhausted ? FeedbackStatus.DEAD_LETTER : FeedbackStatus.FAILED);
+    lifecycleStore.markFeedbackFailed(feedback.getId(), attempts, nextAttemptAt, error);
+    workLeases.releaseFeedback(feedback.getId());
+    if (exhausted) {
+      log.error("Feedback {} dead-lettered after {} attempts", feedback.getId(), attempts);
+    }
+  }
 
+  /** Folds a completed feedback into the learner's stats; runs as its own pipeline stage. */
+  public void recordStats(Feedback feedback, Transcript transcript) {
+    try {
+      updateUserStats(feedback, transcript.getDuration());
+    } catch (DependencyUnavailableException e) {
+      throw e;
     } catch (Exception e) {
-      log.error("Analysis failed for transcript: {}", transcript.getId(), e);
-      feedback.setStatus(FeedbackStatus.FAILED);
-      feedbackRepository.save(feedback);
+      log.error("Stats update failed for feedback: {}", feedback.getId(), e);
+    } finally {
+      // Also after a partial update, so the dashboard never keeps serving the old stats
+      statsService.evict(feedback.getUserId(), feedback.getTargetLanguageCode());
     }
   }
 
-  private int calculateXp(
+  /** Returns the XP earned per rule; the award is their sum, capped at 40. */
+  private Map<String, Integer> calculateXp(
       int overallScore, int durationSeconds, String userId, String languageCode) {
-    int xp = 10; // Base participation XP
+    Map<String, Integer> breakdown = new LinkedHashMap<>();
+    breakdown.put("participation", 10); // Base participation XP
 
+    int scoreXp = 0;
     if (overallScore >= 60) {
-      xp += 5;
+      scoreXp += 5;
     }
     if (overallScore >= 80) {
-      xp += 10;
+      scoreXp += 10;
     }
+    breakdown.put("score", scoreXp);
 
     // Duration bonuses
+    int durationXp = 0;
     if (durationSeconds >= 600) { // 10 minutes
-      xp += 5;
+      durationXp += 5;
     }
     if (durationSeconds >= 1200) { // 20 minutes
-      xp += 10;
+      durationXp += 10;
     }
+    breakdown.put("duration", durationXp);
 
     // Check if improving (compare with previous sessions)
-    if (isImproving(userId, languageCode, overallScore)) {
-      xp += 5;
-    }
+    breakdown.put("improvement", isImproving(userId, languageCode, overallScore) ? 5 : 0);
 
-    return Math.min(xp, 40); // Max 40 XP
+    return breakdown;
   }
 
   private boolean isImproving(String userId, String languageCode, int currentScore) {
-    List<Feedback> recentFeedbacks =
-        feedbackRepository.findTop5ByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
-            userId, languageCode);
-
-    if (recentFeedbacks.size() < 2) {
+    List<Integer> previousScores = statsStore.recentScores(userId, languageCode);
+    if (previousScores.isEmpty()) {
       return false;
     }
 
     // Compare with previous session
-    Feedback previousFeedback = recentFeedbacks.get(0);
-    return currentScore > previousFeedback.getOverallScore();
+    return currentScore > previousScores.get(0);
   }
 
   private void updateUserStats(Feedback feedback, int durationSeconds) {
-    UserFeedbackStats stats =
-        statsRepository
-            .findByUserIdAndTargetLanguageCode(
-                feedback.getUserId(), feedback.getTargetLanguageCode())
-            .orElse(
-                UserFeedbackStats.builder()
-                    .userId(feedback.getUserId())
-                    .targetLanguageCode(feedback.getTargetLanguageCode())
-                    .commonErrors(new ArrayList<>())
-                    .build());
-
-    // Update totals
-    stats.setTotalSessions(stats.getTotalSessions() + 1);
-    stats.setTotalMinutes(stats.getTotalMinutes() + (durationSeconds / 60));
-
-    // Recalculate averages
-    int totalSessions = stats.getTotalSessions();
-    stats.setAverageOverallScore(
-        ((stats.getAverageOverallScore() * (totalSessions - 1)) + feedback.getOverallScore())
-            / totalSessions);
-    stats.setAverageGrammarScore(
-        ((stats.getAverageGrammarScore() * (totalSessions - 1)) + feedback.getGrammarScore())
-            / totalSessions);
-    stats.setAverageVocabularyScore(
-        ((stats.getAverageVocabularyScore() * (totalSessions - 1)) + feedback.getVocabularyScore())
-            / totalSessions);
-    stats.setAverageFluencyScore(
-        ((stats.getAverageFluencyScore() * (totalSessions - 1)) + feedback.getFluencyScore())
-            / totalSessions);
-
-    // Update progress trend
-    stats.setProgressTrend(
-        calculateProgressTrend(feedback.getUserId(), feedback.getTargetLanguageCode()));
-
-    stats.setLastFeedbackAt(Instant.now());
-
-    statsRepository.save(stats);
+    statsStore.recordFeedback(feedback, durationSeconds);
+    statsStore.recordDailyProgress(feedback, durationSeconds);
+    commonErrorTracker.record(feedback);
     log.info(
         "Updated stats for user: {}, language: {}",
         feedback.getUserId(),
         feedback.getTargetLanguageCode());
   }
-
-  private ProgressTrend calculateProgressTrend(String userId, String languageCode) {
-    List<Feedback> recentFeedbacks =
-        feedbackRepository.findTop5ByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
-            userId, languageCode);
-
-    if (recentFeedbacks.size() < 3) {
-      return ProgressTrend.STABLE;
-    }
-
-    double recentAvg =
-        recentFeedbacks.stream().limit(2).mapToInt(Feedback::getOverallScore).average().orElse(0.0);
-
-    double olderAvg =
-        recentFeedbacks.stream().skip(2).mapToInt(Feedback::getOverallScore).average().orElse(0.0);
-
-    double diff = recentAvg - olderAvg;
-
-    if (diff >= 5) {
-      return ProgressTrend.IMPROVING;
-    } else if (diff <= -5) {
-      return ProgressTrend.DECLINING;
-    } else {
-      return ProgressTrend.STABLE;
-    }
-  }
 }
@@ -0,0 +1,31 @@
+package org.wespeak.feedback.service;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.core.io.Resource;
+
+/**
+ * A window of a recording sent to the transcription client on its own.
+ *
+ * <p>{@code startSeconds}/{@code endSeconds} bound the audio actually sent, including any overlap
+ * with the neighbouring windows. {@code ownedStart}/{@code ownedEnd} bound the part of the timeline
+ * this window is authoritative for; owned ranges of consecutive windows never overlap.
+ *
+ * <p>{@code audio} only refers to the spooled recording, a window of its mapping or the whole file,
+ * and is read when the chunk is sent.
+ */
+@Value
+@Builder
+public class AudioChunk {
+  int index;
+  double startSeconds;
+  double endSeconds;
+  double ownedStart;
+  double ownedEnd;
+  String fileName;
+  Resource audio;
+
+  public double getDurationSeconds() {
+    return endSeconds - startSeconds;
+  }
+}
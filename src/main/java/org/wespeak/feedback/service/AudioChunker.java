@@ -0,0 +1,235 @@
+package org.wespeak.feedback.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.ChunkingProperties;
+
+/**
+ * Splits a spooled recording into windows for parallel transcription.
+ *
+ * <p>Only PCM WAV can be cut without decoding, so silence detection applies to 16-bit PCM WAV
+ * spools: frames are scored by RMS level and windows end in the middle of the latest long enough
+ * pause. When a window has no usable pause it is cut hard and padded with overlap on both sides.
+ * Windows are not copied: each is read from the memory-mapped spool when it is sent. Compressed
+ * formats (webm, ogg, mp3...) are sent as a single window streamed from the spool, so a recording
+ * is never loaded into memory whole.
+ */
+@Component
+@RequiredArgsConstructor
+public class AudioChunker {
+
+  private static final double FRAME_SECONDS = 0.02;
+  private static final int WAV_HEADER_SIZE = 44;
+
+  private final ChunkingProperties properties;
+
+  public List<AudioChunk> split(Path audioFile) throws IOException {
+    String fileName = audioFile.getFileName().toString();
+    if (properties.isEnabled()) {
+      try (FileChannel channel = FileChannel.open(audioFile, StandardOpenOption.READ)) {
+        PcmFormat format = PcmFormat.read(channel);
+        if (format != null
+            && format.durationSeconds() > properties.getMaxChunkSeconds()
+            && format.dataLength() <= Integer.MAX_VALUE) {
+          return splitPcm(channel, format, fileName);
+        }
+      }
+    }
+    return List.of(
+        AudioChunk.builder()
+            .index(0)
+            .startSeconds(0)
+            .endSeconds(Double.MAX_VALUE)
+            .ownedStart(0)
+            .ownedEnd(Double.MAX_VALUE)
+            .fileName(fileName)
+            .audio(new FileSystemResource(audioFile))
+            .build());
+  }
+
+  private List<AudioChunk> splitPcm(FileChannel channel, PcmFormat format, String fileName)
+      throws IOException {
+    MappedByteBuffer data =
+        channel.map(FileChannel.MapMode.READ_ONLY, format.dataOffset(), format.dataLength());
+    data.order(ByteOrder.LITTLE_ENDIAN);
+    boolean[] silent = detectSilence(data, format);
+    int minSilenceFrames =
+        (int) Math.ceil(properties.getMinSilenceMillis() / 1000.0 / FRAME_SECONDS);
+
+    double total = format.durationSeconds();
+    List<Window> windows = new ArrayList<>();
+    double cursor = 0;
+    while (total - cursor > properties.getMaxChunkSeconds()) {
+      double limit = cursor + properties.getMaxChunkSeconds();
+      double pause =
+          findPause(
+              silent, minSilenceFrames, cursor, cursor + properties.getMinChunkSeconds(), limit);
+      boolean hardCut = Double.isNaN(pause);
+      double cut = hardCut ? limit : pause;
+      windows.add(new Window(cursor, cut, hardCut));
+      cursor = cut;
+    }
+    windows.add(new Window(cursor, total, false));
+
+    List<AudioChunk> chunks = new ArrayList<>();
+    double overlap = properties.getOverlapSeconds();
+    for (int i = 0; i < windows.size(); i++) {
+      Window window = windows.get(i);
+      boolean hardCutBefore = i > 0 && windows.get(i - 1).hardCut();
+      double start = hardCutBefore ? Math.max(0, window.start() - overlap) : window.start();
+      double end = window.hardCut() ? Math.min(total, window.end() + overlap) : window.end();
+      boolean last = i == windows.size() - 1;
+      String chunkName = String.format("chunk-%03d-%s", i, fileName);
+
+      chunks.add(
+          AudioChunk.builder()
+              .index(i)
+              .startSeconds(start)
+              .endSeconds(end)
+              .ownedStart(i == 0 ? 0 : window.start())
+              .ownedEnd(last ? Double.MAX_VALUE : window.end())
+              .fileName(chunkName)
+              .audio(format.window(data, start, end, chunkName))
+              .build());
+    }
+    return chunks;
+  }
+
+  /** Marks each 20 ms frame as silent or not based on its RMS level across channels. */
+  private boolean[] detectSilence(ByteBuffer data, PcmFormat format) {
+    int frameBytes = (int) Math.max(format.blockAlign(), format.bytesFor(FRAME_SECONDS));
+    int frames = (int) (format.dataLength() / frameBytes);
+    boolean[] silent = new boolean[frames];
+    double threshold = properties.getSilenceThreshold() * Short.MAX_VALUE;
+    for (int frame = 0; frame < frames; frame++) {
+      int offset = frame * frameBytes;
+      double sumOfSquares = 0;
+      int samples = frameBytes / 2;
+      for (int sample = 0; sample < samples; sample++) {
+        double value = data.getShort(offset + sample * 2);
+        sumOfSquares += value * value;
+      }
+      silent[frame] = Math.sqrt(sumOfSquares / samples) < threshold;
+    }
+    return silent;
+  }
+
+  /**
+   * Returns the middle of the latest pause of at least {@code minFrames} frames whose middle falls
+   * in {@code [from, to]} seconds, scanning from {@code scanStart}, or {@code NaN} if none exists.
+   */
+  private double findPause(
+      boolean[] silent, int minFrames, double scanStart, double from, double to) {
+    int lastFrame = Math.min(silent.length, (int) (to / FRAME_SECONDS));
+    double best = Double.NaN;
+    int runStart = -1;
+    for (int frame = (int) (scanStart / FRAME_SECONDS); frame <= lastFrame; frame++) {
+      boolean isSilent = frame < silent.length && silent[frame];
+      if (isSilent && runStart < 0) {
+        runStart = frame;
+      } else if (!isSilent && runStart >= 0) {
+        double middle = (runStart + frame) / 2.0 * FRAME_SECONDS;
+        if (frame - runStart >= minFrames && middle >= from && middle <= to) {
+          best = middle;
+        }
+        runStart = -1;
+      }
+    }
+    return best;
+  }
+
+  /** Owned part of the timeline for one window, and whether it ends in a hard cut. */
+  private record Window(double start, double end, boolean hardCut) {}
+
+  /** Layout of a 16-bit PCM WAV file, or {@code null} for anything else. */
+  private record PcmFormat(
+      int channels, int sampleRate, int blockAlign, long dataOffset, long dataLength) {
+
+    static PcmFormat read(FileChannel channel) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+      if (channel.read(header, 0) < 12 || !tag(header, 0, "RIFF") || !tag(header, 8, "WAVE")) {
+        return null;
+      }
+      long position = 12;
+      int channels = 0;
+      int sampleRate = 0;
+      int blockAlign = 0;
+      boolean pcm16 = false;
+      ByteBuffer chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+      while (channel.read(chunkHeader.clear(), position) == 8) {
+        long size = Integer.toUnsignedLong(chunkHeader.getInt(4));
+        if (tag(chunkHeader, 0, "fmt ")) {
+          ByteBuffer fmt = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+          channel.read(fmt, position + 8);
+          pcm16 = fmt.getShort(0) == 1 && fmt.getShort(14) == 16;
+          channels = fmt.getShort(2);
+          sampleRate = fmt.getInt(4);
+          blockAlign = fmt.getShort(12);
+        } else if (tag(chunkHeader, 0, "data")) {
+          if (!pcm16) {
+            return null;
+          }
+          long length = Math.min(size, channel.size() - position - 8);
+          return new PcmFormat(channels, sampleRate, blockAlign, position + 8, length);
+        }
+        position += 8 + size + (size & 1);
+      }
+      return null;
+    }
+
+    double durationSeconds() {
+      return (double) dataLength / ((long) sampleRate * blockAlign);
+    }
+
+    long bytesFor(double seconds) {
+      return (long) (seconds * sampleRate) * blockAlign;
+    }
+
+    /**
+     * A standalone WAV file of {@code [start, end)} seconds of the data, read from the mapping when
+     * it is sent.
+     */
+    AudioWindowResource window(ByteBuffer data, double start, double end, String fileName) {
+      int from = (int) Math.min(dataLength, bytesFor(start));
+      int to = (int) Math.min(dataLength, bytesFor(end));
+      int length = to - from;
+      ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header
+          .put("RIFF".getBytes(StandardCharsets.US_ASCII))
+          .putInt(WAV_HEADER_SIZE - 8 + length)
+          .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+          .put("fmt ".getBytes(StandardCharsets.US_ASCII))
+          .putInt(16)
+          .putShort((short) 1)
+          .putShort((short) channels)
+          .putInt(sampleRate)
+          .putInt(sampleRate * blockAlign)
+          .putShort((short) blockAlign)
+          .putShort((short) 16)
+          .put("data".getBytes(StandardCharsets.US_ASCII))
+          .putInt(length);
+      ByteBuffer samples = data.duplicate().position(from).limit(to).slice();
+      return new AudioWindowResource(fileName, header.flip(), samples);
+    }
+
+    private static boolean tag(ByteBuffer buffer, int offset, String expected) {
+      for (int i = 0; i < 4; i++) {
+        if (buffer.get(offset + i) != expected.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
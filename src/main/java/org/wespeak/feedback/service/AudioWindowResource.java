@@ -0,0 +1,87 @@
+package org.wespeak.feedback.service;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * A window of a spooled WAV recording: its own header followed by a slice of the memory-mapped
+ * sample data. Nothing is copied to the heap; each {@link #getInputStream()} reads the mapping
+ * afresh, so a retried upload sends the same bytes again.
+ */
+final class AudioWindowResource extends AbstractResource {
+
+  private final String fileName;
+  private final ByteBuffer header;
+  private final ByteBuffer samples;
+
+  AudioWindowResource(String fileName, ByteBuffer header, ByteBuffer samples) {
+    this.fileName = fileName;
+    this.header = header.asReadOnlyBuffer();
+    this.samples = samples.asReadOnlyBuffer();
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return new BufferInputStream(header.duplicate().rewind(), samples.duplicate().rewind());
+  }
+
+  @Override
+  public long contentLength() {
+    return (long) header.capacity() + samples.capacity();
+  }
+
+  @Override
+  public String getFilename() {
+    return fileName;
+  }
+
+  @Override
+  public String getDescription() {
+    return "audio window [" + fileName + "]";
+  }
+
+  /** Reads the buffers one after the other. */
+  private static final class BufferInputStream extends InputStream {
+
+    private final ByteBuffer[] buffers;
+    private int current;
+
+    BufferInputStream(ByteBuffer... buffers) {
+      this.buffers = buffers;
+    }
+
+    @Override
+    public int read() {
+      ByteBuffer buffer = next();
+      return buffer == null ? -1 : buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      ByteBuffer buffer = next();
+      if (buffer == null) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(target, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      ByteBuffer buffer = next();
+      return buffer == null ? 0 : buffer.remaining();
+    }
+
+    private ByteBuffer next() {
+      while (current < buffers.length && !buffers[current].hasRemaining()) {
+        current++;
+      }
+      return current < buffers.length ? buffers[current] : null;
+    }
+  }
+}
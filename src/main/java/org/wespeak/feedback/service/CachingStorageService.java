@@ -0,0 +1,316 @@
+package org.wespeak.feedback.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Local disk cache in front of R2 for recording audio.
+ *
+ * <p>Entries are bounded by total size (Caffeine's frequency-aware LRU) and expire after the
+ * recording retention period. Each file is stored with a SHA-256 sidecar that is checked on every
+ * hit; a corrupt entry is dropped and fetched again. The index is rebuilt from disk on startup.
+ *
+ * <p>Every stored entry gets files of its own, so removing an entry, which Caffeine does
+ * asynchronously, never deletes the files of an entry fetched again for the same key. A copy that
+ * disappears between lookup and read is looked up again.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(
+    name = "app.storage.cache.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class CachingStorageService implements StorageService {
+
+  private static final String DATA_SUFFIX = ".bin";
+  private static final String CHECKSUM_SUFFIX = ".sha256";
+  private static final String PARTIAL_SUFFIX = ".part";
+  private static final int MAX_READ_ATTEMPTS = 3;
+
+  private final StorageService delegate;
+  private final Path cacheDir;
+  private final Cache<String, CachedRecording> entries;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter checksumFailures;
+  private final MeterRegistry meterRegistry;
+
+  public CachingStorageService(
+      R2StorageService delegate,
+      MeterRegistry meterRegistry,
+      @Value("${app.storage.cache.dir:${java.io.tmpdir}/feedback-recording-cache}") Path cacheDir,
+      @Value("${app.storage.cache.max-bytes:2147483648}") long maxBytes,
+      @Value("${app.feedback.recording-retention-days:30}") int retentionDays)
+      throws IOException {
+    this.delegate = delegate;
+    this.cacheDir = Files.createDirectories(cacheDir);
+    this.meterRegistry = meterRegistry;
+    this.entries =
+        Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedRecording entry) -> weightOf(entry.size()))
+            .expireAfter(new RetentionExpiry(Duration.ofDays(retentionDays)))
+            .removalListener(this::onRemoval)
+            .build();
+
+    this.hits = meterRegistry.counter("storage.cache.requests", "result", "hit");
+    this.misses = meterRegistry.counter("storage.cache.requests", "result", "miss");
+    this.checksumFailures = meterRegistry.counter("storage.cache.checksum.failures");
+    Gauge.builder("storage.cache.size.bytes", entries, CachingStorageService::weightedSize)
+        .register(meterRegistry);
+
+    rebuildIndex();
+  }
+
+  @Override
+  public InputStream downloadFile(String key) {
+    try {
+      return readCached(key, Files::newInputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void downloadToFile(String key, Path target) throws IOException {
+    Files.deleteIfExists(target);
+    readCached(
+        key,
+        cached -> {
+          try {
+            // A hard link keeps the spool readable even if the entry is evicted meanwhile
+            return Files.createLink(target, cached);
+          } catch (NoSuchFileException e) {
+            throw e;
+          } catch (IOException | UnsupportedOperationException e) {
+            return Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+          }
+        });
+  }
+
+  @Override
+  public String uploadFile(
+      String key, InputStream content, long contentLength, String contentType) {
+    entries.invalidate(key);
+    return delegate.uploadFile(key, content, contentLength, contentType);
+  }
+
+  @Override
+  public String generatePresignedUrl(String key) {
+    return delegate.generatePresignedUrl(key);
+  }
+
+  /** Reads a local copy, looking it up again if its entry was removed before it was opened. */
+  private <T> T readCached(String key, CachedRead<T> read) throws IOException {
+    for (int attempt = 1; ; attempt++) {
+      Path cached = lookup(key);
+      try {
+        return read.apply(cached);
+      } catch (NoSuchFileException e) {
+        if (attempt >= MAX_READ_ATTEMPTS) {
+          throw e;
+        }
+        log.debug("Cached recording {} was removed while being read, looking it up again", key);
+      }
+    }
+  }
+
+  /** Returns a verified local copy of the object, fetching it from R2 on a miss. */
+  private Path lookup(String key) throws IOException {
+    CachedRecording entry = entries.getIfPresent(key);
+    if (entry != null) {
+      if (isIntact(entry)) {
+        hits.increment();
+        return entry.path();
+      }
+      log.warn("Cached recording {} is missing or corrupt, fetching again", key);
+      checksumFailures.increment();
+      entries.invalidate(key);
+    }
+
+    try {
+      return entries
+          .get(
+              key,
+              k -> {
+                misses.increment();
+                return fetch(k);
+              })
+          .path();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private CachedRecording fetch(String key) {
+    // Unique per stored entry, so files of a removed entry are never the ones of its successor
+    String name = fileNameFor(key) + "-" + UUID.randomUUID();
+    Path dataFile = cacheDir.resolve(name + DATA_SUFFIX);
+    try {
+      Path partial = Files.createTempFile(cacheDir, name, PARTIAL_SUFFIX);
+      try {
+        delegate.downloadToFile(key, partial);
+        String checksum = sha256(partial);
+        Files.writeString(cacheDir.resolve(name + CHECKSUM_SUFFIX), key + "\n" + checksum);
+        Files.move(partial, dataFile);
+        return new CachedRecording(dataFile, Files.size(dataFile), checksum, Instant.now());
+      } finally {
+        Files.deleteIfExists(partial);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Deletes the removed entry's own files; a replaced entry's files are not the new ones. */
+  private void onRemoval(String key, CachedRecording entry, RemovalCause cause) {
+    if (entry == null) {
+      return;
+    }
+    if (cause.wasEvicted()) {
+      meterRegistry.counter("storage.cache.evictions", "cause", cause.name()).increment();
+    }
+    try {
+      Files.deleteIfExists(entry.path());
+      Files.deleteIfExists(checksumFileFor(entry.path()));
+    } catch (IOException e) {
+      log.warn("Could not delete cached recording {}", entry.path(), e);
+    }
+  }
+
+  private void rebuildIndex() throws IOException {
+    // Downloads interrupted by a crash or shutdown
+    try (DirectoryStream<Path> partials =
+        Files.newDirectoryStream(cacheDir, "*" + PARTIAL_SUFFIX)) {
+      for (Path partial : partials) {
+        Files.deleteIfExists(partial);
+      }
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "*" + DATA_SUFFIX)) {
+      for (Path dataFile : files) {
+        Path checksumFile = checksumFileFor(dataFile);
+        String[] sidecar =
+            Files.exists(checksumFile)
+                ? Files.readString(checksumFile, StandardCharsets.UTF_8).split("\n", 2)
+                : new String[0];
+        if (sidecar.length < 2) {
+          Files.delete(dataFile);
+          Files.deleteIfExists(checksumFile);
+          continue;
+        }
+        Instant storedAt = Files.getLastModifiedTime(dataFile).toInstant();
+        entries.put(
+            sidecar[0],
+            new CachedRecording(dataFile, Files.size(dataFile), sidecar[1].trim(), storedAt));
+      }
+    }
+    log.info("Recording cache ready with {} entries in {}", entries.estimatedSize(), cacheDir);
+  }
+
+  private static boolean isIntact(CachedRecording entry) {
+    try {
+      return sha256(entry.path()).equals(entry.checksum());
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static double weightedSize(Cache<String, CachedRecording> cache) {
+    return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+  }
+
+  private static Path checksumFileFor(Path dataFile) {
+    String name = dataFile.getFileName().toString();
+    return dataFile.resolveSibling(
+        name.substring(0, name.length() - DATA_SUFFIX.length()) + CHECKSUM_SUFFIX);
+  }
+
+  private static String fileNameFor(String key) {
+    return HexFormat.of().formatHex(digest().digest(key.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static String sha256(Path file) throws IOException {
+    MessageDigest digest = digest();
+    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static int weightOf(long size) {
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  /** Reads a cached file; {@link NoSuchFileException} means its entry was removed meanwhile. */
+  @FunctionalInterface
+  private interface CachedRead<T> {
+    T apply(Path cached) throws IOException;
+  }
+
+  private record CachedRecording(Path path, long size, String checksum, Instant storedAt) {}
+
+  /** Expires entries once they are older than the retention period, including across restarts. */
+  private record RetentionExpiry(Duration retention) implements Expiry<String, CachedRecording> {
+
+    @Override
+    public long expireAfterCreate(String key, CachedRecording entry, long currentTime) {
+      Duration age = Duration.between(entry.storedAt(), Instant.now());
+      return Math.max(0, retention.minus(age).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, CachedRecording entry, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, entry, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, CachedRecording entry, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
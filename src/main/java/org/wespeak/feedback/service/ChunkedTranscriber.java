@@ -0,0 +1,76 @@
+package org.wespeak.feedback.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.ChunkingProperties;
+import org.wespeak.feedback.entity.TranscriptSegment;
+
+/**
+ * Transcribes a spooled recording window by window: windows go to the transcription client
+ * concurrently and their segments are stitched back into a single timeline.
+ */
+@Slf4j
+@Component
+public class ChunkedTranscriber {
+
+  private final AudioChunker audioChunker;
+  private final TranscriptionClient transcriptionClient;
+  private final ExecutorService executor;
+
+  public ChunkedTranscriber(
+      AudioChunker audioChunker,
+      TranscriptionClient transcriptionClient,
+      ChunkingProperties properties) {
+    this.audioChunker = audioChunker;
+    this.transcriptionClient = transcriptionClient;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            properties.getConcurrency(),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "transcribe-chunk-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public List<TranscriptSegment> transcribe(Path audioFile, String languageCode)
+      throws IOException {
+    List<AudioChunk> chunks = audioChunker.split(audioFile);
+    if (chunks.size() == 1) {
+      return TranscriptStitcher.stitch(
+          chunks, List.of(transcriptionClient.transcribe(chunks.get(0), languageCode)));
+    }
+
+    log.info("Transcribing {} in {} windows", audioFile.getFileName(), chunks.size());
+    List<CompletableFuture<List<TranscriptSegment>>> pending =
+        chunks.stream()
+            .map(
+                chunk ->
+                    CompletableFuture.supplyAsync(
+                        () -> transcriptionClient.transcribe(chunk, languageCode), executor))
+            .toList();
+    try {
+      return TranscriptStitcher.stitch(
+          chunks, pending.stream().map(CompletableFuture::join).toList());
+    } catch (CompletionException e) {
+      pending.forEach(future -> future.cancel(true));
+      throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
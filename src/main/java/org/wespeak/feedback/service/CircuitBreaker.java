@@ -0,0 +1,135 @@
+package org.wespeak.feedback.service;
+
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.wespeak.feedback.config.ResilienceProperties;
+
+/**
+ * Count-based circuit breaker over the last {@code slidingWindowSize} calls.
+ *
+ * <p>The breaker opens when the share of failed or slow calls reaches the threshold, rejects every
+ * call for {@code openDuration}, then lets {@code halfOpenCalls} trial calls through: all of them
+ * must succeed to close it again, and any failure reopens it.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String name;
+  private final ResilienceProperties.Guard config;
+
+  private State state = State.CLOSED;
+  private final boolean[] window;
+  private int recorded;
+  private int next;
+  private int failures;
+  private long openedAt;
+  private int trialsInFlight;
+  private int trialSuccesses;
+
+  public CircuitBreaker(String name, ResilienceProperties.Guard config) {
+    this.name = name;
+    this.config = config;
+    this.window = new boolean[config.getSlidingWindowSize()];
+  }
+
+  /** Returns whether a call may go through; every permitted call must report its outcome. */
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN) {
+      if (System.nanoTime() - openedAt < config.getOpenDuration().toNanos()) {
+        return false;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (trialsInFlight >= config.getHalfOpenCalls()) {
+        return false;
+      }
+      trialsInFlight++;
+    }
+    return true;
+  }
+
+  public synchronized void onSuccess(long durationNanos) {
+    record(durationNanos > config.getSlowCallThreshold().toNanos());
+  }
+
+  public synchronized void onFailure() {
+    record(true);
+  }
+
+  /** Reports a permitted call whose outcome says nothing about the dependency's health. */
+  public synchronized void onIgnored() {
+    if (state == State.HALF_OPEN && trialsInFlight > 0) {
+      trialsInFlight--;
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /** Share of failed calls in the current window, or 0 while it has too few calls. */
+  public synchronized double getFailureRate() {
+    return recorded < config.getMinimumCalls() ? 0 : (double) failures / recorded;
+  }
+
+  /** Time until an open breaker lets trial calls through. */
+  public synchronized Duration remainingOpen() {
+    if (state != State.OPEN) {
+      return Duration.ZERO;
+    }
+    long remaining = config.getOpenDuration().toNanos() - (System.nanoTime() - openedAt);
+    return Duration.ofNanos(Math.max(0, remaining));
+  }
+
+  private void record(boolean failed) {
+    switch (state) {
+      case HALF_OPEN -> {
+        trialsInFlight = Math.max(0, trialsInFlight - 1);
+        if (failed) {
+          transitionTo(State.OPEN);
+        } else if (++trialSuccesses >= config.getHalfOpenCalls()) {
+          transitionTo(State.CLOSED);
+        }
+      }
+      case CLOSED -> {
+        if (recorded == window.length) {
+          failures -= window[next] ? 1 : 0;
+        } else {
+          recorded++;
+        }
+        window[next] = failed;
+        failures += failed ? 1 : 0;
+        next = (next + 1) % window.length;
+        if (recorded >= config.getMinimumCalls()
+            && (double) failures / recorded >= config.getFailureRateThreshold()) {
+          transitionTo(State.OPEN);
+        }
+      }
+      case OPEN -> {
+        // Late outcome of a call made before the breaker opened
+      }
+    }
+  }
+
+  private void transitionTo(State newState) {
+    log.warn("Circuit breaker {} {} -> {}", name, state, newState);
+    state = newState;
+    trialsInFlight = 0;
+    trialSuccesses = 0;
+    if (newState == State.OPEN) {
+      openedAt = System.nanoTime();
+    }
+    if (newState == State.CLOSED) {
+      recorded = 0;
+      next = 0;
+      failures = 0;
+    }
+  }
+}
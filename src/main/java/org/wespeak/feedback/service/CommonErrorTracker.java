@@ -0,0 +1,146 @@
+package org.wespeak.feedback.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.entity.CommonError;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.FeedbackError;
+import org.wespeak.feedback.entity.UserFeedbackStats;
+import org.wespeak.feedback.repository.StatsStore;
+
+/**
+ * Tracks each learner's most frequent errors with the Space-Saving algorithm.
+ *
+ * <p>A learner keeps at most {@code capacity} counters, whatever the length of their history. A
+ * new error takes over the least frequent counter when all are in use, inheriting its count as
+ * {@code overcount}; every error seen more than {@code total / capacity} times is guaranteed to
+ * hold a counter, so recurring mistakes surface without scanning past feedbacks.
+ */
+@Slf4j
+@Component
+public class CommonErrorTracker {
+
+  private static final int MAX_ATTEMPTS = 3;
+
+  private static final Comparator<CommonError> LEAST_FREQUENT_FIRST =
+      Comparator.comparing(CommonError::getFrequency);
+
+  private static final Comparator<CommonError> MOST_FREQUENT_FIRST =
+      LEAST_FREQUENT_FIRST.reversed();
+
+  private final StatsStore statsStore;
+  private final int capacity;
+  private final int maxShown;
+
+  public CommonErrorTracker(
+      StatsStore statsStore,
+      @Value("${app.feedback.common-errors.capacity:50}") int capacity,
+      @Value("${app.feedback.max-errors-shown:10}") int maxShown) {
+    this.statsStore = statsStore;
+    this.capacity = capacity;
+    this.maxShown = maxShown;
+  }
+
+  /** Counts the feedback's errors into its learner's stats, which must already exist. */
+  public void record(Feedback feedback) {
+    if (feedback.getErrors() == null || feedback.getErrors().isEmpty()) {
+      return;
+    }
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      Optional<UserFeedbackStats> stats =
+          statsStore.findCommonErrors(feedback.getUserId(), feedback.getTargetLanguageCode());
+      if (stats.isEmpty() || isCounted(stats.get(), feedback)) {
+        return;
+      }
+      List<CommonError> counters = count(stats.get().getCommonErrors(), feedback.getErrors());
+      if (statsStore.replaceCommonErrors(stats.get(), counters, feedback)) {
+        return;
+      }
+    }
+    log.warn("Common errors of user {} kept changing, skipping feedback", feedback.getUserId());
+  }
+
+  /** Whether a replayed stats update already counted the feedback's errors. */
+  private static boolean isCounted(UserFeedbackStats stats, Feedback feedback) {
+    List<String> counted = stats.getCommonErrorsFeedbackIds();
+    return counted != null && counted.contains(feedback.getId());
+  }
+
+  /** The learner's most frequent errors, as many as are shown to them. */
+  public List<CommonError> top(List<CommonError> counters) {
+    if (counters == null) {
+      return List.of();
+    }
+    return counters.stream().sorted(MOST_FREQUENT_FIRST).limit(maxShown).toList();
+  }
+
+  /** Returns new counters with the errors counted in, most frequent first. */
+  List<CommonError> count(List<CommonError> counters, List<FeedbackError> errors) {
+    List<CommonError> updated = new ArrayList<>();
+    if (counters != null) {
+      counters.forEach(counter -> updated.add(copyOf(counter)));
+    }
+    for (FeedbackError error : errors) {
+      String pattern = patternOf(error);
+      if (error.getType() == null || pattern.isEmpty()) {
+        continue;
+      }
+      CommonError counter = find(updated, error, pattern);
+      if (counter != null) {
+        counter.setFrequency(counter.getFrequency() + 1);
+      } else if (updated.size() < capacity) {
+        updated.add(new CommonError(error.getType(), pattern, 1, 0));
+      } else {
+        CommonError evicted = updated.stream().min(LEAST_FREQUENT_FIRST).orElseThrow();
+        evicted.setType(error.getType());
+        evicted.setPattern(pattern);
+        evicted.setOvercount(evicted.getFrequency());
+        evicted.setFrequency(evicted.getFrequency() + 1);
+      }
+    }
+    updated.sort(MOST_FREQUENT_FIRST);
+    return updated;
+  }
+
+  private static CommonError copyOf(CommonError counter) {
+    return new CommonError(
+        counter.getType(), counter.getPattern(), counter.getFrequency(), counter.getOvercount());
+  }
+
+  private static CommonError find(List<CommonError> counters, FeedbackError error, String pattern) {
+    for (CommonError counter : counters) {
+      if (counter.getType() == error.getType() && pattern.equals(counter.getPattern())) {
+        return counter;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Normalizes an error to "original -> correction", lower-cased, with whitespace collapsed and
+   * surrounding punctuation dropped, so the same mistake counts once however it was written.
+   */
+  static String patternOf(FeedbackError error) {
+    String original = normalize(error.getOriginal());
+    String correction = normalize(error.getCorrection());
+    if (original.isEmpty()) {
+      return "";
+    }
+    return correction.isEmpty() ? original : original + " -> " + correction;
+  }
+
+  private static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    return text.toLowerCase(Locale.ROOT)
+        .replaceAll("\\s+", " ")
+        .replaceAll("^[\\p{P}\\s]+|[\\p{P}\\s]+$", "");
+  }
+}
@@ -0,0 +1,60 @@
+package org.wespeak.feedback.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.repository.StatsStore;
+
+/**
+ * Builds the daily progress rollups from the feedbacks completed before rollups existed.
+ *
+ * <p>Enabled with {@code app.stats.backfill.enabled}, it runs once in the background after
+ * startup. Each day's rollup is replaced as a whole, so running it again is harmless; feedbacks
+ * completing while it runs may be counted twice or not at all on that day, so it is best run once,
+ * right after deploying rollups.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.stats.backfill.enabled", havingValue = "true")
+public class DailyProgressBackfill {
+
+  private final StatsStore statsStore;
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "daily-progress-backfill");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public DailyProgressBackfill(StatsStore statsStore) {
+    this.statsStore = statsStore;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    executor.execute(this::backfill);
+  }
+
+  void backfill() {
+    long startedAt = System.nanoTime();
+    try {
+      log.info("Rebuilding daily progress rollups from completed feedbacks");
+      statsStore.rebuildDailyProgress();
+      log.info(
+          "Daily progress rollups rebuilt in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+    } catch (RuntimeException e) {
+      log.error("Daily progress backfill failed", e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,228 @@
+package org.wespeak.feedback.service;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded work queue of a {@link PipelineStage} that hands out the task with the earliest deadline
+ * first; tasks with equal deadlines keep their insertion order.
+ *
+ * <p>A task's deadline is its enqueue time plus the slack it was submitted with. A task with less
+ * slack overtakes the tasks ahead of it, but only by the difference in slack, so tasks with a lot
+ * of slack are delayed, never starved.
+ */
+class DeadlineQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+  private final int capacity;
+  private final PriorityQueue<Runnable> tasks = new PriorityQueue<>(DeadlineQueue::compare);
+  private final AtomicLong sequence = new AtomicLong();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  DeadlineQueue(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /** Wraps the task with a deadline {@code slackNanos} from now. */
+  Runnable withSlack(Runnable task, long slackNanos) {
+    return new Scheduled(task, System.nanoTime() + slackNanos, sequence.incrementAndGet());
+  }
+
+  @Override
+  public boolean offer(Runnable task) {
+    lock.lock();
+    try {
+      if (tasks.size() >= capacity) {
+        return false;
+      }
+      enqueue(task);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void put(Runnable task) throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (tasks.size() >= capacity) {
+        notFull.await();
+      }
+      enqueue(task);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (tasks.size() >= capacity) {
+        if (nanos <= 0) {
+          return false;
+        }
+        nanos = notFull.awaitNanos(nanos);
+      }
+      enqueue(task);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (tasks.isEmpty()) {
+        notEmpty.await();
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (tasks.isEmpty()) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll() {
+    lock.lock();
+    try {
+      return tasks.isEmpty() ? null : dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable peek() {
+    lock.lock();
+    try {
+      return tasks.peek();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object task) {
+    lock.lock();
+    try {
+      boolean removed = tasks.remove(task);
+      if (removed) {
+        notFull.signal();
+      }
+      return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return tasks.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    lock.lock();
+    try {
+      return capacity - tasks.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> target) {
+    return drainTo(target, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> target, int maxElements) {
+    lock.lock();
+    try {
+      int drained = 0;
+      while (drained < maxElements && !tasks.isEmpty()) {
+        target.add(tasks.poll());
+        drained++;
+      }
+      if (drained > 0) {
+        notFull.signalAll();
+      }
+      return drained;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Iterates over a snapshot, in no particular order. */
+  @Override
+  public Iterator<Runnable> iterator() {
+    lock.lock();
+    try {
+      return new ArrayList<>(tasks).iterator();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void enqueue(Runnable task) {
+    tasks.add(task instanceof Scheduled ? task : withSlack(task, 0));
+    notEmpty.signal();
+  }
+
+  private Runnable dequeue() {
+    Runnable task = tasks.poll();
+    notFull.signal();
+    return task;
+  }
+
+  private static int compare(Runnable a, Runnable b) {
+    Scheduled first = (Scheduled) a;
+    Scheduled second = (Scheduled) b;
+    // Deadlines come from System.nanoTime(), so only their difference is meaningful
+    int byDeadline = Long.compare(first.deadline() - second.deadline(), 0);
+    return byDeadline != 0 ? byDeadline : Long.compare(first.sequence(), second.sequence());
+  }
+
+  private record Scheduled(Runnable task, long deadline, long sequence) implements Runnable {
+    @Override
+    public void run() {
+      task.run();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.wespeak.feedback.config.ResilienceProperties;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+
+/**
+ * Bulkhead plus circuit breaker in front of one dependency.
+ *
+ * <p>Calls are rejected with {@link DependencyUnavailableException} while the breaker is open or
+ * when no bulkhead slot frees up within {@code maxWait}, so a slow dependency cannot hold every
+ * pipeline worker. Only exceptions matching {@code isFailure} count against the breaker; others
+ * (a missing object, a duplicate key) are passed through without affecting it.
+ */
+public class DependencyGuard {
+
+  /** A call into the dependency. */
+  @FunctionalInterface
+  public interface Call<T, E extends Exception> {
+    T call() throws E;
+  }
+
+  private final String name;
+  private final ResilienceProperties.Guard config;
+  private final CircuitBreaker breaker;
+  private final Semaphore bulkhead;
+  private final Predicate<Throwable> isFailure;
+  private final MeterRegistry meterRegistry;
+
+  public DependencyGuard(
+      String name,
+      ResilienceProperties.Guard config,
+      Predicate<Throwable> isFailure,
+      MeterRegistry meterRegistry) {
+    this.name = name;
+    this.config = config;
+    this.breaker = new CircuitBreaker(name, config);
+    this.bulkhead = new Semaphore(config.getMaxConcurrent(), true);
+    this.isFailure = isFailure;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("dependency.breaker.state", breaker, b -> b.getState().ordinal())
+        .description("0 = closed, 1 = open, 2 = half-open")
+        .tag("dependency", name)
+        .register(meterRegistry);
+    Gauge.builder("dependency.bulkhead.available", bulkhead, Semaphore::availablePermits)
+        .tag("dependency", name)
+        .register(meterRegistry);
+  }
+
+  public <T, E extends Exception> T call(Call<T, E> call) throws E {
+    if (!breaker.tryAcquire()) {
+      throw reject("circuit open", breaker.remainingOpen());
+    }
+    if (!enterBulkhead()) {
+      breaker.onIgnored();
+      throw reject("bulkhead full", config.getMaxWait());
+    }
+    long startedAt = System.nanoTime();
+    try {
+      T result = call.call();
+      breaker.onSuccess(System.nanoTime() - startedAt);
+      return result;
+    } catch (Exception e) {
+      if (isFailure.test(e)) {
+        breaker.onFailure();
+      } else {
+        breaker.onIgnored();
+      }
+      throw e;
+    } finally {
+      bulkhead.release();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public CircuitBreaker.State getState() {
+    return breaker.getState();
+  }
+
+  /** Breaker and bulkhead state, as reported by the dependencies actuator endpoint. */
+  public Map<String, Object> describe() {
+    Map<String, Object> description = new LinkedHashMap<>();
+    description.put("state", breaker.getState());
+    description.put("failureRate", breaker.getFailureRate());
+    description.put("retryAfterMillis", breaker.remainingOpen().toMillis());
+    description.put("bulkheadAvailable", bulkhead.availablePermits());
+    description.put("bulkheadSize", config.getMaxConcurrent());
+    return description;
+  }
+
+  private boolean enterBulkhead() {
+    try {
+      return bulkhead.tryAcquire(config.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private DependencyUnavailableException reject(String reason, Duration retryAfter) {
+    meterRegistry.counter("dependency.rejected", "dependency", name, "reason", reason).increment();
+    return new DependencyUnavailableException(name, retryAfter, reason);
+  }
+}
@@ -0,0 +1,92 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.wespeak.feedback.config.ResilienceProperties;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/** One guard per dependency of the recording pipeline: R2, Whisper, the LLM and MongoDB. */
+@Component
+public class DependencyGuards {
+
+  private final DependencyGuard storage;
+  private final DependencyGuard transcription;
+  private final DependencyGuard llm;
+  private final DependencyGuard mongo;
+
+  public DependencyGuards(ResilienceProperties properties, MeterRegistry meterRegistry) {
+    this.storage =
+        new DependencyGuard(
+            "storage", properties.getStorage(), DependencyGuards::isStorageFailure, meterRegistry);
+    this.transcription =
+        new DependencyGuard(
+            "transcription",
+            properties.getTranscription(),
+            DependencyGuards::isHttpFailure,
+            meterRegistry);
+    this.llm =
+        new DependencyGuard(
+            "llm", properties.getLlm(), DependencyGuards::isHttpFailure, meterRegistry);
+    this.mongo =
+        new DependencyGuard(
+            "mongo", properties.getMongo(), DependencyGuards::isMongoFailure, meterRegistry);
+  }
+
+  public DependencyGuard storage() {
+    return storage;
+  }
+
+  public DependencyGuard transcription() {
+    return transcription;
+  }
+
+  public DependencyGuard llm() {
+    return llm;
+  }
+
+  public DependencyGuard mongo() {
+    return mongo;
+  }
+
+  public Map<String, Map<String, Object>> describe() {
+    Map<String, Map<String, Object>> description = new LinkedHashMap<>();
+    for (DependencyGuard guard : List.of(storage, transcription, llm, mongo)) {
+      description.put(guard.getName(), guard.describe());
+    }
+    return description;
+  }
+
+  /** Network errors and 5xx/429 answers; a missing object is the caller's problem. */
+  private static boolean isStorageFailure(Throwable error) {
+    if (error instanceof SdkServiceException service) {
+      return service.statusCode() >= 500 || service.isThrottlingException();
+    }
+    return error instanceof SdkClientException
+        || error instanceof IOException
+        || error instanceof UncheckedIOException;
+  }
+
+  private static boolean isHttpFailure(Throwable error) {
+    if (error instanceof RestClientResponseException response) {
+      int status = response.getStatusCode().value();
+      return status >= 500 || status == 429;
+    }
+    return error instanceof ResourceAccessException;
+  }
+
+  /** Connectivity and timeouts; duplicate keys and other data errors say nothing about health. */
+  private static boolean isMongoFailure(Throwable error) {
+    return error instanceof DataAccessResourceFailureException
+        || error instanceof TransientDataAccessException;
+  }
+}
@@ -0,0 +1,15 @@
+package org.wespeak.feedback.service;
+
+import java.util.List;
+import org.wespeak.feedback.entity.OutboxEvent;
+
+/** Destination of outbox events; the relay hands it one aggregate's events at a time, in order. */
+public interface EventSink {
+
+  /**
+   * Publishes the events in order. Throwing leaves them, and every later event of the same
+   * aggregate, in the outbox for the next round; events published before the failure may be sent
+   * again.
+   */
+  void publish(List<OutboxEvent> events);
+}
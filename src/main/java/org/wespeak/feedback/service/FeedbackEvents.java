@@ -0,0 +1,88 @@
+package org.wespeak.feedback.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.OutboxEvent;
+import org.wespeak.feedback.event.EventMetadata;
+import org.wespeak.feedback.event.FeedbackGeneratedEvent;
+import org.wespeak.feedback.event.FeedbackGeneratedPayload;
+import org.wespeak.feedback.event.XpAwardedEvent;
+import org.wespeak.feedback.event.XpAwardedPayload;
+
+/** Builds the outbox entries announcing a completed feedback. */
+final class FeedbackEvents {
+
+  static final String FEEDBACK_GENERATED = "feedback.generated";
+  static final String XP_AWARDED = "xp.awarded";
+
+  private static final String VERSION = "1.0";
+  private static final String SOURCE = "feedback-service";
+
+  private FeedbackEvents() {}
+
+  /** Returns feedback.generated followed by xp.awarded, both keyed by the learner. */
+  static List<OutboxEvent> forCompletion(Feedback feedback, Map<String, Integer> xpBreakdown) {
+    Instant now = Instant.now();
+    FeedbackGeneratedEvent generated =
+        FeedbackGeneratedEvent.builder()
+            .eventType(FEEDBACK_GENERATED)
+            .version(VERSION)
+            .timestamp(now)
+            .payload(
+                FeedbackGeneratedPayload.builder()
+                    .feedbackId(feedback.getId())
+                    .transcriptId(feedback.getTranscriptId())
+                    .sessionId(feedback.getSessionId())
+                    .userId(feedback.getUserId())
+                    .targetLanguageCode(feedback.getTargetLanguageCode())
+                    .overallScore(feedback.getOverallScore())
+                    .grammarScore(feedback.getGrammarScore())
+                    .vocabularyScore(feedback.getVocabularyScore())
+                    .fluencyScore(feedback.getFluencyScore())
+                    .xpAwarded(feedback.getXpAwarded())
+                    .errorsCount(feedback.getErrors() == null ? 0 : feedback.getErrors().size())
+                    .build())
+            .metadata(metadata(feedback))
+            .build();
+
+    XpAwardedEvent xp =
+        XpAwardedEvent.builder()
+            .eventType(XP_AWARDED)
+            .version(VERSION)
+            .timestamp(now)
+            .payload(
+                XpAwardedPayload.builder()
+                    .userId(feedback.getUserId())
+                    .amount(feedback.getXpAwarded())
+                    .source("feedback")
+                    .sourceId(feedback.getId())
+                    .targetLanguageCode(feedback.getTargetLanguageCode())
+                    .breakdown(xpBreakdown)
+                    .build())
+            .metadata(metadata(feedback))
+            .build();
+
+    return List.of(
+        entry(feedback, FEEDBACK_GENERATED, generated, now), entry(feedback, XP_AWARDED, xp, now));
+  }
+
+  private static OutboxEvent entry(Feedback feedback, String type, Object event, Instant now) {
+    return OutboxEvent.builder()
+        .aggregateKey(feedback.getUserId())
+        .eventType(type)
+        .event(event)
+        .createdAt(now)
+        .build();
+  }
+
+  private static EventMetadata metadata(Feedback feedback) {
+    return EventMetadata.builder()
+        .eventId(UUID.randomUUID().toString())
+        .correlationId(feedback.getId())
+        .source(SOURCE)
+        .build();
+  }
+}
@@ -1,6 +1,7 @@
 package org.wespeak.feedback.service;
 
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,9 +11,11 @@ import org.springframework.stereotype.Service;
 import org.wespeak.feedback.dto.*;
 import org.wespeak.feedback.entity.Feedback;
 import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.TranscriptSegment;
 import org.wespeak.feedback.exception.ForbiddenException;
 import org.wespeak.feedback.exception.ResourceNotFoundException;
 import org.wespeak.feedback.repository.FeedbackRepository;
+import org.wespeak.feedback.repository.RawDocumentStore;
 import org.wespeak.feedback.repository.TranscriptRepository;
 
 @Slf4j
@@ -20,19 +23,27 @@ import org.wespeak.feedback.repository.TranscriptRepository;
 @RequiredArgsConstructor
 public class FeedbackService {
 
+  /** Most segments returned by one segment request; later ones are read from the next offset. */
+  public static final int MAX_SEGMENTS = 200;
+
   private final FeedbackRepository feedbackRepository;
   private final TranscriptRepository transcriptRepository;
+  private final RawDocumentStore rawDocumentStore;
 
   public TranscriptResponse getTranscript(String transcriptId, String userId) {
+    return getTranscript(transcriptId, userId, FieldSelection.all());
+  }
+
+  /** Loads only the selected fields; the others are left {@code null} in the response. */
+  public TranscriptResponse getTranscript(
+      String transcriptId, String userId, FieldSelection selection) {
     Transcript transcript =
-        transcriptRepository
-            .findById(transcriptId)
+        (selection.isAll()
+                ? transcriptRepository.findById(transcriptId)
+                : transcriptRepository.findByIdWithFields(transcriptId, selection.fields()))
             .orElseThrow(() -> new ResourceNotFoundException("Transcript not found"));
 
-    if (!transcript.getParticipantId().equals(userId)) {
-      throw new ForbiddenException("Access denied to this transcript");
-    }
-
+    checkParticipant(transcript, userId);
     return mapToTranscriptResponse(transcript);
   }
 
@@ -45,10 +56,94 @@ public class FeedbackService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * The transcript as {@link TranscriptResponse} JSON, written straight from its BSON without
+   * decoding it.
+   */
+  public byte[] getTranscriptJson(String transcriptId, String userId) {
+    return rawDocumentStore
+        .findTranscript(transcriptId, userId)
+        .map(document -> RawResponseWriter.toJson(document, RawResponseWriter.TRANSCRIPT))
+        .orElseThrow(
+            () ->
+                transcriptRepository.existsById(transcriptId)
+                    ? new ForbiddenException("Access denied to this transcript")
+                    : new ResourceNotFoundException("Transcript not found"));
+  }
+
+  /**
+   * Up to {@code count} segments of the transcript, at most {@link #MAX_SEGMENTS}, starting at
+   * index {@code from}.
+   */
+  public TranscriptSegmentsResponse getSegments(
+      String transcriptId, String userId, int from, int count) {
+    // A negative skip would slice from the end, which the response offset could not express
+    from = Math.max(from, 0);
+    count = Math.min(Math.max(count, 1), MAX_SEGMENTS);
+    Transcript transcript =
+        transcriptRepository
+            .findSegmentSlice(transcriptId, from, count)
+            .orElseThrow(() -> new ResourceNotFoundException("Transcript not found"));
+    checkParticipant(transcript, userId);
+    return TranscriptSegmentsResponse.builder()
+        .transcriptId(transcriptId)
+        .offset(from)
+        .segments(segmentsOf(transcript))
+        .build();
+  }
+
+  /**
+   * The segments playing between {@code start} and {@code end} seconds into the recording. The
+   * window is located by binary search over the segment times alone, then read as a slice. A window
+   * of more than {@link #MAX_SEGMENTS} segments returns its first ones; the response offset is the
+   * index of the first returned segment, so the rest can be read by index from there.
+   */
+  public TranscriptSegmentsResponse getSegmentsBetween(
+      String transcriptId, String userId, double start, double end) {
+    Transcript times =
+        transcriptRepository
+            .findSegmentTimes(transcriptId)
+            .orElseThrow(() -> new ResourceNotFoundException("Transcript not found"));
+    checkParticipant(times, userId);
+
+    List<TranscriptSegment> segments = segmentsOf(times);
+    int from = firstEndingAfter(segments, start);
+    int to = firstStartingAfter(segments, end);
+    if (to <= from) {
+      return TranscriptSegmentsResponse.builder()
+          .transcriptId(transcriptId)
+          .offset(from)
+          .segments(List.of())
+          .build();
+    }
+    return getSegments(transcriptId, userId, from, to - from);
+  }
+
   public FeedbackResponse getFeedback(String feedbackId, String userId) {
+    return getFeedback(feedbackId, userId, FieldSelection.all());
+  }
+
+  /**
+   * The feedback as {@link FeedbackResponse} JSON, written straight from its BSON without decoding
+   * it.
+   */
+  public byte[] getFeedbackJson(String feedbackId, String userId) {
+    return rawDocumentStore
+        .findFeedback(feedbackId, userId)
+        .map(document -> RawResponseWriter.toJson(document, RawResponseWriter.FEEDBACK))
+        .orElseThrow(
+            () ->
+                feedbackRepository.existsById(feedbackId)
+                    ? new ForbiddenException("Access denied to this feedback")
+                    : new ResourceNotFoundException("Feedback not found"));
+  }
+
+  /** Loads only the selected fields; the others are left {@code null} in the response. */
+  public FeedbackResponse getFeedback(String feedbackId, String userId, FieldSelection selection) {
     Feedback feedback =
-        feedbackRepository
-            .findById(feedbackId)
+        (selection.isAll()
+                ? feedbackRepository.findById(feedbackId)
+                : feedbackRepository.findByIdWithFields(feedbackId, selection.fields()))
             .orElseThrow(() -> new ResourceNotFoundException("Feedback not found"));
 
     if (!feedback.getUserId().equals(userId)) {
@@ -58,24 +153,21 @@ public class FeedbackService {
     return mapToFeedbackResponse(feedback);
   }
 
+  /** Newest first; only the list fields are read from Mongo. */
   public FeedbackListResponse getMyFeedbacks(
       String userId, String languageCode, Pageable pageable) {
-    Page<Feedback> feedbackPage;
+    Page<FeedbackListItem> feedbackPage;
 
     if (languageCode != null && !languageCode.isEmpty()) {
       feedbackPage =
-          feedbackRepository.findByUserIdAndTargetLanguageCode(userId, languageCode, pageable);
+          feedbackRepository.findListItemsByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
+              userId, languageCode, pageable);
     } else {
-      feedbackPage = feedbackRepository.findByUserId(userId, pageable);
+      feedbackPage = feedbackRepository.findListItemsByUserIdOrderByCreatedAtDesc(userId, pageable);
     }
 
-    List<FeedbackListItem> items =
-        feedbackPage.getContent().stream()
-            .map(this::mapToFeedbackListItem)
-            .collect(Collectors.toList());
-
     return FeedbackListResponse.builder()
-        .items(items)
+        .items(feedbackPage.getContent())
         .page(feedbackPage.getNumber())
         .size(feedbackPage.getSize())
         .total(feedbackPage.getTotalElements())
@@ -83,6 +175,40 @@ public class FeedbackService {
         .build();
   }
 
+  /**
+   * Cursor mode of {@link #getMyFeedbacks}: the page after {@code cursor}, or the first page when
+   * it is empty. The total is only counted when asked for.
+   */
+  public FeedbackListResponse getMyFeedbacksAfter(
+      String userId, String languageCode, String cursor, int size, boolean includeTotal) {
+    String language = languageCode != null && !languageCode.isEmpty() ? languageCode : null;
+    FeedbackCursor after = cursor.isEmpty() ? null : FeedbackCursor.decode(cursor);
+
+    // One extra item tells whether there is a next page
+    List<FeedbackListItem> items =
+        feedbackRepository.findListItemsAfter(userId, language, after, size + 1);
+    String nextCursor = null;
+    if (items.size() > size) {
+      items = items.subList(0, size);
+      nextCursor = FeedbackCursor.after(items.get(size - 1)).encode();
+    }
+
+    Long total = null;
+    if (includeTotal) {
+      total =
+          language != null
+              ? feedbackRepository.countByUserIdAndTargetLanguageCode(userId, language)
+              : feedbackRepository.countByUserId(userId);
+    }
+
+    return FeedbackListResponse.builder()
+        .items(items)
+        .size(size)
+        .total(total)
+        .nextCursor(nextCursor)
+        .build();
+  }
+
   public FeedbackResponse getFeedbackBySession(String sessionId, String userId) {
     Feedback feedback =
         feedbackRepository
@@ -93,6 +219,46 @@ public class FeedbackService {
     return mapToFeedbackResponse(feedback);
   }
 
+  private static void checkParticipant(Transcript transcript, String userId) {
+    if (!transcript.getParticipantId().equals(userId)) {
+      throw new ForbiddenException("Access denied to this transcript");
+    }
+  }
+
+  private static List<TranscriptSegment> segmentsOf(Transcript transcript) {
+    return transcript.getSegments() != null ? transcript.getSegments() : List.of();
+  }
+
+  /** Index of the first segment ending after {@code seconds}; segments are in time order. */
+  static int firstEndingAfter(List<TranscriptSegment> segments, double seconds) {
+    return firstIndex(segments, segment -> secondsOf(segment.getEndTime()) > seconds);
+  }
+
+  /** Index of the first segment starting after {@code seconds}; segments are in time order. */
+  static int firstStartingAfter(List<TranscriptSegment> segments, double seconds) {
+    return firstIndex(segments, segment -> secondsOf(segment.getStartTime()) > seconds);
+  }
+
+  /** Binary search for the first segment {@code reached} holds for, or the size if none. */
+  private static int firstIndex(
+      List<TranscriptSegment> segments, Predicate<TranscriptSegment> reached) {
+    int low = 0;
+    int high = segments.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (reached.test(segments.get(mid))) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  private static double secondsOf(Double time) {
+    return time != null ? time : 0;
+  }
+
   private TranscriptResponse mapToTranscriptResponse(Transcript transcript) {
     return TranscriptResponse.builder()
         .id(transcript.getId())
@@ -132,15 +298,4 @@ public class FeedbackService {
         .completedAt(feedback.getCompletedAt())
         .build();
   }
-
-  private FeedbackListItem mapToFeedbackListItem(Feedback feedback) {
-    return FeedbackListItem.builder()
-        .id(feedback.getId())
-        .sessionId(feedback.getSessionId())
-        .targetLanguageCode(feedback.getTargetLanguageCode())
-        .overallScore(feedback.getOverallScore())
-        .xpAwarded(feedback.getXpAwarded())
-        .createdAt(feedback.getCreatedAt())
-        .build();
-  }
 }
@@ -0,0 +1,39 @@
+package org.wespeak.feedback.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.entity.OutboxEvent;
+
+/**
+ * Keeps the most recently published events in memory. Stand-in for the broker in development and
+ * tests, where the events can be inspected through {@link #published()}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryEventSink implements EventSink {
+
+  private static final int RETAINED_EVENTS = 1000;
+
+  private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+  @Override
+  public synchronized void publish(List<OutboxEvent> batch) {
+    for (OutboxEvent event : batch) {
+      log.debug("Published {} for {}", event.getEventType(), event.getAggregateKey());
+      events.addLast(event);
+      if (events.size() > RETAINED_EVENTS) {
+        events.removeFirst();
+      }
+    }
+  }
+
+  public synchronized List<OutboxEvent> published() {
+    return new ArrayList<>(events);
+  }
+}
@@ -0,0 +1,28 @@
+package org.wespeak.feedback.service;
+
+import lombok.Value;
+import org.wespeak.feedback.entity.Transcript;
+
+/** Outcome of ingesting a recording: the owning transcript id, and the transcript if created. */
+@Value
+public class IngestResult {
+  String transcriptId;
+
+  /** The transcript created by this ingestion, {@code null} when the recording was a duplicate. */
+  Transcript transcript;
+
+  /** The quota counted for the created transcript, given back if it is released. */
+  QuotaService.Grant quota;
+
+  public boolean isDuplicate() {
+    return transcript == null;
+  }
+
+  public static IngestResult created(Transcript transcript, QuotaService.Grant quota) {
+    return new IngestResult(transcript.getId(), transcript, quota);
+  }
+
+  public static IngestResult duplicate(String transcriptId) {
+    return new IngestResult(transcriptId, null, null);
+  }
+}
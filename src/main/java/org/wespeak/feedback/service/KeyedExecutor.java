@@ -0,0 +1,88 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks with the same key one after another, in submission order, while tasks with different
+ * keys run in parallel on a fixed pool of workers.
+ *
+ * <p>Each key keeps only the future of its last task; a new task is chained onto it and the entry
+ * is dropped once the chain drains, so idle keys cost nothing. The number of submitted but
+ * unfinished tasks is bounded: {@link #submit} blocks the producer when the bound is reached.
+ */
+public class KeyedExecutor {
+
+  private final String name;
+  private final ExecutorService workers;
+  private final Semaphore pending;
+  private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+  public KeyedExecutor(String name, int concurrency, int maxPending, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.pending = new Semaphore(maxPending);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers =
+        Executors.newFixedThreadPool(
+            concurrency,
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "keyed-" + name + "-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    Gauge.builder("keyed.executor.pending", pending, p -> maxPending - p.availablePermits())
+        .tag("executor", name)
+        .register(meterRegistry);
+    Gauge.builder("keyed.executor.keys", tails, Map::size)
+        .tag("executor", name)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Schedules the task after every earlier task of the same key, waiting for room if too many
+   * tasks are pending. The returned future completes with the task's outcome; a failed task does
+   * not stop the ones queued behind it.
+   */
+  public CompletableFuture<Void> submit(String key, Runnable task) {
+    if (workers.isShutdown()) {
+      throw new RejectedExecutionException("Keyed executor " + name + " is shut down");
+    }
+    try {
+      pending.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for executor " + name, e);
+    }
+
+    CompletableFuture<Void> next =
+        tails.compute(
+            key,
+            (k, tail) ->
+                (tail == null ? CompletableFuture.<Void>completedFuture(null) : ignoreFailure(tail))
+                    .thenRunAsync(task, workers));
+    next.whenComplete(
+        (ignored, error) -> {
+          pending.release();
+          tails.remove(key, next);
+        });
+    return next;
+  }
+
+  public void shutdown() {
+    workers.shutdown();
+  }
+
+  private static CompletableFuture<Void> ignoreFailure(CompletableFuture<Void> tail) {
+    return tail.exceptionally(error -> null);
+  }
+}
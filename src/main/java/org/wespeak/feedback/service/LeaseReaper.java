@@ -0,0 +1,100 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.LeaseProperties;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+/**
+ * Reclaims in-flight work whose owner stopped renewing its lease, typically because its instance
+ * died.
+ *
+ * <p>A reclaimed document counts as a failed attempt and is handed to the retry scheduler like any
+ * other failure, so a recording that keeps crashing instances ends up in DEAD_LETTER instead of
+ * being retried forever.
+ */
+@Slf4j
+@Component
+public class LeaseReaper {
+
+  private final LifecycleStore lifecycleStore;
+  private final RetryPolicy retryPolicy;
+  private final LeaseProperties properties;
+  private final ScheduledExecutorService scheduler;
+
+  private final Counter transcriptsReclaimed;
+  private final Counter feedbacksReclaimed;
+
+  public LeaseReaper(
+      LifecycleStore lifecycleStore,
+      RetryPolicy retryPolicy,
+      LeaseProperties properties,
+      MeterRegistry meterRegistry) {
+    this.lifecycleStore = lifecycleStore;
+    this.retryPolicy = retryPolicy;
+    this.properties = properties;
+    this.transcriptsReclaimed =
+        meterRegistry.counter("pipeline.leases.reclaimed", "kind", "transcript");
+    this.feedbacksReclaimed =
+        meterRegistry.counter("pipeline.leases.reclaimed", "kind", "feedback");
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "lease-reaper");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long intervalMillis = properties.getReapInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(
+        this::reap, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  void reap() {
+    try {
+      Instant now = Instant.now();
+      for (Transcript transcript :
+          lifecycleStore.findTranscriptsWithExpiredLease(now, properties.getReapBatchSize())) {
+        int attempts = transcript.getAttempts() + 1;
+        if (lifecycleStore.reclaimTranscript(
+            transcript, attempts, nextAttemptAt(attempts), expired(transcript.getLeaseOwner()))) {
+          log.warn(
+              "Reclaimed transcript {} from {}", transcript.getId(), transcript.getLeaseOwner());
+          transcriptsReclaimed.increment();
+        }
+      }
+      for (Feedback feedback :
+          lifecycleStore.findFeedbacksWithExpiredLease(now, properties.getReapBatchSize())) {
+        int attempts = feedback.getAttempts() + 1;
+        if (lifecycleStore.reclaimFeedback(
+            feedback, attempts, nextAttemptAt(attempts), expired(feedback.getLeaseOwner()))) {
+          log.warn("Reclaimed feedback {} from {}", feedback.getId(), feedback.getLeaseOwner());
+          feedbacksReclaimed.increment();
+        }
+      }
+    } catch (RuntimeException e) {
+      log.warn("Lease reaping failed, will try again on the next run", e);
+    }
+  }
+
+  private Instant nextAttemptAt(int attempts) {
+    return retryPolicy.isExhausted(attempts) ? null : retryPolicy.nextAttemptAt(attempts);
+  }
+
+  private static String expired(String owner) {
+    return owner == null ? "Abandoned without a lease" : "Lease of " + owner + " expired";
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,194 @@
+package org.wespeak.feedback.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Analyzes batches through the Messages API at app.llm.api-url.
+ *
+ * <p>All transcripts of a batch go into one prompt, each wrapped in a tag carrying its id, and the
+ * model answers with one JSON object per id. Entries are parsed independently, so a malformed or
+ * missing entry only fails its own transcript.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.llm.mock-enabled", havingValue = "false")
+public class LlmAnalysisClient implements AnalysisClient {
+
+  private static final String ANTHROPIC_VERSION = "2023-06-01";
+
+  /** Bump whenever the prompt changes in a way that changes results. */
+  private static final int PROMPT_REVISION = 1;
+
+  private static final String SYSTEM_PROMPT =
+      """
+      You are a language tutor reviewing transcripts of learners' spoken conversations.
+      Each transcript is given in a <transcript id="..." language="..."> tag.
+      Analyze every transcript on its own and answer with JSON only, in this shape:
+      {"results": [{"id": "<transcript id>",
+        "grammarScore": 0-100, "vocabularyScore": 0-100,
+        "fluencyScore": 0-100, "pronunciationScore": 0-100,
+        "errors": [{"type": "GRAMMAR|VOCABULARY|PRONUNCIATION|SYNTAX",
+          "original": "...", "correction": "...", "explanation": "...",
+          "severity": "LOW|MEDIUM|HIGH", "segmentIndex": 0}],
+        "strengths": ["..."], "improvements": ["..."], "summary": "..."}]}
+      Write explanations, strengths, improvements and the summary in French.
+      Include exactly one result per transcript id.
+      """;
+
+  private final RestClient restClient;
+  private final AdaptiveLimiter limiter;
+  private final DependencyGuard guard;
+  private final String model;
+  private final int maxOutputTokens;
+  private final JsonMapper jsonMapper;
+
+  public LlmAnalysisClient(
+      UpstreamLimiters upstreamLimiters,
+      DependencyGuards dependencyGuards,
+      JsonMapper jsonMapper,
+      @Value("${app.llm.api-url}") String apiUrl,
+      @Value("${app.llm.api-key}") String apiKey,
+      @Value("${app.llm.model}") String model,
+      @Value("${app.llm.max-output-tokens:16000}") int maxOutputTokens,
+      @Value("${app.llm.connect-timeout:PT5S}") Duration connectTimeout,
+      @Value("${app.llm.read-timeout:PT110S}") Duration readTimeout) {
+    this.restClient =
+        RestClient.builder()
+            .baseUrl(apiUrl)
+            .requestFactory(UpstreamHttp.requestFactory(connectTimeout, readTimeout))
+            .defaultHeader("x-api-key", apiKey)
+            .defaultHeader("anthropic-version", ANTHROPIC_VERSION)
+            .build();
+    this.limiter = upstreamLimiters.llm();
+    this.guard = dependencyGuards.llm();
+    this.jsonMapper = jsonMapper;
+    this.model = model;
+    this.maxOutputTokens = maxOutputTokens;
+  }
+
+  @Override
+  public Map<String, AnalysisResult> analyze(List<AnalysisRequest> batch) {
+    Map<String, Object> body =
+        Map.of(
+            "model", model,
+            "max_tokens", maxOutputTokens,
+            "system", SYSTEM_PROMPT,
+            "messages", List.of(Map.of("role", "user", "content", prompt(batch))));
+
+    // Guard each attempt, so limiter queueing and Retry-After pauses hold no bulkhead slot
+    MessagesResponse response =
+        limiter.call(
+            () ->
+                guard.call(
+                    () ->
+                        restClient
+                            .post()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(body)
+                            .retrieve()
+                            .body(MessagesResponse.class)));
+
+    if (response == null || response.getContent() == null) {
+      throw new MalformedAnalysisException("Empty response from the analysis model");
+    }
+    if ("max_tokens".equals(response.getStopReason())) {
+      log.warn("Analysis of {} transcripts was truncated by max_tokens", batch.size());
+    }
+    String text =
+        response.getContent().stream()
+            .filter(block -> "text".equals(block.getType()))
+            .map(ContentBlock::getText)
+            .collect(Collectors.joining());
+    return parse(text, batch);
+  }
+
+  @Override
+  public String modelVersion() {
+    return model + "/prompt-" + PROMPT_REVISION;
+  }
+
+  private String prompt(List<AnalysisRequest> batch) {
+    StringBuilder prompt = new StringBuilder();
+    for (AnalysisRequest request : batch) {
+      prompt
+          .append("<transcript id=\"")
+          .append(request.getId())
+          .append("\" language=\"")
+          .append(request.getLanguageCode())
+          .append("\" durationSeconds=\"")
+          .append(request.getDurationSeconds())
+          .append("\">\n")
+          .append(request.getContent())
+          .append("\n</transcript>\n");
+    }
+    return prompt.toString();
+  }
+
+  private Map<String, AnalysisResult> parse(String text, List<AnalysisRequest> batch) {
+    JsonNode results;
+    try {
+      results = jsonMapper.readTree(stripCodeFence(text)).path("results");
+    } catch (JacksonException e) {
+      throw new MalformedAnalysisException("Analysis model returned malformed JSON", e);
+    }
+
+    Set<String> expectedIds =
+        batch.stream().map(AnalysisRequest::getId).collect(Collectors.toSet());
+    Map<String, AnalysisResult> parsed = new HashMap<>();
+    for (JsonNode entry : results) {
+      String id = entry.path("id").asString();
+      if (!expectedIds.contains(id)) {
+        continue;
+      }
+      try {
+        parsed.put(id, jsonMapper.treeToValue(entry, AnalysisResult.class));
+      } catch (JacksonException e) {
+        log.warn("Discarding malformed analysis for transcript {}: {}", id, e.getMessage());
+      }
+    }
+    return parsed;
+  }
+
+  private static String stripCodeFence(String text) {
+    String trimmed = text.strip();
+    if (trimmed.startsWith("```")) {
+      int start = trimmed.indexOf('\n') + 1;
+      int end = trimmed.lastIndexOf("```");
+      return end > start ? trimmed.substring(start, end) : trimmed;
+    }
+    return trimmed;
+  }
+
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  static class MessagesResponse {
+    private List<ContentBlock> content;
+
+    @JsonProperty("stop_reason")
+    private String stopReason;
+  }
+
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  static class ContentBlock {
+    private String type;
+    private String text;
+  }
+}
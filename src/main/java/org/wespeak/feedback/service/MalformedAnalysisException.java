@@ -0,0 +1,16 @@
+package org.wespeak.feedback.service;
+
+/**
+ * Thrown when the model answered but its answer could not be read, which one of the transcripts
+ * in the batch may have caused. Transport and upstream failures are not reported this way.
+ */
+public class MalformedAnalysisException extends IllegalStateException {
+
+  public MalformedAnalysisException(String message) {
+    super(message);
+  }
+
+  public MalformedAnalysisException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
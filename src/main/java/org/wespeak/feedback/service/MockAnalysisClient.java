@@ -0,0 +1,71 @@
+package org.wespeak.feedback.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.entity.ErrorSeverity;
+import org.wespeak.feedback.entity.ErrorType;
+import org.wespeak.feedback.entity.FeedbackError;
+
+/** Canned analysis used while the LLM integration is mocked (dev and tests). */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.llm.mock-enabled", havingValue = "true", matchIfMissing = true)
+public class MockAnalysisClient implements AnalysisClient {
+
+  private static final AnalysisResult MOCK_RESULT =
+      AnalysisResult.builder()
+          .grammarScore(68)
+          .vocabularyScore(75)
+          .fluencyScore(78)
+          .pronunciationScore(70)
+          .errors(
+              List.of(
+                  FeedbackError.builder()
+                      .type(ErrorType.GRAMMAR)
+                      .original("I go yesterday")
+                      .correction("I went yesterday")
+                      .explanation("Utilisez le passé simple 'went' pour une action passée.")
+                      .severity(ErrorSeverity.MEDIUM)
+                      .segmentIndex(2)
+                      .build(),
+                  FeedbackError.builder()
+                      .type(ErrorType.VOCABULARY)
+                      .original("many peoples")
+                      .correction("many people")
+                      .explanation("'People' est déjà un pluriel. N'ajoutez pas 's'.")
+                      .severity(ErrorSeverity.LOW)
+                      .segmentIndex(2)
+                      .build()))
+          .strengths(
+              List.of(
+                  "Bonne fluidité générale dans l'expression",
+                  "Utilisation correcte des temps présents",
+                  "Vocabulaire approprié pour décrire des activités quotidiennes"))
+          .improvements(
+              List.of(
+                  "Revoir la conjugaison des verbes irréguliers au passé",
+                  "Attention aux pluriels irréguliers en anglais",
+                  "Pratiquer l'utilisation des articles (a, an, the)"))
+          .summary(
+              "Bon travail ! Votre anglais est compréhensible et fluide. "
+                  + "Quelques erreurs de grammaire à corriger, notamment sur les temps du passé. "
+                  + "Continuez à pratiquer régulièrement.")
+          .build();
+
+  @Override
+  public Map<String, AnalysisResult> analyze(List<AnalysisRequest> batch) {
+    log.debug("Mock analysis of {} transcripts", batch.size());
+    Map<String, AnalysisResult> results = new LinkedHashMap<>();
+    batch.forEach(request -> results.put(request.getId(), MOCK_RESULT));
+    return results;
+  }
+
+  @Override
+  public String modelVersion() {
+    return "mock";
+  }
+}
@@ -0,0 +1,51 @@
+package org.wespeak.feedback.service;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.entity.TranscriptSegment;
+
+/** Canned transcription used while the Whisper integration is mocked (dev and tests). */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "app.whisper.mock-enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class MockTranscriptionClient implements TranscriptionClient {
+
+  private static final List<TranscriptSegment> MOCK_SEGMENTS =
+      List.of(
+          TranscriptSegment.builder()
+              .startTime(0.0)
+              .endTime(3.5)
+              .text("Hello, how are you today?")
+              .confidence(0.95)
+              .build(),
+          TranscriptSegment.builder()
+              .startTime(3.8)
+              .endTime(8.2)
+              .text("I am learning English and practicing my conversation skills.")
+              .confidence(0.92)
+              .build(),
+          TranscriptSegment.builder()
+              .startTime(8.5)
+              .endTime(12.8)
+              .text("Yesterday I go to the park and I see many peoples.")
+              .confidence(0.88)
+              .build(),
+          TranscriptSegment.builder()
+              .startTime(13.0)
+              .endTime(15.5)
+              .text("It was very nice weather.")
+              .confidence(0.94)
+              .build());
+
+  @Override
+  public List<TranscriptSegment> transcribe(AudioChunk chunk, String languageCode) {
+    log.debug("Mock transcription of chunk {} ({})", chunk.getIndex(), chunk.getFileName());
+    // The canned conversation lives in the first window; later windows are silent
+    return chunk.getIndex() == 0 ? MOCK_SEGMENTS : List.of();
+  }
+}
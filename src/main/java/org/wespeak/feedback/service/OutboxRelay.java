@@ -0,0 +1,151 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.OutboxProperties;
+import org.wespeak.feedback.entity.OutboxEvent;
+import org.wespeak.feedback.repository.LeaderLeaseStore;
+import org.wespeak.feedback.repository.OutboxRepository;
+
+/**
+ * Drains the outbox into the {@link EventSink} in batches.
+ *
+ * <p>Only one instance drains at a time: the holder of the relay's leader lease, renewed before
+ * every batch. Other instances' rounds end right away, and their events are picked up by the
+ * holder's next poll; when the holder stops, another instance takes over once the lease expired.
+ *
+ * <p>Each round reads the oldest events by outbox sequence, groups them by aggregate key and
+ * publishes every group in sequence order; published events are then deleted in one call. When a
+ * group fails, its events stay at the head of the outbox, so a later event of the same learner is
+ * never published before an earlier one. Rounds run on a single thread: after {@link #signal()}
+ * with a short linger, and on a fallback poll that also recovers events left behind by a crash.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+  static final String LEADER_LEASE = "outbox-relay";
+
+  private final OutboxRepository outboxRepository;
+  private final LeaderLeaseStore leaderLeases;
+  private final EventSink eventSink;
+  private final OutboxProperties properties;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+  private final Counter published;
+  private final Counter failures;
+  private final Timer publishLag;
+
+  public OutboxRelay(
+      OutboxRepository outboxRepository,
+      LeaderLeaseStore leaderLeases,
+      EventSink eventSink,
+      OutboxProperties properties,
+      MeterRegistry meterRegistry) {
+    this.outboxRepository = outboxRepository;
+    this.leaderLeases = leaderLeases;
+    this.eventSink = eventSink;
+    this.properties = properties;
+    this.published = meterRegistry.counter("outbox.published");
+    this.failures = meterRegistry.counter("outbox.publish.failures");
+    this.publishLag =
+        Timer.builder("outbox.publish.lag")
+            .description("Time from writing an event to publishing it")
+            .register(meterRegistry);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "outbox-relay");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long pollMillis = properties.getPollInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::drain, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Announces new outbox events; a drain runs once the linger window has passed. */
+  public void signal() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      scheduler.schedule(
+          () -> {
+            drainScheduled.set(false);
+            drain();
+          },
+          properties.getLinger().toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  void drain() {
+    try {
+      while (leaderLeases.tryHold(LEADER_LEASE, properties.getLeaseDuration())) {
+        List<OutboxEvent> batch =
+            outboxRepository.findAllByOrderBySequenceAscIdAsc(
+                PageRequest.of(0, properties.getBatchSize()));
+        if (batch.isEmpty() || publish(batch) < batch.size()) {
+          return;
+        }
+      }
+    } catch (RuntimeException e) {
+      log.error("Outbox drain failed", e);
+    }
+  }
+
+  /** Publishes the batch group by group and deletes what went out; returns how many did. */
+  private int publish(List<OutboxEvent> batch) {
+    Map<String, List<OutboxEvent>> byAggregate = new LinkedHashMap<>();
+    for (OutboxEvent event : batch) {
+      byAggregate.computeIfAbsent(event.getAggregateKey(), key -> new ArrayList<>()).add(event);
+    }
+
+    List<String> publishedIds = new ArrayList<>(batch.size());
+    Instant now = Instant.now();
+    for (Map.Entry<String, List<OutboxEvent>> group : byAggregate.entrySet()) {
+      try {
+        eventSink.publish(group.getValue());
+      } catch (RuntimeException e) {
+        failures.increment();
+        log.warn("Publishing events for {} failed, will retry", group.getKey(), e);
+        continue;
+      }
+      for (OutboxEvent event : group.getValue()) {
+        publishedIds.add(event.getId());
+        if (event.getCreatedAt() != null) {
+          publishLag.record(Duration.between(event.getCreatedAt(), now));
+        }
+      }
+    }
+
+    if (!publishedIds.isEmpty()) {
+      outboxRepository.deleteAllById(publishedIds);
+      published.increment(publishedIds.size());
+    }
+    return publishedIds.size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+    try {
+      leaderLeases.release(LEADER_LEASE);
+    } catch (RuntimeException e) {
+      log.warn("Could not release the outbox relay lease, it expires on its own", e);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.wespeak.feedback.config.PipelineProperties;
+
+/**
+ * A single stage of the recording pipeline: a fixed pool of workers in front of a bounded queue.
+ *
+ * <p>Workers are started eagerly and tasks are placed directly on the queue, so {@link #offer}
+ * fails fast when the stage is full while {@link #submit} blocks the producing stage until space
+ * frees up.
+ *
+ * <p>The queue hands out the task with the earliest deadline first: a task submitted with less
+ * slack, such as a premium or short recording, is served ahead of bulk work queued before it.
+ */
+@Slf4j
+public class PipelineStage {
+
+  private final String name;
+  private final DeadlineQueue queue;
+  private final ThreadPoolExecutor executor;
+
+  public PipelineStage(String name, PipelineProperties.Stage config, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.queue = new DeadlineQueue(config.getQueueCapacity());
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            config.getConcurrency(),
+            config.getConcurrency(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            queue,
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "pipeline-" + name + "-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.executor.prestartAllCoreThreads();
+
+    Gauge.builder("pipeline.stage.queue.size", executor, e -> e.getQueue().size())
+        .tag("stage", name)
+        .register(meterRegistry);
+    Gauge.builder("pipeline.stage.active", executor, ThreadPoolExecutor::getActiveCount)
+        .tag("stage", name)
+        .register(meterRegistry);
+  }
+
+  /** Enqueues the task if there is room, returning {@code false} when the stage is saturated. */
+  public boolean offer(Runnable task) {
+    return offer(task, Duration.ZERO);
+  }
+
+  /**
+   * Enqueues the task to run within {@code slack} if there is room, returning {@code false} when
+   * the stage is saturated.
+   */
+  public boolean offer(Runnable task, Duration slack) {
+    ensureRunning();
+    return queue.offer(schedule(task, slack));
+  }
+
+  /** Enqueues the task, waiting for queue space if the stage is saturated. */
+  public void submit(Runnable task) {
+    submit(task, Duration.ZERO);
+  }
+
+  /** Enqueues the task to run within {@code slack}, waiting for space if the stage is saturated. */
+  public void submit(Runnable task, Duration slack) {
+    ensureRunning();
+    try {
+      queue.put(schedule(task, slack));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for stage " + name, e);
+    }
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private void ensureRunning() {
+    if (executor.isShutdown()) {
+      throw new RejectedExecutionException("Pipeline stage " + name + " is shut down");
+    }
+  }
+
+  private Runnable schedule(Runnable task, Duration slack) {
+    return queue.withSlack(guard(task), slack.toNanos());
+  }
+
+  private Runnable guard(Runnable task) {
+    return () -> {
+      try {
+        task.run();
+      } catch (Exception e) {
+        log.error("Unhandled error in pipeline stage {}", name, e);
+      }
+    };
+  }
+}
@@ -0,0 +1,116 @@
+package org.wespeak.feedback.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.wespeak.feedback.entity.SubscriptionTier;
+import org.wespeak.feedback.exception.QuotaExceededException;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+/**
+ * Daily recording quota of free-tier users, checked on ingest before anything is downloaded or
+ * analyzed. Premium users are not limited.
+ *
+ * <p>Usage is counted per user and UTC day in memory, one counter per user, so concurrent
+ * recordings of different users never contend. A counter starts from the user's transcripts
+ * stored today and is dropped after the reconcile interval, so it is recounted from Mongo and
+ * picks up recordings ingested by other instances. A refund goes to the day the recording was
+ * counted on, so one dropped just after midnight does not free a slot of the new day.
+ */
+@Slf4j
+@Service
+public class QuotaService {
+
+  private final LifecycleStore lifecycleStore;
+  private final int freeDailyLimit;
+  private final Cache<String, AtomicInteger> usageByUserDay;
+  private final Counter rejected;
+
+  public QuotaService(
+      LifecycleStore lifecycleStore,
+      @Value("${app.feedback.max-feedbacks-per-day-free:3}") int freeDailyLimit,
+      @Value("${app.feedback.quota.max-users:100000}") long maxUsers,
+      @Value("${app.feedback.quota.reconcile-interval:PT5M}") Duration reconcileInterval,
+      MeterRegistry meterRegistry) {
+    this.lifecycleStore = lifecycleStore;
+    this.freeDailyLimit = freeDailyLimit;
+    this.usageByUserDay =
+        Caffeine.newBuilder().maximumSize(maxUsers).expireAfterWrite(reconcileInterval).build();
+    this.rejected =
+        Counter.builder("pipeline.quota.rejected")
+            .description("Recordings rejected because the user's daily quota was used up")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Counts a recording against the user's quota for today.
+   *
+   * @return the grant to hand to {@link #refund(Grant)} if the recording is not ingested after all
+   * @throws QuotaExceededException if the user has no recordings left today
+   */
+  public Grant acquire(String userId, SubscriptionTier tier) {
+    if (!isLimited(userId, tier)) {
+      return Grant.UNLIMITED;
+    }
+    Instant now = Instant.now();
+    LocalDate today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+    AtomicInteger used =
+        usageByUserDay.get(
+            key(userId, today), ignored -> new AtomicInteger(storedToday(userId, today)));
+    if (used.incrementAndGet() > freeDailyLimit) {
+      used.decrementAndGet();
+      rejected.increment();
+      Duration untilReset = Duration.between(now, startOf(today.plusDays(1)));
+      log.info("User {} exceeded the daily quota of {} recordings", userId, freeDailyLimit);
+      throw new QuotaExceededException(
+          "Daily limit of " + freeDailyLimit + " feedbacks reached", untilReset);
+    }
+    return new Grant(userId, today);
+  }
+
+  /** Gives back a recording that was not ingested after all, on the day it was counted. */
+  public void refund(Grant grant) {
+    if (grant.day() == null) {
+      return;
+    }
+    AtomicInteger used = usageByUserDay.getIfPresent(key(grant.userId(), grant.day()));
+    if (used != null) {
+      used.updateAndGet(count -> Math.max(0, count - 1));
+    }
+  }
+
+  private boolean isLimited(String userId, SubscriptionTier tier) {
+    return userId != null && tier != SubscriptionTier.PREMIUM;
+  }
+
+  private int storedToday(String userId, LocalDate today) {
+    return (int) lifecycleStore.countTranscriptsSince(userId, startOf(today));
+  }
+
+  private static Instant startOf(LocalDate day) {
+    return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+  }
+
+  private static String key(String userId, LocalDate day) {
+    return userId + "|" + day;
+  }
+
+  /**
+   * A recording counted against {@code userId}'s quota of {@code day} (UTC). A refund after
+   * midnight gives it back to that day, not to the new one.
+   */
+  public record Grant(String userId, LocalDate day) {
+
+    /** Nothing was counted: the user is not limited. */
+    static final Grant UNLIMITED = new Grant(null, null);
+  }
+}
@@ -1,6 +1,10 @@
 package org.wespeak.feedback.service;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +13,7 @@ import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
@@ -20,6 +25,11 @@ public class R2StorageService implements StorageService {
 
   private final S3Client s3Client;
   private final S3Presigner s3Presigner;
+  private final RangedDownloader rangedDownloader;
+  private final DependencyGuards dependencyGuards;
+
+  @Value("${app.storage.ranged-download.enabled:true}")
+  private boolean rangedDownloadEnabled;
 
   @Value("${storage.bucket-name}")
   private String bucketName;
@@ -27,9 +37,31 @@ public class R2StorageService implements StorageService {
   @Override
   public InputStream downloadFile(String key) {
     log.info("Downloading file from R2: {}", key);
-    GetObjectRequest getObjectRequest =
-        GetObjectRequest.builder().bucket(bucketName).key(key).build();
-    return s3Client.getObject(getObjectRequest);
+    return dependencyGuards.storage().call(() -> s3Client.getObject(getObjectRequest(key)));
+  }
+
+  @Override
+  public void downloadToFile(String key, Path target) throws IOException {
+    dependencyGuards
+        .storage()
+        .call(
+            () -> {
+              if (rangedDownloadEnabled) {
+                HeadObjectResponse head = rangedDownloader.head(bucketName, key);
+                if (rangedDownloader.shouldSplit(head.contentLength())) {
+                  rangedDownloader.download(bucketName, key, head, target);
+                  return null;
+                }
+              }
+              try (InputStream content = s3Client.getObject(getObjectRequest(key))) {
+                Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+              }
+              return null;
+            });
+  }
+
+  private GetObjectRequest getObjectRequest(String key) {
+    return GetObjectRequest.builder().bucket(bucketName).key(key).build();
   }
 
   @Override
@@ -39,7 +71,12 @@ public class R2StorageService implements StorageService {
     PutObjectRequest putObjectRequest =
         PutObjectRequest.builder().bucket(bucketName).key(key).contentType(contentType).build();
 
-    s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(content, contentLength));
+    dependencyGuards
+        .storage()
+        .call(
+            () ->
+                s3Client.putObject(
+                    putObjectRequest, RequestBody.fromInputStream(content, contentLength)));
     return key;
   }
 
@@ -0,0 +1,158 @@
+package org.wespeak.feedback.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+/**
+ * Downloads large objects as parallel byte-range GETs written straight into a preallocated,
+ * memory-mapped spool file.
+ *
+ * <p>All downloads share one budget of bytes in flight, so concurrent recordings cannot exhaust
+ * the heap. Range requests carry the ETag seen by the initial HEAD, so an object replaced mid-way
+ * fails the download instead of producing a spliced file. SDK exceptions are rethrown as they are,
+ * like the synchronous client's, so a missing or replaced object is not mistaken for an I/O error.
+ */
+@Slf4j
+@Component
+public class RangedDownloader {
+
+  private final S3AsyncClient s3AsyncClient;
+  private final long partSize;
+  private final long thresholdBytes;
+  private final Semaphore bytesInFlight;
+
+  public RangedDownloader(
+      S3AsyncClient s3AsyncClient,
+      @Value("${app.storage.ranged-download.part-size:4194304}") long partSize,
+      @Value("${app.storage.ranged-download.threshold-bytes:8388608}") long thresholdBytes,
+      @Value("${app.storage.ranged-download.max-bytes-in-flight:67108864}") int maxBytesInFlight) {
+    if (partSize > maxBytesInFlight) {
+      throw new IllegalArgumentException("part-size must not exceed max-bytes-in-flight");
+    }
+    this.s3AsyncClient = s3AsyncClient;
+    this.partSize = partSize;
+    this.thresholdBytes = thresholdBytes;
+    this.bytesInFlight = new Semaphore(maxBytesInFlight, true);
+  }
+
+  /** Returns the object's size, so callers can decide whether a ranged download is worth it. */
+  public HeadObjectResponse head(String bucket, String key) {
+    try {
+      return s3AsyncClient
+          .headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build())
+          .join();
+    } catch (CompletionException e) {
+      // Surface the SDK exception itself, as the synchronous client would
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  public boolean shouldSplit(long contentLength) {
+    return contentLength >= thresholdBytes;
+  }
+
+  /** Downloads the object described by {@code head} into {@code target}, replacing its content. */
+  public void download(String bucket, String key, HeadObjectResponse head, Path target)
+      throws IOException {
+    long size = head.contentLength();
+    log.info("Ranged download of {} ({} bytes, {} byte parts)", key, size, partSize);
+
+    try (FileChannel channel =
+        FileChannel.open(
+            target,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      List<CompletableFuture<Void>> parts = new ArrayList<>();
+      AtomicBoolean failed = new AtomicBoolean();
+      try {
+        for (long offset = 0; offset < size && !failed.get(); offset += partSize) {
+          int length = (int) Math.min(partSize, size - offset);
+          acquire(length);
+          // Mapping past the end of the file grows it, which preallocates the spool
+          MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, offset, length);
+          parts.add(
+              fetchPart(bucket, key, head.eTag(), offset, length, region)
+                  .whenComplete(
+                      (ignored, error) -> {
+                        if (error != null) {
+                          failed.set(true);
+                        }
+                      }));
+        }
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).join();
+      } catch (IOException | RuntimeException e) {
+        // Let in-flight parts settle so their budget is returned before the spool is discarded
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+            .handle((ignored, error) -> null)
+            .join();
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof SdkException sdkException) {
+          // Kept as is so the storage guard classifies it like a failure of the plain GET
+          throw sdkException;
+        }
+        throw new IOException("Ranged download failed for " + key, cause);
+      }
+      channel.force(false);
+    }
+  }
+
+  private CompletableFuture<Void> fetchPart(
+      String bucket, String key, String eTag, long offset, int length, MappedByteBuffer region) {
+    GetObjectRequest request =
+        GetObjectRequest.builder()
+            .bucket(bucket)
+            .key(key)
+            .ifMatch(eTag)
+            .range("bytes=" + offset + "-" + (offset + length - 1))
+            .build();
+
+    return s3AsyncClient
+        .getObject(request, AsyncResponseTransformer.toBytes())
+        .thenAccept(
+            bytes -> {
+              ByteBuffer content = bytes.asByteBuffer();
+              if (content.remaining() != length) {
+                throw new IllegalStateException(
+                    "Short range read at offset " + offset + " for " + key);
+              }
+              region.put(content);
+            })
+        .whenComplete((ignored, error) -> bytesInFlight.release(length));
+  }
+
+  /** Bytes of the shared budget not taken by a part in flight. */
+  int availableBytesInFlight() {
+    return bytesInFlight.availablePermits();
+  }
+
+  private void acquire(int length) throws InterruptedIOException {
+    try {
+      bytesInFlight.acquire(length);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for download budget");
+    }
+  }
+}
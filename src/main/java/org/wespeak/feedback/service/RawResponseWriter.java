@@ -0,0 +1,151 @@
+package org.wespeak.feedback.service;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.json.JsonFactory;
+
+/**
+ * Writes feedback and transcript documents straight from BSON to JSON through a field-mapping
+ * table, without decoding an entity or building a DTO. The output is the JSON Jackson writes for
+ * {@link org.wespeak.feedback.dto.FeedbackResponse} and {@link
+ * org.wespeak.feedback.dto.TranscriptResponse}: the same fields in the same order, {@code null}
+ * for missing values, enums by name and instants as ISO-8601.
+ *
+ * <p>A field added to either response has to be added to its table as well.
+ */
+public final class RawResponseWriter {
+
+  enum Kind {
+    STRING,
+    INTEGER,
+    DOUBLE,
+    INSTANT,
+    STRING_LIST,
+    OBJECT_LIST
+  }
+
+  /** A JSON property read from the BSON field {@code source}. */
+  record FieldMapping(String name, String source, Kind kind, List<FieldMapping> nested) {}
+
+  static final List<FieldMapping> FEEDBACK_ERROR =
+      List.of(
+          field("type", Kind.STRING),
+          field("original", Kind.STRING),
+          field("correction", Kind.STRING),
+          field("explanation", Kind.STRING),
+          field("severity", Kind.STRING),
+          field("segmentIndex", Kind.INTEGER));
+
+  static final List<FieldMapping> TRANSCRIPT_SEGMENT =
+      List.of(
+          field("startTime", Kind.DOUBLE),
+          field("endTime", Kind.DOUBLE),
+          field("text", Kind.STRING),
+          field("confidence", Kind.DOUBLE));
+
+  public static final List<FieldMapping> FEEDBACK =
+      List.of(
+          new FieldMapping("id", "_id", Kind.STRING, List.of()),
+          field("transcriptId", Kind.STRING),
+          field("userId", Kind.STRING),
+          field("sessionId", Kind.STRING),
+          field("targetLanguageCode", Kind.STRING),
+          field("overallScore", Kind.INTEGER),
+          field("grammarScore", Kind.INTEGER),
+          field("vocabularyScore", Kind.INTEGER),
+          field("fluencyScore", Kind.INTEGER),
+          field("pronunciationScore", Kind.INTEGER),
+          objects("errors", FEEDBACK_ERROR),
+          field("strengths", Kind.STRING_LIST),
+          field("improvements", Kind.STRING_LIST),
+          field("summary", Kind.STRING),
+          field("xpAwarded", Kind.INTEGER),
+          field("status", Kind.STRING),
+          field("createdAt", Kind.INSTANT),
+          field("completedAt", Kind.INSTANT));
+
+  public static final List<FieldMapping> TRANSCRIPT =
+      List.of(
+          new FieldMapping("id", "_id", Kind.STRING, List.of()),
+          field("sessionId", Kind.STRING),
+          field("participantId", Kind.STRING),
+          field("targetLanguageCode", Kind.STRING),
+          field("content", Kind.STRING),
+          objects("segments", TRANSCRIPT_SEGMENT),
+          field("duration", Kind.INTEGER),
+          field("wordCount", Kind.INTEGER),
+          field("confidence", Kind.DOUBLE),
+          field("status", Kind.STRING),
+          field("createdAt", Kind.INSTANT),
+          field("completedAt", Kind.INSTANT));
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private RawResponseWriter() {}
+
+  /** The document as a JSON object of the mapped fields, UTF-8 encoded. */
+  public static byte[] toJson(BsonDocument document, List<FieldMapping> fields) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    try (JsonGenerator json = JSON.createGenerator(ObjectWriteContext.empty(), out)) {
+      writeObject(json, document, fields);
+    }
+    return out.toByteArray();
+  }
+
+  private static void writeObject(
+      JsonGenerator json, BsonDocument document, List<FieldMapping> fields) {
+    json.writeStartObject();
+    for (FieldMapping field : fields) {
+      json.writeName(field.name());
+      writeValue(json, document.get(field.source()), field);
+    }
+    json.writeEndObject();
+  }
+
+  private static void writeValue(JsonGenerator json, BsonValue value, FieldMapping field) {
+    if (value == null || value.isNull()) {
+      json.writeNull();
+      return;
+    }
+    switch (field.kind()) {
+      case STRING -> json.writeString(value.asString().getValue());
+      case INTEGER -> json.writeNumber(value.asNumber().intValue());
+      case DOUBLE -> json.writeNumber(value.asNumber().doubleValue());
+      case INSTANT ->
+          json.writeString(Instant.ofEpochMilli(value.asDateTime().getValue()).toString());
+      case STRING_LIST -> {
+        json.writeStartArray();
+        for (BsonValue element : value.asArray()) {
+          json.writeString(element.asString().getValue());
+        }
+        json.writeEndArray();
+      }
+      case OBJECT_LIST -> {
+        BsonArray elements = value.asArray();
+        json.writeStartArray();
+        for (BsonValue element : elements) {
+          if (element.isNull()) {
+            json.writeNull();
+          } else {
+            writeObject(json, element.asDocument(), field.nested());
+          }
+        }
+        json.writeEndArray();
+      }
+    }
+  }
+
+  private static FieldMapping field(String name, Kind kind) {
+    return new FieldMapping(name, name, kind, List.of());
+  }
+
+  private static FieldMapping objects(String name, List<FieldMapping> nested) {
+    return new FieldMapping(name, name, Kind.OBJECT_LIST, nested);
+  }
+}
@@ -0,0 +1,41 @@
+package org.wespeak.feedback.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers recently ingested recordings so hot redeliveries are answered without a Mongo round
+ * trip. Misses fall through to the unique index on {@code recordingId}, which stays authoritative.
+ */
+@Component
+public class RecentRecordingFilter {
+
+  private final Cache<String, String> transcriptIdsByRecording;
+
+  public RecentRecordingFilter(
+      @Value("${app.pipeline.dedup.max-size:100000}") long maxSize,
+      @Value("${app.pipeline.dedup.ttl:PT1H}") Duration ttl) {
+    this.transcriptIdsByRecording =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+  }
+
+  /** Returns the transcript id already ingested for the recording, or {@code null}. */
+  public String find(String recordingId) {
+    return recordingId == null ? null : transcriptIdsByRecording.getIfPresent(recordingId);
+  }
+
+  public void remember(String recordingId, String transcriptId) {
+    if (recordingId != null) {
+      transcriptIdsByRecording.put(recordingId, transcriptId);
+    }
+  }
+
+  public void forget(String recordingId) {
+    if (recordingId != null) {
+      transcriptIdsByRecording.invalidate(recordingId);
+    }
+  }
+}
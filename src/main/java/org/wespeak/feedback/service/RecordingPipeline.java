@@ -0,0 +1,218 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.wespeak.feedback.config.PipelineProperties;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.event.RecordingUploadedPayload;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+import org.wespeak.feedback.exception.PipelineSaturatedException;
+
+/**
+ * Staged processing of uploaded recordings: ingest → download → transcribe → analyze → stats.
+ *
+ * <p>Ingest runs on the caller's thread and only persists the PENDING transcript; every other
+ * stage runs on its own bounded executor so callers get the transcript id back immediately.
+ *
+ * <p>Within a stage, tasks are served by deadline rather than arrival: each recording gets the
+ * slack {@link RecordingPriority} allows it, so premium and short recordings overtake free-tier
+ * bulk during peaks.
+ *
+ * <p>The stats stage is keyed by learner: one learner's stats updates run one at a time, so two
+ * recordings of the same learner never race on their stats document.
+ *
+ * <p>A stage that hits an unavailable dependency parks its task in the retry queue and runs it
+ * again later instead of failing the recording; only when the retry queue is full is the work
+ * marked FAILED, which leaves it to the retry scheduler.
+ */
+@Slf4j
+@Service
+public class RecordingPipeline {
+
+  private final TranscriptionService transcriptionService;
+  private final AnalysisService analysisService;
+  private final RetryQueue retryQueue;
+  private final RecordingPriority recordingPriority;
+
+  private final PipelineStage downloadStage;
+  private final PipelineStage transcribeStage;
+  private final PipelineStage analyzeStage;
+  private final KeyedExecutor statsStage;
+
+  public RecordingPipeline(
+      TranscriptionService transcriptionService,
+      AnalysisService analysisService,
+      RetryQueue retryQueue,
+      RecordingPriority recordingPriority,
+      PipelineProperties properties,
+      MeterRegistry meterRegistry) {
+    this.transcriptionService = transcriptionService;
+    this.analysisService = analysisService;
+    this.retryQueue = retryQueue;
+    this.recordingPriority = recordingPriority;
+    this.downloadStage = new PipelineStage("download", properties.getDownload(), meterRegistry);
+    this.transcribeStage =
+        new PipelineStage("transcribe", properties.getTranscribe(), meterRegistry);
+    this.analyzeStage = new PipelineStage("analyze", properties.getAnalyze(), meterRegistry);
+    this.statsStage =
+        new KeyedExecutor(
+            "stats",
+            properties.getStats().getConcurrency(),
+            properties.getStats().getQueueCapacity(),
+            meterRegistry);
+  }
+
+  /**
+   * Persists the transcript and schedules the rest of the pipeline. Recordings that were already
+   * ingested are reported as duplicates and not processed again.
+   *
+   * @throws PipelineSaturatedException if the download stage has no room left
+   */
+  public IngestResult submit(RecordingUploadedPayload payload) {
+    IngestResult result = transcriptionService.ingest(payload);
+    if (result.isDuplicate()) {
+      return result;
+    }
+
+    Transcript transcript = result.getTranscript();
+    Runnable download = () -> download(transcript, payload.getAudioUrl());
+    if (!downloadStage.offer(download, slackFor(transcript))) {
+      log.warn("Download stage saturated, rejecting recording: {}", payload.getRecordingId());
+      transcriptionService.release(result);
+      throw new PipelineSaturatedException("Recording pipeline is at capacity, retry later");
+    }
+    return result;
+  }
+
+  /**
+   * Runs a failed transcript through the pipeline again, from the download on. Returns {@code
+   * false} if the download stage has no room for it.
+   */
+  public boolean retryTranscription(Transcript transcript) {
+    return downloadStage.offer(
+        () -> download(transcript, transcript.getAudioUrl()), slackFor(transcript));
+  }
+
+  /** Analyzes a transcript again whose feedback failed; {@code false} if the stage is full. */
+  public boolean retryAnalysis(Transcript transcript) {
+    return analyzeStage.offer(() -> analyze(transcript), slackFor(transcript));
+  }
+
+  private void download(Transcript transcript, String audioUrl) {
+    try {
+      transcriptionService
+          .downloadAudio(transcript, audioUrl)
+          .ifPresent(
+              audioFile ->
+                  transcribeStage.submit(
+                      () -> transcribe(transcript, audioFile), slackFor(transcript)));
+    } catch (DependencyUnavailableException e) {
+      parkOrFail(
+          e,
+          () -> downloadStage.submit(() -> download(transcript, audioUrl), slackFor(transcript)),
+          () -> transcriptionService.markFailed(transcript, RetryPolicy.describe(e)));
+    }
+  }
+
+  private void transcribe(Transcript transcript, Path audioFile) {
+    boolean parked = false;
+    try {
+      transcriptionService
+          .transcribe(transcript, audioFile)
+          .ifPresent(
+              completed -> analyzeStage.submit(() -> analyze(completed), slackFor(completed)));
+    } catch (DependencyUnavailableException e) {
+      parked =
+          parkOrFail(
+              e,
+              () ->
+                  transcribeStage.submit(
+                      () -> transcribe(transcript, audioFile), slackFor(transcript)),
+              () -> transcriptionService.markFailed(transcript, RetryPolicy.describe(e)));
+    } finally {
+      // A parked transcription still needs its spool file
+      if (!parked) {
+        deleteSpoolFile(audioFile);
+      }
+    }
+  }
+
+  private void analyze(Transcript transcript) {
+    try {
+      analysisService
+          .analyzeTranscript(transcript)
+          .ifPresent(feedback -> submitStats(feedback, transcript));
+    } catch (DependencyUnavailableException e) {
+      parkOrFail(
+          e,
+          () -> analyzeStage.submit(() -> analyze(transcript), slackFor(transcript)),
+          () -> analysisService.markFailed(transcript, RetryPolicy.describe(e)));
+    }
+  }
+
+  private void submitStats(Feedback feedback, Transcript transcript) {
+    statsStage
+        .submit(feedback.getUserId(), () -> recordStats(feedback, transcript))
+        .exceptionally(
+            error -> {
+              log.error("Unhandled error in stats for feedback: {}", feedback.getId(), error);
+              return null;
+            });
+  }
+
+  private void recordStats(Feedback feedback, Transcript transcript) {
+    try {
+      analysisService.recordStats(feedback, transcript);
+    } catch (DependencyUnavailableException e) {
+      parkOrFail(
+          e,
+          () -> submitStats(feedback, transcript),
+          () -> log.error("Dropping stats update for feedback: {}", feedback.getId()));
+    }
+  }
+
+  /**
+   * Parks the work until the dependency may be back, then runs {@code resubmit}; returns {@code
+   * false} if the work was failed instead.
+   */
+  private boolean parkOrFail(
+      DependencyUnavailableException cause, Runnable resubmit, Runnable giveUp) {
+    if (retryQueue.park(cause, resubmit)) {
+      return true;
+    }
+    log.error("Retry queue full, giving up: {}", cause.getMessage());
+    try {
+      giveUp.run();
+    } catch (RuntimeException e) {
+      log.error("Could not record the failure", e);
+    }
+    return false;
+  }
+
+  private Duration slackFor(Transcript transcript) {
+    return recordingPriority.slackFor(transcript);
+  }
+
+  private void deleteSpoolFile(Path audioFile) {
+    try {
+      Files.deleteIfExists(audioFile);
+    } catch (IOException e) {
+      log.warn("Could not delete spool file: {}", audioFile, e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    downloadStage.shutdown();
+    transcribeStage.shutdown();
+    analyzeStage.shutdown();
+    statsStage.shutdown();
+  }
+}
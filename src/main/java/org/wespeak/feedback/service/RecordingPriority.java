@@ -0,0 +1,40 @@
+package org.wespeak.feedback.service;
+
+import java.time.Duration;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.PipelineProperties;
+import org.wespeak.feedback.entity.SubscriptionTier;
+import org.wespeak.feedback.entity.Transcript;
+
+/**
+ * Decides how long a recording may wait in a stage queue behind others: premium recordings get no
+ * tier delay, and longer recordings get more slack than short ones, up to a cap.
+ */
+@Component
+public class RecordingPriority {
+
+  private final PipelineProperties.Priority properties;
+
+  public RecordingPriority(PipelineProperties pipelineProperties) {
+    this.properties = pipelineProperties.getPriority();
+  }
+
+  public Duration slackFor(Transcript transcript) {
+    Duration slack =
+        transcript.getSubscriptionTier() == SubscriptionTier.PREMIUM
+            ? Duration.ZERO
+            : properties.getFreeTierDelay();
+    return slack.plus(durationDelay(transcript.getDuration()));
+  }
+
+  /** Recordings without a duration are treated as short. */
+  private Duration durationDelay(Integer durationSeconds) {
+    if (durationSeconds == null || durationSeconds <= 0) {
+      return Duration.ZERO;
+    }
+    Duration delay =
+        properties.getDelayPerRecordedMinute().multipliedBy(durationSeconds).dividedBy(60);
+    Duration max = properties.getMaxDurationDelay();
+    return delay.compareTo(max) > 0 ? max : delay;
+  }
+}
@@ -0,0 +1,161 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.KafkaConsumerProperties;
+import org.wespeak.feedback.event.RecordingUploadedPayload;
+import org.wespeak.feedback.exception.QuotaExceededException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Batch consumer of recording.uploaded.
+ *
+ * <p>Each polled batch is spread over a {@link KeyedExecutor} keyed by participant, so records of
+ * different users are ingested in parallel while one user's recordings keep their partition
+ * order. Offsets are committed only once every record of the batch has been persisted by the
+ * pipeline; otherwise the batch is retried from its first failed record. Once a record of a user
+ * fails, that user's later records in the batch are skipped so they are not ingested ahead of it.
+ * Recordings over the user's daily quota are dropped rather than retried.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.kafka.enabled", havingValue = "true")
+public class RecordingUploadedConsumer {
+
+  private final RecordingPipeline recordingPipeline;
+  private final KeyedExecutor executor;
+  private final Map<TopicPartition, Long> lagByPartition = new ConcurrentHashMap<>();
+  private final JsonMapper jsonMapper;
+
+  public RecordingUploadedConsumer(
+      RecordingPipeline recordingPipeline,
+      KafkaConsumerProperties properties,
+      JsonMapper jsonMapper,
+      MeterRegistry meterRegistry) {
+    this.recordingPipeline = recordingPipeline;
+    this.jsonMapper = jsonMapper;
+    this.executor =
+        new KeyedExecutor(
+            "recording-consumer",
+            properties.getConcurrency(),
+            properties.getMaxPending(),
+            meterRegistry);
+    Gauge.builder("recording.consumer.lag", lagByPartition, RecordingUploadedConsumer::totalLag)
+        .description("Records of recording.uploaded not yet consumed, across assigned partitions")
+        .register(meterRegistry);
+  }
+
+  @KafkaListener(
+      topics = "${app.kafka.recording-uploaded-topic:recording.uploaded}",
+      batch = "true")
+  public void onRecordingsUploaded(
+      List<ConsumerRecord<String, String>> records,
+      Acknowledgment acknowledgment,
+      Consumer<?, ?> consumer) {
+    Set<String> failedKeys = ConcurrentHashMap.newKeySet();
+    List<CompletableFuture<Void>> handled = new ArrayList<>(records.size());
+    for (ConsumerRecord<String, String> record : records) {
+      RecordingUploadedPayload payload = parse(record);
+      if (payload == null) {
+        handled.add(CompletableFuture.completedFuture(null));
+        continue;
+      }
+      String key = keyOf(record, payload);
+      handled.add(executor.submit(key, () -> ingest(payload, key, failedKeys)));
+    }
+
+    for (int index = 0; index < handled.size(); index++) {
+      try {
+        handled.get(index).join();
+      } catch (CompletionException | CancellationException e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        // Everything from the first failed record on is polled again; replays are de-duplicated
+        throw new BatchListenerFailedException(
+            "Could not ingest recording.uploaded record", cause, index);
+      }
+    }
+
+    acknowledgment.acknowledge();
+    recordLag(consumer);
+  }
+
+  private void ingest(RecordingUploadedPayload payload, String key, Set<String> failedKeys) {
+    if (failedKeys.contains(key)) {
+      throw new CancellationException("An earlier recording of " + key + " failed");
+    }
+    try {
+      recordingPipeline.submit(payload);
+    } catch (QuotaExceededException e) {
+      log.warn("Dropping recording {}: {}", payload.getRecordingId(), e.getMessage());
+    } catch (RuntimeException e) {
+      failedKeys.add(key);
+      throw e;
+    }
+  }
+
+  /** Returns the payload, or {@code null} for a record that can never be processed. */
+  private RecordingUploadedPayload parse(ConsumerRecord<String, String> record) {
+    try {
+      JsonNode root = jsonMapper.readTree(record.value());
+      // Events arrive wrapped in the usual envelope; a bare payload is accepted as well
+      JsonNode payload = root.has("payload") ? root.get("payload") : root;
+      RecordingUploadedPayload parsed =
+          jsonMapper.treeToValue(payload, RecordingUploadedPayload.class);
+      if (parsed.getRecordingId() == null || parsed.getAudioUrl() == null) {
+        log.error("Skipping recording.uploaded without recording or audio at {}", at(record));
+        return null;
+      }
+      return parsed;
+    } catch (JacksonException | IllegalArgumentException e) {
+      log.error("Skipping malformed recording.uploaded record at {}", at(record), e);
+      return null;
+    }
+  }
+
+  /** Orders by participant; records without one fall back to the Kafka record key. */
+  private static String keyOf(ConsumerRecord<String, String> record, RecordingUploadedPayload p) {
+    if (p.getParticipantId() != null) {
+      return p.getParticipantId();
+    }
+    return record.key() != null ? record.key() : "";
+  }
+
+  private void recordLag(Consumer<?, ?> consumer) {
+    for (TopicPartition partition : consumer.assignment()) {
+      consumer.currentLag(partition).ifPresent(lag -> lagByPartition.put(partition, lag));
+    }
+  }
+
+  private static double totalLag(Map<TopicPartition, Long> lagByPartition) {
+    return lagByPartition.values().stream().mapToLong(Long::longValue).sum();
+  }
+
+  private static String at(ConsumerRecord<?, ?> record) {
+    return record.topic() + "-" + record.partition() + "@" + record.offset();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,49 @@
+package org.wespeak.feedback.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.RetryProperties;
+
+/**
+ * When a failed transcript or feedback is tried again.
+ *
+ * <p>The delay doubles with every failed attempt up to the configured maximum, and half of it is
+ * randomized ("equal jitter"), so documents that failed together during an outage do not all come
+ * back in the same scan.
+ */
+@Component
+@RequiredArgsConstructor
+public class RetryPolicy {
+
+  private static final int MAX_ERROR_LENGTH = 500;
+
+  private final RetryProperties properties;
+
+  /** Whether a document that has failed {@code attempts} times should be given up. */
+  public boolean isExhausted(int attempts) {
+    return attempts >= properties.getMaxAttempts();
+  }
+
+  /** The next attempt after the {@code attempts}-th failure. */
+  public Instant nextAttemptAt(int attempts) {
+    return Instant.now().plus(delayFor(attempts));
+  }
+
+  Duration delayFor(int attempts) {
+    long base = properties.getBaseDelay().toMillis();
+    long max = properties.getMaxDelay().toMillis();
+    int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+    long capped = Math.min(max, base << doublings);
+    long half = capped / 2;
+    return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+  }
+
+  /** Short description of a failure, stored as the document's {@code lastError}. */
+  public static String describe(Throwable error) {
+    String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+    return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+  }
+}
@@ -0,0 +1,77 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.ResilienceProperties;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+
+/**
+ * Holds pipeline work back while a dependency is unavailable and resubmits it once the dependency
+ * may have recovered. The number of parked tasks is bounded; beyond it callers fail the work.
+ */
+@Slf4j
+@Component
+public class RetryQueue {
+
+  private static final Duration MIN_DELAY = Duration.ofSeconds(1);
+
+  private final ScheduledExecutorService scheduler;
+  private final AtomicInteger parked = new AtomicInteger();
+  private final int capacity;
+  private final MeterRegistry meterRegistry;
+
+  public RetryQueue(ResilienceProperties properties, MeterRegistry meterRegistry) {
+    this.capacity = properties.getRetryQueueCapacity();
+    this.meterRegistry = meterRegistry;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "pipeline-retry");
+              thread.setDaemon(true);
+              return thread;
+            });
+    Gauge.builder("pipeline.parked", parked, AtomicInteger::get).register(meterRegistry);
+  }
+
+  /**
+   * Runs {@code resume} after the dependency's retry delay, plus jitter so parked work does not hit
+   * a recovering dependency all at once. Returns {@code false} if the queue is full.
+   */
+  public boolean park(DependencyUnavailableException cause, Runnable resume) {
+    if (parked.incrementAndGet() > capacity) {
+      parked.decrementAndGet();
+      return false;
+    }
+    meterRegistry.counter("pipeline.parked.total", "dependency", cause.getDependency()).increment();
+
+    long delay = Math.max(MIN_DELAY.toMillis(), cause.getRetryAfter().toMillis());
+    delay += ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    log.info("{}, parking work for {} ms", cause.getMessage(), delay);
+    scheduler.schedule(
+        () -> {
+          parked.decrementAndGet();
+          try {
+            resume.run();
+          } catch (RuntimeException e) {
+            log.error("Could not resume parked work", e);
+          }
+        },
+        delay,
+        TimeUnit.MILLISECONDS);
+    return true;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,146 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.RetryProperties;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.TranscriptStatus;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+/**
+ * Puts FAILED transcripts and feedbacks back into the pipeline once their next attempt is due.
+ *
+ * <p>Every scan reads at most one batch of each kind through the {@code (status, nextAttemptAt)}
+ * index, claims each document with a guarded update (so several instances never retry the same
+ * one) and offers it to the pipeline. When a stage is full the document goes back to FAILED and
+ * the rest of the batch waits for the next scan, so recovery after an outage is paced by the
+ * pipeline rather than by how much failed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.retry.enabled", havingValue = "true", matchIfMissing = true)
+public class RetryScheduler {
+
+  private final LifecycleStore lifecycleStore;
+  private final RecordingPipeline recordingPipeline;
+  private final RetryProperties properties;
+  private final WorkLeases workLeases;
+  private final ScheduledExecutorService scheduler;
+
+  private final Counter transcriptRetries;
+  private final Counter feedbackRetries;
+
+  public RetryScheduler(
+      LifecycleStore lifecycleStore,
+      RecordingPipeline recordingPipeline,
+      RetryProperties properties,
+      WorkLeases workLeases,
+      MeterRegistry meterRegistry) {
+    this.lifecycleStore = lifecycleStore;
+    this.recordingPipeline = recordingPipeline;
+    this.properties = properties;
+    this.workLeases = workLeases;
+    this.transcriptRetries = meterRegistry.counter("pipeline.retries", "kind", "transcript");
+    this.feedbackRetries = meterRegistry.counter("pipeline.retries", "kind", "feedback");
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "pipeline-retry-scan");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long intervalMillis = properties.getScanInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(
+        this::scan, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  void scan() {
+    try {
+      Instant now = Instant.now();
+      for (Transcript transcript :
+          lifecycleStore.findTranscriptsDueForRetry(now, properties.getBatchSize())) {
+        if (!retryTranscript(transcript)) {
+          break;
+        }
+      }
+      for (Feedback feedback :
+          lifecycleStore.findFeedbacksDueForRetry(now, properties.getBatchSize())) {
+        if (!retryFeedback(feedback)) {
+          break;
+        }
+      }
+    } catch (RuntimeException e) {
+      log.warn("Retry scan failed, will try again on the next scan", e);
+    }
+  }
+
+  /** Returns {@code false} when the pipeline is full and the scan should stop. */
+  private boolean retryTranscript(Transcript transcript) {
+    if (!lifecycleStore.claimTranscriptForRetry(transcript.getId())) {
+      return true;
+    }
+    if (transcript.getAudioUrl() == null) {
+      log.warn("Transcript {} has no audio url to retry from, dead-lettering", transcript.getId());
+      lifecycleStore.markTranscriptFailed(
+          transcript.getId(), transcript.getAttempts(), null, "No audio url to retry from");
+      return true;
+    }
+
+    transcript.setStatus(TranscriptStatus.PENDING);
+    workLeases.holdTranscript(transcript.getId());
+    if (!recordingPipeline.retryTranscription(transcript)) {
+      lifecycleStore.deferTranscriptRetry(transcript.getId(), nextScan());
+      workLeases.releaseTranscript(transcript.getId());
+      return false;
+    }
+    log.info(
+        "Retrying transcript {} after {} attempts", transcript.getId(), transcript.getAttempts());
+    transcriptRetries.increment();
+    return true;
+  }
+
+  private boolean retryFeedback(Feedback feedback) {
+    Optional<Transcript> transcript =
+        lifecycleStore
+            .findTranscript(feedback.getTranscriptId())
+            .filter(found -> found.getStatus() == TranscriptStatus.COMPLETED);
+    if (!lifecycleStore.claimFeedbackForRetry(feedback.getId())) {
+      return true;
+    }
+    if (transcript.isEmpty()) {
+      log.warn("Transcript of feedback {} is gone, dead-lettering", feedback.getId());
+      lifecycleStore.markFeedbackFailed(
+          feedback.getId(), feedback.getAttempts(), null, "Transcript is no longer available");
+      return true;
+    }
+
+    workLeases.holdFeedback(feedback.getId());
+    if (!recordingPipeline.retryAnalysis(transcript.get())) {
+      lifecycleStore.deferFeedbackRetry(feedback.getId(), nextScan());
+      workLeases.releaseFeedback(feedback.getId());
+      return false;
+    }
+    log.info("Retrying feedback {} after {} attempts", feedback.getId(), feedback.getAttempts());
+    feedbackRetries.increment();
+    return true;
+  }
+
+  private Instant nextScan() {
+    return Instant.now().plus(properties.getScanInterval());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
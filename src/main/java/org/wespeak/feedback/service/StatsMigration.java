@@ -0,0 +1,70 @@
+package org.wespeak.feedback.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.repository.StatsStore;
+
+/**
+ * Moves stats written before score sums and the recent score window existed onto the new layout.
+ *
+ * <p>Runs in the background after startup and does nothing once no legacy stats are left. The
+ * recent score window of legacy stats is seeded from their latest completed feedbacks first, then
+ * their stored averages are folded into the score sums, which marks them migrated. Until then the
+ * averages are still read from the legacy fields, so stats stay right while it runs; several
+ * instances running it at once is harmless.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "app.stats.migration.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class StatsMigration {
+
+  private final StatsStore statsStore;
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "stats-migration");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public StatsMigration(StatsStore statsStore) {
+    this.statsStore = statsStore;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    executor.execute(this::migrate);
+  }
+
+  void migrate() {
+    long startedAt = System.nanoTime();
+    try {
+      if (!statsStore.hasLegacyAverages()) {
+        return;
+      }
+      log.info("Migrating legacy stats to score sums");
+      statsStore.seedRecentScores();
+      long migrated = statsStore.foldLegacyAverages();
+      log.info(
+          "Migrated {} legacy stats in {} ms",
+          migrated,
+          (System.nanoTime() - startedAt) / 1_000_000);
+    } catch (RuntimeException e) {
+      log.error("Stats migration failed, it is retried on the next start", e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -1,89 +1,83 @@
 package org.wespeak.feedback.service;
 
-import java.time.Instant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
-import java.util.*;
-import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.wespeak.feedback.dto.ProgressDataPoint;
 import org.wespeak.feedback.dto.ProgressHistoryResponse;
 import org.wespeak.feedback.dto.UserStatsResponse;
-import org.wespeak.feedback.entity.Feedback;
-import org.wespeak.feedback.entity.UserFeedbackStats;
 import org.wespeak.feedback.exception.ResourceNotFoundException;
-import org.wespeak.feedback.repository.FeedbackRepository;
+import org.wespeak.feedback.repository.DailyProgressRepository;
 import org.wespeak.feedback.repository.UserFeedbackStatsRepository;
 
+/**
+ * Learner stats and progress history for the dashboard.
+ *
+ * <p>Both reads are cached in memory per learner and language, including the absence of stats of
+ * a new learner, which is cached for a shorter time. {@link AnalysisService} evicts a learner's
+ * entries as soon as this instance folds a new feedback into their stats; feedbacks completed by
+ * other instances show up once the entries expire.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class StatsService {
 
+  private static final List<String> PERIODS = List.of("WEEK", "MONTH", "ALL");
+
   private final UserFeedbackStatsRepository statsRepository;
-  private final FeedbackRepository feedbackRepository;
+  private final DailyProgressRepository dailyProgressRepository;
+  private final CommonErrorTracker commonErrorTracker;
+  private final Cache<String, Optional<UserStatsResponse>> statsCache;
+  private final Cache<String, List<ProgressDataPoint>> historyCache;
+
+  public StatsService(
+      UserFeedbackStatsRepository statsRepository,
+      DailyProgressRepository dailyProgressRepository,
+      CommonErrorTracker commonErrorTracker,
+      MeterRegistry meterRegistry,
+      @Value("${app.stats.cache.max-size:10000}") long maxSize,
+      @Value("${app.stats.cache.ttl:PT1M}") Duration ttl,
+      @Value("${app.stats.cache.not-found-ttl:PT10S}") Duration notFoundTtl) {
+    this.statsRepository = statsRepository;
+    this.dailyProgressRepository = dailyProgressRepository;
+    this.commonErrorTracker = commonErrorTracker;
+    this.statsCache =
+        Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new NotFoundExpiry<String, UserStatsResponse>(ttl, notFoundTtl))
+            .recordStats()
+            .build();
+    this.historyCache =
+        Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, statsCache, "stats");
+    CaffeineCacheMetrics.monitor(meterRegistry, historyCache, "stats-history");
+  }
 
   public UserStatsResponse getMyStats(String userId, String languageCode) {
-    UserFeedbackStats stats =
-        statsRepository
-            .findByUserIdAndTargetLanguageCode(userId, languageCode)
-            .orElseThrow(() -> new ResourceNotFoundException("Stats not found for this language"));
-
-    return UserStatsResponse.builder()
-        .userId(stats.getUserId())
-        .targetLanguageCode(stats.getTargetLanguageCode())
-        .totalSessions(stats.getTotalSessions())
-        .totalMinutes(stats.getTotalMinutes())
-        .averageOverallScore(stats.getAverageOverallScore())
-        .averageGrammarScore(stats.getAverageGrammarScore())
-        .averageVocabularyScore(stats.getAverageVocabularyScore())
-        .averageFluencyScore(stats.getAverageFluencyScore())
-        .commonErrors(stats.getCommonErrors())
-        .progressTrend(stats.getProgressTrend())
-        .lastFeedbackAt(stats.getLastFeedbackAt())
-        .build();
+    return statsCache
+        .get(key(userId, languageCode), ignored -> loadStats(userId, languageCode))
+        .orElseThrow(() -> new ResourceNotFoundException("Stats not found for this language"));
   }
 
+  /** Reads the learner's daily rollups of the period: one indexed range, one point per day. */
   public ProgressHistoryResponse getMyHistory(String userId, String languageCode, String period) {
-    Instant cutoffDate = calculateCutoffDate(period);
-
-    List<Feedback> feedbacks =
-        feedbackRepository.findTop5ByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
-            userId, languageCode);
-
-    // Group by date and calculate average scores
-    Map<LocalDate, List<Feedback>> feedbacksByDate =
-        feedbacks.stream()
-            .filter(f -> f.getCreatedAt().isAfter(cutoffDate))
-            .collect(
-                Collectors.groupingBy(
-                    f -> LocalDate.ofInstant(f.getCreatedAt(), ZoneId.systemDefault())));
-
+    String normalizedPeriod = normalize(period);
     List<ProgressDataPoint> dataPoints =
-        feedbacksByDate.entrySet().stream()
-            .map(
-                entry -> {
-                  LocalDate date = entry.getKey();
-                  List<Feedback> dayFeedbacks = entry.getValue();
-
-                  int avgScore =
-                      (int)
-                          dayFeedbacks.stream()
-                              .mapToInt(Feedback::getOverallScore)
-                              .average()
-                              .orElse(0.0);
-
-                  return ProgressDataPoint.builder()
-                      .date(date.toString())
-                      .overallScore(avgScore)
-                      .sessionsCount(dayFeedbacks.size())
-                      .build();
-                })
-            .sorted(Comparator.comparing(ProgressDataPoint::getDate))
-            .collect(Collectors.toList());
+        historyCache.get(
+            key(userId, languageCode) + "|" + normalizedPeriod,
+            ignored -> loadHistory(userId, languageCode, normalizedPeriod));
 
     return ProgressHistoryResponse.builder()
         .userId(userId)
@@ -93,14 +87,97 @@ public class StatsService {
         .build();
   }
 
-  private Instant calculateCutoffDate(String period) {
-    LocalDate now = LocalDate.now();
-    return switch (period != null ? period.toUpperCase() : "MONTH") {
-      case "WEEK" -> now.minus(7, ChronoUnit.DAYS).atStartOfDay(ZoneId.systemDefault()).toInstant();
-      case "MONTH" ->
-          now.minus(30, ChronoUnit.DAYS).atStartOfDay(ZoneId.systemDefault()).toInstant();
-      case "ALL" -> Instant.EPOCH;
-      default -> now.minus(30, ChronoUnit.DAYS).atStartOfDay(ZoneId.systemDefault()).toInstant();
+  /** Drops the cached stats and history of a learner whose stats just changed. */
+  public void evict(String userId, String languageCode) {
+    String key = key(userId, languageCode);
+    statsCache.invalidate(key);
+    for (String period : PERIODS) {
+      historyCache.invalidate(key + "|" + period);
+    }
+  }
+
+  private Optional<UserStatsResponse> loadStats(String userId, String languageCode) {
+    return statsRepository
+        .findByUserIdAndTargetLanguageCode(userId, languageCode)
+        .map(
+            stats ->
+                UserStatsResponse.builder()
+                    .userId(stats.getUserId())
+                    .targetLanguageCode(stats.getTargetLanguageCode())
+                    .totalSessions(stats.getTotalSessions())
+                    .totalMinutes(stats.getTotalMinutes())
+                    .averageOverallScore(stats.getAverageOverallScore())
+                    .averageGrammarScore(stats.getAverageGrammarScore())
+                    .averageVocabularyScore(stats.getAverageVocabularyScore())
+                    .averageFluencyScore(stats.getAverageFluencyScore())
+                    .commonErrors(commonErrorTracker.top(stats.getCommonErrors()))
+                    .progressTrend(stats.getProgressTrend())
+                    .lastFeedbackAt(stats.getLastFeedbackAt())
+                    .build());
+  }
+
+  private List<ProgressDataPoint> loadHistory(String userId, String languageCode, String period) {
+    return dailyProgressRepository
+        .findByUserIdAndTargetLanguageCodeAndDayGreaterThanEqualOrderByDayAsc(
+            userId, languageCode, calculateFirstDay(period))
+        .stream()
+        .filter(day -> day.getSessions() != null && day.getSessions() > 0)
+        .map(
+            day ->
+                ProgressDataPoint.builder()
+                    .date(day.getDay())
+                    .overallScore((int) (day.getOverallScoreSum() / day.getSessions()))
+                    .sessionsCount(day.getSessions())
+                    .minutes(day.getMinutes())
+                    .build())
+        .toList();
+  }
+
+  /** Unknown periods fall back to MONTH. */
+  private static String normalize(String period) {
+    String upperCased = period != null ? period.toUpperCase(Locale.ROOT) : "MONTH";
+    return PERIODS.contains(upperCased) ? upperCased : "MONTH";
+  }
+
+  private static String key(String userId, String languageCode) {
+    return userId + "|" + languageCode;
+  }
+
+  /** First UTC day of the period; rollup days are ISO dates, so every day sorts after "". */
+  private static String calculateFirstDay(String period) {
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    return switch (period) {
+      case "WEEK" -> today.minus(7, ChronoUnit.DAYS).toString();
+      case "ALL" -> "";
+      default -> today.minus(30, ChronoUnit.DAYS).toString();
     };
   }
+
+  /** Keeps found entries for {@code ttl}, and cached absences for the shorter {@code notFound}. */
+  private static final class NotFoundExpiry<K, V> implements Expiry<K, Optional<V>> {
+    private final long ttlNanos;
+    private final long notFoundNanos;
+
+    NotFoundExpiry(Duration ttl, Duration notFound) {
+      this.ttlNanos = ttl.toNanos();
+      this.notFoundNanos = notFound.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+      return value.isPresent() ? ttlNanos : notFoundNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        K key, Optional<V> value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        K key, Optional<V> value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
 }
@@ -1,10 +1,21 @@
 package org.wespeak.feedback.service;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 public interface StorageService {
   InputStream downloadFile(String key);
 
+  /** Downloads the object into {@code target}, replacing its content. */
+  default void downloadToFile(String key, Path target) throws IOException {
+    try (InputStream content = downloadFile(key)) {
+      Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
   String uploadFile(String key, InputStream content, long contentLength, String contentType);
 
   String generatePresignedUrl(String key);
@@ -0,0 +1,55 @@
+package org.wespeak.feedback.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.wespeak.feedback.entity.TranscriptSegment;
+
+/**
+ * Reassembles per-window transcription results into one timeline.
+ *
+ * <p>Segment times are shifted by the window's start offset. A segment is kept only by the window
+ * that owns its midpoint, which removes the copies produced by overlapping hard cuts; an identical
+ * neighbouring segment that still straddles a boundary is dropped as well.
+ */
+final class TranscriptStitcher {
+
+  private TranscriptStitcher() {}
+
+  static List<TranscriptSegment> stitch(
+      List<AudioChunk> chunks, List<List<TranscriptSegment>> segmentsPerChunk) {
+    List<TranscriptSegment> stitched = new ArrayList<>();
+    for (int i = 0; i < chunks.size(); i++) {
+      AudioChunk chunk = chunks.get(i);
+      for (TranscriptSegment segment : segmentsPerChunk.get(i)) {
+        double start = segment.getStartTime() + chunk.getStartSeconds();
+        double end = segment.getEndTime() + chunk.getStartSeconds();
+        double middle = (start + end) / 2;
+        if (middle < chunk.getOwnedStart() || middle >= chunk.getOwnedEnd()) {
+          continue;
+        }
+        TranscriptSegment shifted =
+            TranscriptSegment.builder()
+                .startTime(start)
+                .endTime(end)
+                .text(segment.getText())
+                .confidence(segment.getConfidence())
+                .build();
+        if (!stitched.isEmpty() && isRepeat(stitched.get(stitched.size() - 1), shifted)) {
+          continue;
+        }
+        stitched.add(shifted);
+      }
+    }
+    return stitched;
+  }
+
+  private static boolean isRepeat(TranscriptSegment previous, TranscriptSegment next) {
+    return next.getStartTime() < previous.getEndTime()
+        && normalize(previous.getText()).equals(normalize(next.getText()));
+  }
+
+  private static String normalize(String text) {
+    return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+  }
+}
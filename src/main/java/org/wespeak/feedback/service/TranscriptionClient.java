@@ -0,0 +1,9 @@
+package org.wespeak.feedback.service;
+
+import java.util.List;
+import org.wespeak.feedback.entity.TranscriptSegment;
+
+/** Speech-to-text backend. Segment times are relative to the start of the chunk. */
+public interface TranscriptionClient {
+  List<TranscriptSegment> transcribe(AudioChunk chunk, String languageCode);
+}
@@ -1,26 +1,54 @@
 package org.wespeak.feedback.service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.wespeak.feedback.config.PipelineProperties;
+import org.wespeak.feedback.entity.SubscriptionTier;
 import org.wespeak.feedback.entity.Transcript;
 import org.wespeak.feedback.entity.TranscriptSegment;
 import org.wespeak.feedback.entity.TranscriptStatus;
 import org.wespeak.feedback.event.RecordingUploadedPayload;
-import org.wespeak.feedback.repository.TranscriptRepository;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+import org.wespeak.feedback.exception.QuotaExceededException;
+import org.wespeak.feedback.repository.LifecycleStore;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TranscriptionService {
 
-  private final TranscriptRepository transcriptRepository;
-  private final AnalysisService analysisService;
+  private final LifecycleStore lifecycleStore;
   private final StorageService storageService;
+  private final PipelineProperties pipelineProperties;
+  private final RecentRecordingFilter recentRecordings;
+  private final ChunkedTranscriber chunkedTranscriber;
+  private final RetryPolicy retryPolicy;
+  private final WorkLeases workLeases;
+  private final QuotaService quotaService;
+
+  /**
+   * Creates the PENDING transcript for a recording, unless the recording was already ingested.
+   * Redeliveries are answered from the recent-recordings filter or the unique recordingId index.
+   *
+   * @throws QuotaExceededException if the participant has no recordings left today
+   */
+  public IngestResult ingest(RecordingUploadedPayload payload) {
+    String knownTranscriptId = recentRecordings.find(payload.getRecordingId());
+    if (knownTranscriptId != null) {
+      log.info("Recording {} already ingested, skipping", payload.getRecordingId());
+      return IngestResult.duplicate(knownTranscriptId);
+    }
 
-  public void processRecording(RecordingUploadedPayload payload) {
+    SubscriptionTier tier = SubscriptionTier.from(payload.getSubscriptionTier());
+    QuotaService.Grant quota = quotaService.acquire(payload.getParticipantId(), tier);
     log.info("Processing recording: {}", payload.getRecordingId());
 
     // Create Transcript in PENDING status
@@ -30,82 +58,154 @@ public class TranscriptionService {
             .participantId(payload.getParticipantId())
             .recordingId(payload.getRecordingId())
             .targetLanguageCode(payload.getTargetLanguageCode())
+            .audioUrl(payload.getAudioUrl())
             .duration(payload.getDuration())
+            .subscriptionTier(tier)
             .status(TranscriptStatus.PENDING)
             .build();
 
-    transcript = transcriptRepository.save(transcript);
-    log.info("Created transcript: {}", transcript.getId());
+    Transcript stored;
+    try {
+      stored = lifecycleStore.claimTranscript(transcript);
+    } catch (RuntimeException e) {
+      quotaService.refund(quota);
+      throw e;
+    }
+    recentRecordings.remember(payload.getRecordingId(), stored.getId());
+
+    if (!stored.getId().equals(transcript.getId())) {
+      quotaService.refund(quota);
+      log.info(
+          "Recording {} already owned by transcript: {}", payload.getRecordingId(), stored.getId());
+      return IngestResult.duplicate(stored.getId());
+    }
+    log.info("Created transcript: {}", stored.getId());
+    workLeases.holdTranscript(stored.getId());
+    return IngestResult.created(stored, quota);
+  }
 
-    // Start transcription (async simulation)
-    transcribeAudio(transcript, payload.getAudioUrl());
+  /**
+   * Drops a transcript that was never scheduled, so the recording can be ingested again, and gives
+   * its quota back to the day it was counted on.
+   */
+  public void release(IngestResult ingested) {
+    Transcript transcript = ingested.getTranscript();
+    recentRecordings.forget(transcript.getRecordingId());
+    lifecycleStore.releaseTranscript(transcript.getId());
+    workLeases.releaseTranscript(transcript.getId());
+    quotaService.refund(ingested.getQuota());
   }
 
-  private void transcribeAudio(Transcript transcript, String audioUrl) {
+  /**
+   * Downloads the recording into the spool directory, or returns empty if the download failed.
+   *
+   * @throws DependencyUnavailableException if a dependency is unhealthy; the transcript is left
+   *     as is so the download can be retried later
+   */
+  public Optional<Path> downloadAudio(Transcript transcript, String audioUrl) {
     try {
-      log.info("Starting transcription for transcript: {}", transcript.getId());
-      transcript.setStatus(TranscriptStatus.PROCESSING);
-      transcriptRepository.save(transcript);
-
-      // STUBBED: In production, this would:
-      // 1. Download audio from R2
-      try (var audioStream = storageService.downloadFile(audioUrl)) {
-        log.info("Downloaded audio file for transcript: {}", transcript.getId());
-        // 2. Call Whisper API with the audio stream
-        // whisperClient.transcribe(audioStream);
+      // A retried download already moved the transcript to PROCESSING
+      if (transcript.getStatus() == TranscriptStatus.PENDING) {
+        if (!lifecycleStore.markTranscriptProcessing(transcript.getId())) {
+          log.warn("Transcript {} is no longer PENDING, skipping", transcript.getId());
+          workLeases.releaseTranscript(transcript.getId());
+          return Optional.empty();
+        }
+        log.info("Starting transcription for transcript: {}", transcript.getId());
+        transcript.setStatus(TranscriptStatus.PROCESSING);
       }
 
-      // 3. Parse response
-
-      // For now, create a mock transcription
-      String mockContent =
-          "Hello, how are you today? I am learning English and practicing my conversation skills. "
-              + "Yesterday I go to the park and I see many peoples. It was very nice weather.";
-
-      List<TranscriptSegment> mockSegments =
-          List.of(
-              TranscriptSegment.builder()
-                  .startTime(0.0)
-                  .endTime(3.5)
-                  .text("Hello, how are you today?")
-                  .confidence(0.95)
-                  .build(),
-              TranscriptSegment.builder()
-                  .startTime(3.8)
-                  .endTime(8.2)
-                  .text("I am learning English and practicing my conversation skills.")
-                  .confidence(0.92)
-                  .build(),
-              TranscriptSegment.builder()
-                  .startTime(8.5)
-                  .endTime(12.8)
-                  .text("Yesterday I go to the park and I see many peoples.")
-                  .confidence(0.88)
-                  .build(),
-              TranscriptSegment.builder()
-                  .startTime(13.0)
-                  .endTime(15.5)
-                  .text("It was very nice weather.")
-                  .confidence(0.94)
-                  .build());
-
-      transcript.setContent(mockContent);
-      transcript.setSegments(mockSegments);
-      transcript.setWordCount(mockContent.split("\\s+").length);
-      transcript.setConfidence(0.92);
+      Path spoolFile =
+          Files.createTempFile(
+              Path.of(pipelineProperties.getSpoolDir()),
+              "recording-" + transcript.getId(),
+              extensionOf(audioUrl));
+      try {
+        storageService.downloadToFile(audioUrl, spoolFile);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(spoolFile);
+        throw e;
+      }
+      log.info("Downloaded audio file for transcript: {}", transcript.getId());
+      return Optional.of(spoolFile);
+
+    } catch (DependencyUnavailableException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Download failed for transcript: {}", transcript.getId(), e);
+      markFailed(transcript, RetryPolicy.describe(e));
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Transcribes the spooled audio, or returns empty if the transcription failed.
+   *
+   * @throws DependencyUnavailableException if a dependency is unhealthy; the spool file is kept so
+   *     the transcription can be retried later
+   */
+  public Optional<Transcript> transcribe(Transcript transcript, Path audioFile) {
+    try {
+      List<TranscriptSegment> segments =
+          chunkedTranscriber.transcribe(audioFile, transcript.getTargetLanguageCode());
+      String content =
+          segments.stream().map(TranscriptSegment::getText).collect(Collectors.joining(" "));
+
+      transcript.setContent(content);
+      transcript.setSegments(segments);
+      transcript.setWordCount(content.isBlank() ? 0 : content.split("\\s+").length);
+      transcript.setConfidence(averageConfidence(segments));
       transcript.setStatus(TranscriptStatus.COMPLETED);
       transcript.setCompletedAt(Instant.now());
 
-      transcript = transcriptRepository.save(transcript);
+      boolean completed = lifecycleStore.completeTranscript(transcript);
+      workLeases.releaseTranscript(transcript.getId());
+      if (!completed) {
+        log.warn("Transcript {} is no longer ours, dropping result", transcript.getId());
+        return Optional.empty();
+      }
       log.info("Transcription completed for transcript: {}", transcript.getId());
+      return Optional.of(transcript);
 
-      // Trigger AI analysis
-      analysisService.analyzeTranscript(transcript);
-
+    } catch (DependencyUnavailableException e) {
+      throw e;
     } catch (Exception e) {
       log.error("Transcription failed for transcript: {}", transcript.getId(), e);
-      transcript.setStatus(TranscriptStatus.FAILED);
-      transcriptRepository.save(transcript);
+      markFailed(transcript, RetryPolicy.describe(e));
+      return Optional.empty();
+    }
+  }
+
+  /** Duration-weighted confidence of the segments. */
+  private static double averageConfidence(List<TranscriptSegment> segments) {
+    double weighted = 0;
+    double duration = 0;
+    for (TranscriptSegment segment : segments) {
+      double length = Math.max(0, segment.getEndTime() - segment.getStartTime());
+      weighted += segment.getConfidence() * length;
+      duration += length;
+    }
+    return duration > 0 ? weighted / duration : 0.0;
+  }
+
+  /** Keeps the recording's extension on the spool file; the transcription API relies on it. */
+  private static String extensionOf(String audioUrl) {
+    int dot = audioUrl.lastIndexOf('.');
+    String extension = dot < 0 ? "" : audioUrl.substring(dot);
+    return extension.matches("\\.[A-Za-z0-9]{1,5}") ? extension : ".audio";
+  }
+
+  /** Records a failed attempt; the transcript is retried later unless its retries ran out. */
+  public void markFailed(Transcript transcript, String error) {
+    int attempts = transcript.getAttempts() + 1;
+    boolean exhausted = retryPolicy.isExhausted(attempts);
+    Instant nextAttemptAt = exhausted ? null : retryPolicy.nextAttemptAt(attempts);
+    transcript.setAttempts(attempts);
+    transcript.setStatus(exhausted ? TranscriptStatus.DEAD_LETTER : TranscriptStatus.FAILED);
+    lifecycleStore.markTranscriptFailed(transcript.getId(), attempts, nextAttemptAt, error);
+    workLeases.releaseTranscript(transcript.getId());
+    if (exhausted) {
+      log.error("Transcript {} dead-lettered after {} attempts", transcript.getId(), attempts);
     }
   }
 }
@@ -0,0 +1,24 @@
+package org.wespeak.feedback.service;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/** HTTP client settings shared by the clients of external APIs. */
+final class UpstreamHttp {
+
+  private UpstreamHttp() {}
+
+  /**
+   * Returns a request factory that gives up on connecting after {@code connectTimeout} and on a
+   * response after {@code readTimeout}. Keep the read timeout below the dependency's slow-call
+   * threshold so a hung call is failed and counted before it would hold a bulkhead slot longer.
+   */
+  static ClientHttpRequestFactory requestFactory(Duration connectTimeout, Duration readTimeout) {
+    HttpClient httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    requestFactory.setReadTimeout(readTimeout);
+    return requestFactory;
+  }
+}
@@ -0,0 +1,26 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.UpstreamLimitProperties;
+
+/** One adaptive concurrency limit per external API, shared by every caller of that API. */
+@Component
+public class UpstreamLimiters {
+
+  private final AdaptiveLimiter whisper;
+  private final AdaptiveLimiter llm;
+
+  public UpstreamLimiters(UpstreamLimitProperties properties, MeterRegistry meterRegistry) {
+    this.whisper = new AdaptiveLimiter("whisper", properties.getWhisper(), meterRegistry);
+    this.llm = new AdaptiveLimiter("llm", properties.getLlm(), meterRegistry);
+  }
+
+  public AdaptiveLimiter whisper() {
+    return whisper;
+  }
+
+  public AdaptiveLimiter llm() {
+    return llm;
+  }
+}
@@ -0,0 +1,101 @@
+package org.wespeak.feedback.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
+import java.util.List;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+import org.wespeak.feedback.entity.TranscriptSegment;
+
+/** Transcribes chunks through the OpenAI-compatible Whisper endpoint at app.whisper.api-url. */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.whisper.mock-enabled", havingValue = "false")
+public class WhisperTranscriptionClient implements TranscriptionClient {
+
+  private final RestClient restClient;
+  private final AdaptiveLimiter limiter;
+  private final DependencyGuard guard;
+  private final String model;
+
+  public WhisperTranscriptionClient(
+      UpstreamLimiters upstreamLimiters,
+      DependencyGuards dependencyGuards,
+      @Value("${app.whisper.api-url}") String apiUrl,
+      @Value("${app.whisper.api-key}") String apiKey,
+      @Value("${app.whisper.model:whisper-1}") String model,
+      @Value("${app.whisper.connect-timeout:PT5S}") Duration connectTimeout,
+      @Value("${app.whisper.read-timeout:PT150S}") Duration readTimeout) {
+    this.restClient =
+        RestClient.builder()
+            .baseUrl(apiUrl)
+            .requestFactory(UpstreamHttp.requestFactory(connectTimeout, readTimeout))
+            .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+            .build();
+    this.limiter = upstreamLimiters.whisper();
+    this.guard = dependencyGuards.transcription();
+    this.model = model;
+  }
+
+  @Override
+  public List<TranscriptSegment> transcribe(AudioChunk chunk, String languageCode) {
+    MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+    form.add("file", chunk.getAudio());
+    form.add("model", model);
+    form.add("language", languageCode);
+    form.add("response_format", "verbose_json");
+
+    // Guard each attempt, so limiter queueing and Retry-After pauses hold no bulkhead slot
+    WhisperResponse response =
+        limiter.call(
+            () ->
+                guard.call(
+                    () ->
+                        restClient
+                            .post()
+                            .contentType(MediaType.MULTIPART_FORM_DATA)
+                            .body(form)
+                            .retrieve()
+                            .body(WhisperResponse.class)));
+
+    if (response == null || response.getSegments() == null) {
+      return List.of();
+    }
+    return response.getSegments().stream()
+        .map(
+            segment ->
+                TranscriptSegment.builder()
+                    .startTime(segment.getStart())
+                    .endTime(segment.getEnd())
+                    .text(segment.getText().trim())
+                    .confidence(Math.exp(segment.getAvgLogprob()))
+                    .build())
+        .toList();
+  }
+
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  static class WhisperResponse {
+    private List<WhisperSegment> segments;
+  }
+
+  @Data
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  static class WhisperSegment {
+    private double start;
+    private double end;
+    private String text;
+
+    @JsonProperty("avg_logprob")
+    private double avgLogprob;
+  }
+}
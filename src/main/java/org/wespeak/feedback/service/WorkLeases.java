@@ -0,0 +1,103 @@
+package org.wespeak.feedback.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.wespeak.feedback.config.LeaseProperties;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+/**
+ * The transcripts and feedbacks this instance holds a lease on, renewed in the background.
+ *
+ * <p>Work is held from the moment it is claimed until its result or failure is written, which may
+ * span several pipeline stages and time spent waiting in their queues or in the retry queue. All
+ * held leases of a kind are renewed with a single update per interval. Work held longer than
+ * {@code app.lease.max-hold} is no longer renewed, so nothing lost inside this instance stays
+ * claimed forever.
+ */
+@Slf4j
+@Component
+public class WorkLeases {
+
+  private final LifecycleStore lifecycleStore;
+  private final LeaseProperties properties;
+  private final ScheduledExecutorService scheduler;
+  private final Map<String, Instant> transcripts = new ConcurrentHashMap<>();
+  private final Map<String, Instant> feedbacks = new ConcurrentHashMap<>();
+
+  public WorkLeases(
+      LifecycleStore lifecycleStore, LeaseProperties properties, MeterRegistry meterRegistry) {
+    this.lifecycleStore = lifecycleStore;
+    this.properties = properties;
+    Gauge.builder("pipeline.leases.held", transcripts, Map::size)
+        .tag("kind", "transcript")
+        .register(meterRegistry);
+    Gauge.builder("pipeline.leases.held", feedbacks, Map::size)
+        .tag("kind", "feedback")
+        .register(meterRegistry);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "lease-renewal");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long intervalMillis = properties.getRenewInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(
+        this::renew, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public void holdTranscript(String transcriptId) {
+    transcripts.putIfAbsent(transcriptId, Instant.now());
+  }
+
+  public void releaseTranscript(String transcriptId) {
+    transcripts.remove(transcriptId);
+  }
+
+  public void holdFeedback(String feedbackId) {
+    feedbacks.putIfAbsent(feedbackId, Instant.now());
+  }
+
+  public void releaseFeedback(String feedbackId) {
+    feedbacks.remove(feedbackId);
+  }
+
+  void renew() {
+    try {
+      lifecycleStore.renewTranscriptLeases(renewable(transcripts, "transcript"));
+      lifecycleStore.renewFeedbackLeases(renewable(feedbacks, "feedback"));
+    } catch (RuntimeException e) {
+      // Leases are long enough to survive a missed renewal; the next run tries again
+      log.warn("Lease renewal failed", e);
+    }
+  }
+
+  private List<String> renewable(Map<String, Instant> held, String kind) {
+    Instant oldest = Instant.now().minus(properties.getMaxHold());
+    held.entrySet()
+        .removeIf(
+            entry -> {
+              boolean stale = entry.getValue().isBefore(oldest);
+              if (stale) {
+                log.warn("Giving up lease on {} {} held too long", kind, entry.getKey());
+              }
+              return stale;
+            });
+    return List.copyOf(held.keySet());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
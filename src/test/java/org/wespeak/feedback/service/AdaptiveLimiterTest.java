@@ -0,0 +1,145 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.wespeak.feedback.config.UpstreamLimitProperties;
+
+class AdaptiveLimiterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void shouldGrowLimitWhileFastCallsUseIt() {
+    // Given
+    AdaptiveLimiter limiter = limiter(1, Duration.ofMinutes(1));
+
+    // When
+    String result = limiter.call(() -> "ok");
+
+    // Then
+    assertThat(result).isEqualTo("ok");
+    assertThat(limiter.getLimit()).isEqualTo(2.0);
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  @Test
+  void shouldShrinkLimitOnSlowResponses() {
+    // Given
+    AdaptiveLimiter limiter = limiter(4, Duration.ZERO);
+
+    // When
+    limiter.call(
+        () -> {
+          sleep(5);
+          return "ok";
+        });
+
+    // Then
+    assertThat(limiter.getLimit()).isCloseTo(3.6, within(1e-9));
+  }
+
+  @Test
+  void shouldHalveLimitAndRetryWhenThrottled() {
+    // Given
+    AdaptiveLimiter limiter = limiter(4, Duration.ofMinutes(1));
+    AtomicInteger attempts = new AtomicInteger();
+
+    // When
+    String result =
+        limiter.call(
+            () -> {
+              if (attempts.incrementAndGet() == 1) {
+                throw tooManyRequests("0");
+              }
+              return "ok";
+            });
+
+    // Then
+    assertThat(result).isEqualTo("ok");
+    assertThat(attempts).hasValue(2);
+    assertThat(limiter.getLimit()).isEqualTo(2.0);
+    assertThat(meterRegistry.get("upstream.throttled").counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldGiveUpAfterMaxAttempts() {
+    // Given
+    AdaptiveLimiter limiter = limiter(4, Duration.ofMinutes(1));
+
+    // When / Then
+    assertThatThrownBy(
+            () ->
+                limiter.call(
+                    () -> {
+                      throw tooManyRequests("0");
+                    }))
+        .isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(limiter.getLimit()).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldReleasePermitOnOtherErrors() {
+    // Given
+    AdaptiveLimiter limiter = limiter(4, Duration.ofMinutes(1));
+
+    // When / Then
+    assertThatThrownBy(
+            () ->
+                limiter.call(
+                    () -> {
+                      throw new IllegalStateException("boom");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(limiter.getLimit()).isEqualTo(4.0);
+  }
+
+  @Test
+  void shouldReadRetryAfterSecondsOrBackOff() {
+    // Given
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, "3");
+
+    // When / Then
+    assertThat(AdaptiveLimiter.retryAfter(headers, 1)).isEqualTo(Duration.ofSeconds(3));
+    assertThat(AdaptiveLimiter.retryAfter(new HttpHeaders(), 1)).isEqualTo(Duration.ofMillis(500));
+    assertThat(AdaptiveLimiter.retryAfter(new HttpHeaders(), 3)).isEqualTo(Duration.ofSeconds(2));
+  }
+
+  private AdaptiveLimiter limiter(int initialLimit, Duration latencyThreshold) {
+    return new AdaptiveLimiter(
+        "test",
+        new UpstreamLimitProperties.Limit(initialLimit, 1, 8, latencyThreshold, 0.9, 3),
+        meterRegistry);
+  }
+
+  private static HttpClientErrorException tooManyRequests(String retryAfter) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+    return HttpClientErrorException.create(
+        HttpStatus.TOO_MANY_REQUESTS,
+        "Too Many Requests",
+        headers,
+        new byte[0],
+        StandardCharsets.UTF_8);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wespeak.feedback.config.AnalysisBatchProperties;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+
+class AnalysisBatcherTest {
+
+  private static final AnalysisResult RESULT =
+      AnalysisResult.builder().grammarScore(70).summary("ok").build();
+
+  private AnalysisClient analysisClient;
+  private AnalysisBatchProperties properties;
+  private AnalysisBatcher analysisBatcher;
+
+  @BeforeEach
+  void setUp() {
+    analysisClient = mock(AnalysisClient.class);
+    properties = new AnalysisBatchProperties();
+    properties.setMaxItems(3);
+    properties.setLinger(Duration.ofSeconds(30));
+    analysisBatcher = new AnalysisBatcher(analysisClient, properties, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    analysisBatcher.shutdown();
+  }
+
+  @Test
+  void shouldSendFullBatchInOneRequest() {
+    // Given
+    when(analysisClient.analyze(anyList()))
+        .thenReturn(Map.of("t1", RESULT, "t2", RESULT, "t3", RESULT));
+
+    // When
+    List<CompletableFuture<AnalysisResult>> results =
+        List.of(
+            analysisBatcher.submit(request("t1")),
+            analysisBatcher.submit(request("t2")),
+            analysisBatcher.submit(request("t3")));
+
+    // Then
+    results.forEach(result -> assertThat(result.join()).isEqualTo(RESULT));
+    verify(analysisClient).analyze(List.of(request("t1"), request("t2"), request("t3")));
+  }
+
+  @Test
+  void shouldSendPartialBatchWhenLingerExpires() {
+    // Given
+    properties.setLinger(Duration.ofMillis(20));
+    when(analysisClient.analyze(anyList())).thenReturn(Map.of("t1", RESULT));
+
+    // When
+    AnalysisResult result = analysisBatcher.submit(request("t1")).join();
+
+    // Then
+    assertThat(result).isEqualTo(RESULT);
+    verify(analysisClient).analyze(List.of(request("t1")));
+  }
+
+  @Test
+  void shouldStartNewBatchBeforeExceedingTokenBudget() {
+    // Given
+    properties.setMaxTokens(request("t1").estimatedTokens() + 1);
+    when(analysisClient.analyze(anyList())).thenReturn(Map.of("t1", RESULT, "t2", RESULT));
+
+    // When
+    CompletableFuture<AnalysisResult> first = analysisBatcher.submit(request("t1"));
+    CompletableFuture<AnalysisResult> second = analysisBatcher.submit(request("t2"));
+
+    // Then
+    assertThat(first.join()).isEqualTo(RESULT);
+    verify(analysisClient).analyze(List.of(request("t1")));
+    second.cancel(false);
+  }
+
+  @Test
+  void shouldIsolateFailingTranscriptWhenBatchFails() {
+    // Given
+    when(analysisClient.analyze(anyList()))
+        .thenAnswer(
+            invocation -> {
+              List<AnalysisRequest> batch = invocation.getArgument(0);
+              if (batch.stream().anyMatch(request -> request.getId().equals("bad"))) {
+                throw new MalformedAnalysisException("Malformed JSON");
+              }
+              return Map.of(batch.get(0).getId(), RESULT);
+            });
+
+    // When
+    CompletableFuture<AnalysisResult> first = analysisBatcher.submit(request("t1"));
+    CompletableFuture<AnalysisResult> bad = analysisBatcher.submit(request("bad"));
+    CompletableFuture<AnalysisResult> last = analysisBatcher.submit(request("t3"));
+
+    // Then
+    assertThat(first.join()).isEqualTo(RESULT);
+    assertThat(last.join()).isEqualTo(RESULT);
+    assertThatThrownBy(bad::join)
+        .isInstanceOf(CompletionException.class)
+        .hasCauseInstanceOf(MalformedAnalysisException.class);
+    verify(analysisClient, times(4)).analyze(anyList());
+  }
+
+  @Test
+  void shouldFailWholeBatchWithoutSplittingWhenDependencyIsUnavailable() {
+    // Given
+    when(analysisClient.analyze(anyList()))
+        .thenThrow(new DependencyUnavailableException("llm", Duration.ofSeconds(5), "open"));
+
+    // When
+    List<CompletableFuture<AnalysisResult>> results =
+        List.of(
+            analysisBatcher.submit(request("t1")),
+            analysisBatcher.submit(request("t2")),
+            analysisBatcher.submit(request("t3")));
+
+    // Then
+    results.forEach(
+        result ->
+            assertThatThrownBy(result::join)
+                .hasCauseInstanceOf(DependencyUnavailableException.class));
+    verify(analysisClient, times(1)).analyze(anyList());
+  }
+
+  @Test
+  void shouldFailOnlyTranscriptsMissingFromAnswer() {
+    // Given
+    when(analysisClient.analyze(anyList())).thenReturn(Map.of("t1", RESULT, "t3", RESULT));
+
+    // When
+    CompletableFuture<AnalysisResult> first = analysisBatcher.submit(request("t1"));
+    CompletableFuture<AnalysisResult> missing = analysisBatcher.submit(request("t2"));
+    CompletableFuture<AnalysisResult> last = analysisBatcher.submit(request("t3"));
+
+    // Then
+    assertThat(first.join()).isEqualTo(RESULT);
+    assertThat(last.join()).isEqualTo(RESULT);
+    assertThatThrownBy(missing::join).hasMessageContaining("No analysis returned for t2");
+  }
+
+  private static AnalysisRequest request(String id) {
+    return AnalysisRequest.builder()
+        .id(id)
+        .languageCode("en")
+        .content("I go to the park yesterday.")
+        .durationSeconds(60)
+        .build();
+  }
+}
@@ -0,0 +1,168 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.wespeak.feedback.config.ResilienceProperties;
+import org.wespeak.feedback.entity.AnalysisCacheEntry;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.TranscriptSegment;
+import org.wespeak.feedback.repository.AnalysisCacheRepository;
+
+class AnalysisCacheTest {
+
+  private static final AnalysisResult RESULT =
+      AnalysisResult.builder()
+          .grammarScore(68)
+          .vocabularyScore(75)
+          .fluencyScore(78)
+          .pronunciationScore(70)
+          .errors(List.of())
+          .strengths(List.of("Bonne fluidité"))
+          .improvements(List.of("Revoir le passé"))
+          .summary("Bon travail !")
+          .build();
+
+  private AnalysisCacheRepository repository;
+  private SimpleMeterRegistry meterRegistry;
+  private AnalysisCache analysisCache;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(AnalysisCacheRepository.class);
+    AnalysisClient analysisClient = mock(AnalysisClient.class);
+    when(analysisClient.modelVersion()).thenReturn("model-a");
+    meterRegistry = new SimpleMeterRegistry();
+    analysisCache =
+        new AnalysisCache(
+            repository,
+            analysisClient,
+            new DependencyGuards(new ResilienceProperties(), meterRegistry),
+            meterRegistry,
+            100,
+            Duration.ofHours(1),
+            true);
+  }
+
+  @Test
+  void shouldShareKeyAcrossCaseAndWhitespaceDifferences() {
+    // Given
+    Transcript first = transcript("en", "Hello, how are you?", "I go  yesterday.");
+    Transcript second = transcript("en", "hello, HOW are you? ", "I go yesterday.");
+
+    // When / Then
+    assertThat(analysisCache.keyFor(first)).isEqualTo(analysisCache.keyFor(second));
+  }
+
+  @Test
+  void shouldSeparateKeysByLanguageAndSegmentation() {
+    // Given
+    Transcript english = transcript("en", "Hello", "world");
+    Transcript german = transcript("de", "Hello", "world");
+    Transcript merged = transcript("en", "Hello world");
+
+    // When / Then
+    assertThat(analysisCache.keyFor(english)).isNotEqualTo(analysisCache.keyFor(german));
+    assertThat(analysisCache.keyFor(english)).isNotEqualTo(analysisCache.keyFor(merged));
+  }
+
+  @Test
+  void shouldServeStoredResultFromMemoryWithoutMongo() {
+    // Given
+    analysisCache.put("key-1", "en", RESULT, Duration.ofSeconds(4));
+
+    // When
+    Optional<AnalysisResult> cached = analysisCache.find("key-1");
+
+    // Then
+    assertThat(cached).contains(RESULT);
+    verify(repository).save(any(AnalysisCacheEntry.class));
+    verify(repository, never()).findById(anyString());
+    assertThat(meterRegistry.get("analysis.cache.saved.latency").counter().count())
+        .isEqualTo(4.0);
+  }
+
+  @Test
+  void shouldFallBackToMongoTier() {
+    // Given
+    when(repository.findById("key-2"))
+        .thenReturn(
+            Optional.of(
+                AnalysisCacheEntry.builder()
+                    .key("key-2")
+                    .grammarScore(68)
+                    .vocabularyScore(75)
+                    .fluencyScore(78)
+                    .pronunciationScore(70)
+                    .errors(List.of())
+                    .strengths(List.of("Bonne fluidité"))
+                    .improvements(List.of("Revoir le passé"))
+                    .summary("Bon travail !")
+                    .build()));
+
+    // When
+    Optional<AnalysisResult> first = analysisCache.find("key-2");
+    Optional<AnalysisResult> second = analysisCache.find("key-2");
+
+    // Then
+    assertThat(first).contains(RESULT);
+    assertThat(second).contains(RESULT);
+    verify(repository, times(1)).findById("key-2");
+    assertThat(meterRegistry.get("analysis.cache.hit.ratio").gauge().value()).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldTreatMongoFailureAsMiss() {
+    // Given
+    when(repository.findById("key-3"))
+        .thenThrow(new DataAccessResourceFailureException("Mongo unavailable"));
+
+    // When
+    Optional<AnalysisResult> cached = analysisCache.find("key-3");
+
+    // Then
+    assertThat(cached).isEmpty();
+    assertThat(meterRegistry.get("analysis.cache.hit.ratio").gauge().value()).isEqualTo(0.0);
+  }
+
+  @Test
+  void shouldSkipMongoTierWhileMongoGuardIsOpen() {
+    // Given
+    when(repository.findById(anyString()))
+        .thenThrow(new DataAccessResourceFailureException("Mongo unavailable"));
+    int minimumCalls = new ResilienceProperties().getMongo().getMinimumCalls();
+    for (int i = 0; i < minimumCalls; i++) {
+      analysisCache.find("failing-" + i);
+    }
+
+    // When
+    Optional<AnalysisResult> cached = analysisCache.find("key-4");
+    analysisCache.put("key-4", "en", RESULT, Duration.ofSeconds(4));
+
+    // Then
+    assertThat(cached).isEmpty();
+    verify(repository, times(minimumCalls)).findById(anyString());
+    verify(repository, never()).save(any(AnalysisCacheEntry.class));
+    assertThat(analysisCache.find("key-4")).contains(RESULT);
+  }
+
+  private static Transcript transcript(String languageCode, String... texts) {
+    return Transcript.builder()
+        .targetLanguageCode(languageCode)
+        .segments(
+            Arrays.stream(texts)
+                .map(text -> TranscriptSegment.builder().text(text).build())
+                .toList())
+        .build();
+  }
+}
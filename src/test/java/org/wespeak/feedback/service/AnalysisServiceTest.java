@@ -1,26 +1,46 @@
 package org.wespeak.feedback.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.wespeak.feedback.config.RetryProperties;
 import org.wespeak.feedback.entity.*;
-import org.wespeak.feedback.repository.FeedbackRepository;
-import org.wespeak.feedback.repository.UserFeedbackStatsRepository;
+import org.wespeak.feedback.repository.LifecycleStore;
+import org.wespeak.feedback.repository.StatsStore;
 
 @ExtendWith(MockitoExtension.class)
 class AnalysisServiceTest {
 
-  @Mock private FeedbackRepository feedbackRepository;
+  @Mock private StatsStore statsStore;
 
-  @Mock private UserFeedbackStatsRepository statsRepository;
+  @Mock private CommonErrorTracker commonErrorTracker;
+
+  @Mock private StatsService statsService;
+
+  @Mock private LifecycleStore lifecycleStore;
+
+  @Mock private AnalysisBatcher analysisBatcher;
+
+  @Mock private AnalysisCache analysisCache;
+
+  @Mock private OutboxRelay outboxRelay;
+
+  @Mock private WorkLeases workLeases;
+
+  @Spy private RetryPolicy retryPolicy = new RetryPolicy(new RetryProperties());
 
   @InjectMocks private AnalysisService analysisService;
 
@@ -62,23 +82,156 @@ class AnalysisServiceTest {
             .userId(testTranscript.getParticipantId())
             .sessionId(testTranscript.getSessionId())
             .targetLanguageCode(testTranscript.getTargetLanguageCode())
-            .status(FeedbackStatus.PENDING)
+            .status(FeedbackStatus.PROCESSING)
             .build();
 
-    when(feedbackRepository.save(any(Feedback.class))).thenReturn(savedFeedback);
-    when(feedbackRepository.findTop5ByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
-            anyString(), anyString()))
-        .thenReturn(List.of());
-    when(statsRepository.findByUserIdAndTargetLanguageCode(anyString(), anyString()))
-        .thenReturn(java.util.Optional.empty());
-    when(statsRepository.save(any(UserFeedbackStats.class)))
-        .thenReturn(UserFeedbackStats.builder().build());
+    when(lifecycleStore.claimFeedback(any(Feedback.class))).thenReturn(savedFeedback);
+    when(lifecycleStore.takeOverFeedback("fb-123")).thenReturn(Optional.of(savedFeedback));
+    when(analysisBatcher.submit(any(AnalysisRequest.class)))
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                AnalysisResult.builder()
+                    .grammarScore(68)
+                    .vocabularyScore(75)
+                    .fluencyScore(78)
+                    .pronunciationScore(70)
+                    .errors(List.of())
+                    .strengths(List.of("Bonne fluidité"))
+                    .improvements(List.of("Revoir le passé"))
+                    .summary("Bon travail !")
+                    .build()));
+    when(lifecycleStore.completeFeedback(any(Feedback.class), anyList())).thenReturn(true);
+
+    // When
+    Optional<Feedback> feedback = analysisService.analyzeTranscript(testTranscript);
+    feedback.ifPresent(completed -> analysisService.recordStats(completed, testTranscript));
+
+    // Then
+    assertThat(feedback).isPresent();
+    verify(lifecycleStore).claimFeedback(any(Feedback.class));
+    ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+    verify(lifecycleStore).completeFeedback(eq(savedFeedback), events.capture());
+    assertThat(events.getValue())
+        .extracting(OutboxEvent::getEventType)
+        .containsExactly("feedback.generated", "xp.awarded");
+    assertThat(events.getValue()).allMatch(event -> "user-789".equals(event.getAggregateKey()));
+    verify(outboxRelay).signal();
+    assertThat(feedback.get().getOverallScore()).isEqualTo(72);
+    verify(statsStore).recordFeedback(feedback.get(), 120);
+    verify(statsStore).recordDailyProgress(feedback.get(), 120);
+    verify(commonErrorTracker).record(feedback.get());
+    verify(statsService).evict("user-789", "en");
+  }
+
+  @Test
+  void shouldReuseCachedAnalysisWithoutCallingModel() {
+    // Given
+    Feedback savedFeedback =
+        Feedback.builder().id("fb-123").status(FeedbackStatus.PROCESSING).build();
+    when(lifecycleStore.claimFeedback(any(Feedback.class))).thenReturn(savedFeedback);
+    when(lifecycleStore.takeOverFeedback("fb-123")).thenReturn(Optional.of(savedFeedback));
+    when(lifecycleStore.completeFeedback(any(Feedback.class), anyList())).thenReturn(true);
+    when(analysisCache.keyFor(testTranscript)).thenReturn("cache-key");
+    when(analysisCache.find("cache-key"))
+        .thenReturn(
+            Optional.of(
+                AnalysisResult.builder()
+                    .grammarScore(80)
+                    .vocabularyScore(80)
+                    .fluencyScore(80)
+                    .pronunciationScore(80)
+                    .summary("Très bien")
+                    .build()));
+
+    // When
+    Optional<Feedback> feedback = analysisService.analyzeTranscript(testTranscript);
+
+    // Then
+    assertThat(feedback).isPresent();
+    assertThat(feedback.get().getSummary()).isEqualTo("Très bien");
+    verifyNoInteractions(analysisBatcher);
+    verify(analysisCache, never()).put(any(), any(), any(), any());
+  }
+
+  @Test
+  void shouldAwardImprovementXpAgainstTheLatestRecentScore() {
+    // Given
+    Feedback savedFeedback =
+        Feedback.builder().id("fb-123").status(FeedbackStatus.PROCESSING).build();
+    when(lifecycleStore.claimFeedback(any(Feedback.class))).thenReturn(savedFeedback);
+    when(lifecycleStore.takeOverFeedback("fb-123")).thenReturn(Optional.of(savedFeedback));
+    when(lifecycleStore.completeFeedback(any(Feedback.class), anyList())).thenReturn(true);
+    when(analysisCache.keyFor(testTranscript)).thenReturn("cache-key");
+    when(analysisCache.find("cache-key"))
+        .thenReturn(
+            Optional.of(
+                AnalysisResult.builder()
+                    .grammarScore(80)
+                    .vocabularyScore(80)
+                    .fluencyScore(80)
+                    .pronunciationScore(80)
+                    .build()));
+    when(statsStore.recentScores("user-789", "en")).thenReturn(List.of(70, 90));
+
+    // When
+    Optional<Feedback> feedback = analysisService.analyzeTranscript(testTranscript);
+
+    // Then
+    assertThat(feedback).isPresent();
+    assertThat(feedback.get().getXpAwarded()).isEqualTo(30);
+  }
+
+  @Test
+  void shouldMarkFeedbackFailedWhenItsAnalysisFails() {
+    // Given
+    Feedback savedFeedback =
+        Feedback.builder().id("fb-123").status(FeedbackStatus.PROCESSING).build();
+    when(lifecycleStore.claimFeedback(any(Feedback.class))).thenReturn(savedFeedback);
+    when(lifecycleStore.takeOverFeedback("fb-123")).thenReturn(Optional.of(savedFeedback));
+    when(analysisBatcher.submit(any(AnalysisRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("No analysis")));
+
+    // When
+    Optional<Feedback> feedback = analysisService.analyzeTranscript(testTranscript);
+
+    // Then
+    assertThat(feedback).isEmpty();
+    verify(lifecycleStore)
+        .markFeedbackFailed(eq("fb-123"), eq(1), notNull(), contains("No analysis"));
+    verify(lifecycleStore, never()).completeFeedback(any(Feedback.class), anyList());
+  }
+
+  @Test
+  void shouldDeadLetterFeedbackWhenRetriesAreExhausted() {
+    // Given
+    Feedback savedFeedback =
+        Feedback.builder().id("fb-123").status(FeedbackStatus.PROCESSING).attempts(4).build();
+    when(lifecycleStore.claimFeedback(any(Feedback.class))).thenReturn(savedFeedback);
+    when(lifecycleStore.takeOverFeedback("fb-123")).thenReturn(Optional.of(savedFeedback));
+    when(analysisBatcher.submit(any(AnalysisRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("No analysis")));
 
     // When
     analysisService.analyzeTranscript(testTranscript);
 
     // Then
-    verify(feedbackRepository, atLeastOnce()).save(any(Feedback.class));
-    verify(statsRepository).save(any(UserFeedbackStats.class));
+    verify(lifecycleStore).markFeedbackFailed(eq("fb-123"), eq(5), isNull(), anyString());
+    assertThat(savedFeedback.getStatus()).isEqualTo(FeedbackStatus.DEAD_LETTER);
+  }
+
+  @Test
+  void shouldSkipFeedbackThatAnotherInstanceIsAnalyzing() {
+    // Given
+    Feedback heldElsewhere =
+        Feedback.builder().id("fb-123").status(FeedbackStatus.PROCESSING).build();
+    when(lifecycleStore.claimFeedback(any(Feedback.class))).thenReturn(heldElsewhere);
+    when(lifecycleStore.takeOverFeedback("fb-123")).thenReturn(Optional.empty());
+
+    // When
+    Optional<Feedback> feedback = analysisService.analyzeTranscript(testTranscript);
+
+    // Then
+    assertThat(feedback).isEmpty();
+    verifyNoInteractions(analysisBatcher, workLeases);
   }
 }
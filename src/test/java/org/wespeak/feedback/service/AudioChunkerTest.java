@@ -0,0 +1,121 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.wespeak.feedback.config.ChunkingProperties;
+
+class AudioChunkerTest {
+
+  private static final int SAMPLE_RATE = 8000;
+
+  private final AudioChunker audioChunker = new AudioChunker(new ChunkingProperties());
+
+  @TempDir Path tempDir;
+
+  @Test
+  void shouldSplitLongWavAtTheLatestPause() throws IOException {
+    // Given: speech 0-50s, pause 50-51s, speech 51-101s, pause 101-102s, speech 102-152s
+    Path wav = writeWav(new double[] {50, 1, 50, 1, 50});
+
+    // When
+    List<AudioChunk> chunks = audioChunker.split(wav);
+
+    // Then
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0).getEndSeconds()).isCloseTo(101.5, within(0.05));
+    assertThat(chunks.get(1).getStartSeconds()).isEqualTo(chunks.get(0).getEndSeconds());
+    assertThat(chunks.get(1).getOwnedStart()).isEqualTo(chunks.get(0).getOwnedEnd());
+  }
+
+  @Test
+  void shouldReadEachWindowAsAStandaloneWavFromTheSpool() throws IOException {
+    // Given
+    Path wav = writeWav(new double[] {50, 1, 50, 1, 50});
+
+    // When
+    AudioChunk second = audioChunker.split(wav).get(1);
+    byte[] window;
+    try (InputStream content = second.getAudio().getInputStream()) {
+      window = content.readAllBytes();
+    }
+
+    // Then
+    int samples = (int) Math.round(second.getDurationSeconds() * SAMPLE_RATE);
+    assertThat(window).hasSize((int) second.getAudio().contentLength());
+    assertThat(window.length - 44).isCloseTo(samples * 2, within(4));
+    assertThat(new String(window, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("RIFF");
+    assertThat(ByteBuffer.wrap(window, 40, 4).order(ByteOrder.LITTLE_ENDIAN).getInt())
+        .isEqualTo(window.length - 44);
+    assertThat(second.getAudio().getFilename()).startsWith("chunk-001-");
+  }
+
+  @Test
+  void shouldOverlapWindowsWhenNoPauseIsFound() throws IOException {
+    // Given
+    Path wav = writeWav(new double[] {150});
+
+    // When
+    List<AudioChunk> chunks = audioChunker.split(wav);
+
+    // Then
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0).getOwnedEnd()).isCloseTo(120.0, within(0.001));
+    assertThat(chunks.get(0).getEndSeconds()).isCloseTo(121.0, within(0.001));
+    assertThat(chunks.get(1).getStartSeconds()).isCloseTo(119.0, within(0.001));
+  }
+
+  @Test
+  void shouldKeepCompressedRecordingsWhole() throws IOException {
+    // Given
+    Path webm = Files.write(tempDir.resolve("recording.webm"), new byte[] {26, 69, -33, -93});
+
+    // When
+    List<AudioChunk> chunks = audioChunker.split(webm);
+
+    // Then
+    assertThat(chunks).hasSize(1);
+    assertThat(chunks.get(0).getAudio().getFile().toPath()).isEqualTo(webm);
+    assertThat(chunks.get(0).getAudio().contentLength()).isEqualTo(4);
+  }
+
+  /** Writes 8 kHz mono PCM alternating between a 440 Hz tone and silence, starting with tone. */
+  private Path writeWav(double[] sectionSeconds) throws IOException {
+    int totalSamples = 0;
+    for (double seconds : sectionSeconds) {
+      totalSamples += (int) (seconds * SAMPLE_RATE);
+    }
+    ByteBuffer wav = ByteBuffer.allocate(44 + totalSamples * 2).order(ByteOrder.LITTLE_ENDIAN);
+    wav.put("RIFF".getBytes(StandardCharsets.US_ASCII))
+        .putInt(36 + totalSamples * 2)
+        .put("WAVEfmt ".getBytes(StandardCharsets.US_ASCII))
+        .putInt(16)
+        .putShort((short) 1)
+        .putShort((short) 1)
+        .putInt(SAMPLE_RATE)
+        .putInt(SAMPLE_RATE * 2)
+        .putShort((short) 2)
+        .putShort((short) 16)
+        .put("data".getBytes(StandardCharsets.US_ASCII))
+        .putInt(totalSamples * 2);
+    int sample = 0;
+    for (int section = 0; section < sectionSeconds.length; section++) {
+      boolean tone = section % 2 == 0;
+      for (int i = 0; i < (int) (sectionSeconds[section] * SAMPLE_RATE); i++, sample++) {
+        double value = tone ? 10000 * Math.sin(2 * Math.PI * 440 * sample / SAMPLE_RATE) : 0;
+        wav.putShort((short) value);
+      }
+    }
+    return Files.write(tempDir.resolve("recording.wav"), wav.array());
+  }
+}
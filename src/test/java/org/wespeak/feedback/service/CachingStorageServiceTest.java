@@ -0,0 +1,142 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CachingStorageServiceTest {
+
+  private static final String KEY = "recordings/rec-001.webm";
+  private static final byte[] AUDIO = "fake-webm-bytes".getBytes(StandardCharsets.UTF_8);
+
+  @Mock private R2StorageService r2StorageService;
+
+  @TempDir Path tempDir;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private CachingStorageService cachingStorageService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    meterRegistry = new SimpleMeterRegistry();
+    cachingStorageService =
+        new CachingStorageService(
+            r2StorageService, meterRegistry, tempDir.resolve("cache"), 1024 * 1024, 30);
+
+    lenient()
+        .doAnswer(
+            invocation -> {
+              Files.write(invocation.getArgument(1), AUDIO);
+              return null;
+            })
+        .when(r2StorageService)
+        .downloadToFile(eq(KEY), any(Path.class));
+  }
+
+  @Test
+  void shouldServeRepeatFetchesFromLocalDisk() throws IOException {
+    // When
+    Path first = tempDir.resolve("spool-1");
+    Path second = tempDir.resolve("spool-2");
+    cachingStorageService.downloadToFile(KEY, first);
+    cachingStorageService.downloadToFile(KEY, second);
+
+    // Then
+    assertThat(Files.readAllBytes(first)).isEqualTo(AUDIO);
+    assertThat(Files.readAllBytes(second)).isEqualTo(AUDIO);
+    verify(r2StorageService, times(1)).downloadToFile(eq(KEY), any(Path.class));
+    assertThat(meterRegistry.counter("storage.cache.requests", "result", "hit").count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldFetchAgainWhenCachedFileIsCorrupt() throws IOException {
+    // Given
+    cachingStorageService.downloadToFile(KEY, tempDir.resolve("spool-1"));
+    try (var cached = Files.newDirectoryStream(tempDir.resolve("cache"), "*.bin")) {
+      for (Path file : cached) {
+        Files.writeString(file, "garbage");
+      }
+    }
+
+    // When
+    Path spool = tempDir.resolve("spool-2");
+    cachingStorageService.downloadToFile(KEY, spool);
+
+    // Then
+    assertThat(Files.readAllBytes(spool)).isEqualTo(AUDIO);
+    verify(r2StorageService, times(2)).downloadToFile(eq(KEY), any(Path.class));
+  }
+
+  @Test
+  void shouldReloadIndexFromDiskOnRestart() throws IOException {
+    // Given
+    cachingStorageService.downloadToFile(KEY, tempDir.resolve("spool-1"));
+
+    // When
+    CachingStorageService restarted =
+        new CachingStorageService(
+            r2StorageService, new SimpleMeterRegistry(), tempDir.resolve("cache"), 1024 * 1024, 30);
+    Path spool = tempDir.resolve("spool-2");
+    restarted.downloadToFile(KEY, spool);
+
+    // Then
+    assertThat(Files.readAllBytes(spool)).isEqualTo(AUDIO);
+    verify(r2StorageService, times(1)).downloadToFile(eq(KEY), any(Path.class));
+  }
+
+  @Test
+  void shouldKeepRefetchedFileWhenReplacedEntryIsRemoved() throws IOException {
+    // Given
+    cachingStorageService.downloadToFile(KEY, tempDir.resolve("spool-1"));
+    try (var cached = Files.newDirectoryStream(tempDir.resolve("cache"), "*.bin")) {
+      for (Path file : cached) {
+        Files.writeString(file, "garbage");
+      }
+    }
+    cachingStorageService.downloadToFile(KEY, tempDir.resolve("spool-2"));
+
+    // When
+    ForkJoinPool.commonPool().awaitQuiescence(5, TimeUnit.SECONDS);
+    Path spool = tempDir.resolve("spool-3");
+    cachingStorageService.downloadToFile(KEY, spool);
+
+    // Then
+    assertThat(Files.readAllBytes(spool)).isEqualTo(AUDIO);
+    verify(r2StorageService, times(2)).downloadToFile(eq(KEY), any(Path.class));
+    try (Stream<Path> files = Files.list(tempDir.resolve("cache"))) {
+      assertThat(files.filter(file -> file.toString().endsWith(".bin"))).hasSize(1);
+    }
+  }
+
+  @Test
+  void shouldDeleteInterruptedDownloadsOnRestart() throws IOException {
+    // Given
+    Path partial = Files.writeString(tempDir.resolve("cache").resolve("abc123.part"), "half");
+
+    // When
+    new CachingStorageService(
+        r2StorageService, new SimpleMeterRegistry(), tempDir.resolve("cache"), 1024 * 1024, 30);
+
+    // Then
+    assertThat(partial).doesNotExist();
+  }
+}
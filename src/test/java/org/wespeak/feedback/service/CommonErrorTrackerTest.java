@@ -0,0 +1,74 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.wespeak.feedback.entity.CommonError;
+import org.wespeak.feedback.entity.ErrorType;
+import org.wespeak.feedback.entity.FeedbackError;
+import org.wespeak.feedback.repository.StatsStore;
+
+class CommonErrorTrackerTest {
+
+  private final CommonErrorTracker tracker = new CommonErrorTracker(mock(StatsStore.class), 2, 1);
+
+  @Test
+  void shouldCountDifferentlyWrittenErrorsAsOnePattern() {
+    // Given
+    List<FeedbackError> errors =
+        List.of(
+            error(ErrorType.GRAMMAR, "I goed", "I went"),
+            error(ErrorType.GRAMMAR, "  i  GOED. ", "I went!"));
+
+    // When
+    List<CommonError> counters = tracker.count(null, errors);
+
+    // Then
+    assertThat(counters).hasSize(1);
+    assertThat(counters.get(0).getPattern()).isEqualTo("i goed -> i went");
+    assertThat(counters.get(0).getFrequency()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldReplaceTheLeastFrequentCounterWhenFull() {
+    // Given
+    List<CommonError> counters =
+        tracker.count(
+            null,
+            List.of(
+                error(ErrorType.GRAMMAR, "I goed", "I went"),
+                error(ErrorType.GRAMMAR, "I goed", "I went"),
+                error(ErrorType.VOCABULARY, "make a photo", "take a photo")));
+
+    // When
+    List<CommonError> updated =
+        tracker.count(counters, List.of(error(ErrorType.SYNTAX, "he go", "he goes")));
+
+    // Then
+    assertThat(updated)
+        .extracting(CommonError::getPattern)
+        .containsExactlyInAnyOrder("i goed -> i went", "he go -> he goes");
+    CommonError replaced = updated.get(updated.size() - 1);
+    assertThat(replaced.getFrequency()).isEqualTo(2);
+    assertThat(replaced.getOvercount()).isEqualTo(1);
+    assertThat(counters.get(1).getPattern()).isEqualTo("make a photo -> take a photo");
+  }
+
+  @Test
+  void shouldShowOnlyTheMostFrequentErrors() {
+    // Given
+    List<CommonError> counters =
+        List.of(
+            new CommonError(ErrorType.GRAMMAR, "a", 1, 0),
+            new CommonError(ErrorType.GRAMMAR, "b", 3, 0));
+
+    // When / Then
+    assertThat(tracker.top(counters)).extracting(CommonError::getPattern).containsExactly("b");
+  }
+
+  private static FeedbackError error(ErrorType type, String original, String correction) {
+    return FeedbackError.builder().type(type).original(original).correction(correction).build();
+  }
+}
@@ -0,0 +1,128 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.wespeak.feedback.config.ResilienceProperties;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+
+class DependencyGuardTest {
+
+  @Test
+  void shouldOpenAfterFailureRateIsReached() {
+    // Given
+    DependencyGuard guard = guard(4, Duration.ofMinutes(1));
+    failTimes(guard, 2);
+    guard.call(() -> "ok");
+    guard.call(() -> "ok");
+
+    // When / Then
+    assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThatThrownBy(() -> guard.call(() -> "ok"))
+        .isInstanceOf(DependencyUnavailableException.class)
+        .hasMessageContaining("circuit open");
+  }
+
+  @Test
+  void shouldIgnoreErrorsThatAreNotDependencyFailures() {
+    // Given
+    DependencyGuard guard = guard(4, Duration.ofMinutes(1));
+
+    // When
+    for (int i = 0; i < 4; i++) {
+      assertThatThrownBy(
+              () ->
+                  guard.call(
+                      () -> {
+                        throw new IllegalArgumentException("bad input");
+                      }))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Then
+    assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  void shouldCloseAgainAfterSuccessfulTrialCalls() throws InterruptedException {
+    // Given
+    DependencyGuard guard = guard(4, Duration.ofMillis(10));
+    failTimes(guard, 4);
+    assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    Thread.sleep(20);
+
+    // When
+    guard.call(() -> "ok");
+    guard.call(() -> "ok");
+
+    // Then
+    assertThat(guard.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  void shouldRejectWhenBulkheadIsFull() throws InterruptedException {
+    // Given
+    DependencyGuard guard = guard(4, Duration.ofMinutes(1));
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder =
+        new Thread(
+            () ->
+                guard.call(
+                    () -> {
+                      entered.countDown();
+                      return awaitQuietly(release);
+                    }));
+    holder.start();
+    entered.await(5, TimeUnit.SECONDS);
+
+    // When / Then
+    assertThatThrownBy(() -> guard.call(() -> "ok"))
+        .isInstanceOf(DependencyUnavailableException.class)
+        .hasMessageContaining("bulkhead full");
+    release.countDown();
+    holder.join();
+  }
+
+  private static boolean awaitQuietly(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static void failTimes(DependencyGuard guard, int times) {
+    for (int i = 0; i < times; i++) {
+      assertThatThrownBy(
+              () ->
+                  guard.call(
+                      () -> {
+                        throw new IOException("connection reset");
+                      }))
+          .isInstanceOf(IOException.class);
+    }
+  }
+
+  private static DependencyGuard guard(int windowSize, Duration openDuration) {
+    ResilienceProperties.Guard config =
+        new ResilienceProperties.Guard(
+            1,
+            Duration.ofMillis(10),
+            0.5,
+            windowSize,
+            windowSize,
+            openDuration,
+            2,
+            Duration.ofMinutes(1));
+    return new DependencyGuard(
+        "test", config, error -> error instanceof IOException, new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,106 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.wespeak.feedback.dto.FeedbackListItem;
+import org.wespeak.feedback.dto.FeedbackListResponse;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+/** Cursor paging over feedbacks stored through the pipeline's own claim, against a real Mongo. */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class FeedbackPagingTest {
+
+  private static final String USER = "paging-user";
+
+  @Container @ServiceConnection
+  static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+  @Autowired private MongoTemplate mongoTemplate;
+
+  @Autowired private LifecycleStore lifecycleStore;
+
+  @Autowired private FeedbackService feedbackService;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate.remove(query(where("userId").is(USER)), Feedback.class);
+    mongoTemplate.remove(query(where("participantId").is(USER)), Transcript.class);
+  }
+
+  @Test
+  void shouldStampCreatedAtWhenClaiming() {
+    // When
+    Feedback feedback = lifecycleStore.claimFeedback(feedback(0));
+    Transcript transcript =
+        lifecycleStore.claimTranscript(
+            Transcript.builder().participantId(USER).recordingId("paging-rec").build());
+
+    // Then
+    assertThat(mongoTemplate.findById(feedback.getId(), Feedback.class).getCreatedAt())
+        .isNotNull();
+    assertThat(mongoTemplate.findById(transcript.getId(), Transcript.class).getCreatedAt())
+        .isNotNull();
+    // The daily quota is recounted from today's transcripts
+    Instant startOfDay = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+    assertThat(lifecycleStore.countTranscriptsSince(USER, startOfDay)).isEqualTo(1);
+  }
+
+  @Test
+  void shouldPageThroughEveryFeedbackNewestFirst() {
+    // Given
+    for (int i = 0; i < 5; i++) {
+      lifecycleStore.claimFeedback(feedback(i));
+    }
+
+    // When
+    List<FeedbackListItem> seen = new ArrayList<>();
+    String cursor = "";
+    int pages = 0;
+    do {
+      FeedbackListResponse page = feedbackService.getMyFeedbacksAfter(USER, null, cursor, 2, false);
+      seen.addAll(page.getItems());
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null && pages < 10);
+
+    // Then
+    assertThat(pages).isEqualTo(3);
+    assertThat(seen).extracting(FeedbackListItem::getId).doesNotHaveDuplicates().hasSize(5);
+    assertThat(seen)
+        .isSortedAccordingTo(
+            Comparator.comparing(FeedbackListItem::getCreatedAt)
+                .reversed()
+                .thenComparing(FeedbackListItem::getId));
+  }
+
+  private static Feedback feedback(int index) {
+    return Feedback.builder()
+        .transcriptId("paging-trans-" + index)
+        .userId(USER)
+        .sessionId("paging-session-" + index)
+        .targetLanguageCode("en")
+        .build();
+  }
+}
@@ -3,10 +3,15 @@ package org.wespeak.feedback.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,13 +23,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.wespeak.feedback.dto.FeedbackCursor;
+import org.wespeak.feedback.dto.FeedbackListItem;
 import org.wespeak.feedback.dto.FeedbackListResponse;
 import org.wespeak.feedback.dto.FeedbackResponse;
+import org.wespeak.feedback.dto.FieldSelection;
+import org.wespeak.feedback.dto.TranscriptSegmentsResponse;
 import org.wespeak.feedback.entity.Feedback;
 import org.wespeak.feedback.entity.FeedbackStatus;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.TranscriptSegment;
+import org.wespeak.feedback.exception.BadRequestException;
 import org.wespeak.feedback.exception.ForbiddenException;
 import org.wespeak.feedback.exception.ResourceNotFoundException;
 import org.wespeak.feedback.repository.FeedbackRepository;
+import org.wespeak.feedback.repository.RawDocumentStore;
 import org.wespeak.feedback.repository.TranscriptRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +47,8 @@ class FeedbackServiceTest {
 
   @Mock private TranscriptRepository transcriptRepository;
 
+  @Mock private RawDocumentStore rawDocumentStore;
+
   @InjectMocks private FeedbackService feedbackService;
 
   private Feedback testFeedback;
@@ -97,9 +112,11 @@ class FeedbackServiceTest {
   void shouldReturnPaginatedFeedbacks() {
     // Given
     Pageable pageable = PageRequest.of(0, 10);
-    Page<Feedback> feedbackPage = new PageImpl<>(List.of(testFeedback), pageable, 1);
+    FeedbackListItem item =
+        FeedbackListItem.builder().id("fb-123").targetLanguageCode("en").overallScore(72).build();
+    Page<FeedbackListItem> feedbackPage = new PageImpl<>(List.of(item), pageable, 1);
 
-    when(feedbackRepository.findByUserIdAndTargetLanguageCode(
+    when(feedbackRepository.findListItemsByUserIdAndTargetLanguageCodeOrderByCreatedAtDesc(
             eq("user-789"), eq("en"), any(Pageable.class)))
         .thenReturn(feedbackPage);
 
@@ -112,4 +129,179 @@ class FeedbackServiceTest {
     assertThat(response.getTotal()).isEqualTo(1L);
     assertThat(response.getPage()).isEqualTo(0);
   }
+
+  @Test
+  void shouldReturnNextCursorWithoutCountingByDefault() {
+    // Given
+    Instant now = Instant.parse("2024-05-31T10:00:00Z");
+    List<FeedbackListItem> items =
+        List.of(
+            FeedbackListItem.builder().id("fb-3").createdAt(now).build(),
+            FeedbackListItem.builder().id("fb-2").createdAt(now.minusSeconds(60)).build(),
+            FeedbackListItem.builder().id("fb-1").createdAt(now.minusSeconds(120)).build());
+    when(feedbackRepository.findListItemsAfter("user-789", "en", null, 3)).thenReturn(items);
+
+    // When
+    FeedbackListResponse response =
+        feedbackService.getMyFeedbacksAfter("user-789", "en", "", 2, false);
+
+    // Then
+    assertThat(response.getItems())
+        .extracting(FeedbackListItem::getId)
+        .containsExactly("fb-3", "fb-2");
+    assertThat(response.getTotal()).isNull();
+    assertThat(FeedbackCursor.decode(response.getNextCursor()))
+        .isEqualTo(new FeedbackCursor(items.get(1).getCreatedAt(), "fb-2"));
+    verify(feedbackRepository, never()).countByUserIdAndTargetLanguageCode(any(), any());
+  }
+
+  @Test
+  void shouldEndCursorPagingOnTheLastPage() {
+    // Given
+    FeedbackCursor cursor = new FeedbackCursor(Instant.parse("2024-05-31T10:00:00Z"), "fb-2");
+    when(feedbackRepository.findListItemsAfter("user-789", null, cursor, 3))
+        .thenReturn(List.of(FeedbackListItem.builder().id("fb-1").build()));
+    when(feedbackRepository.countByUserId("user-789")).thenReturn(3L);
+
+    // When
+    FeedbackListResponse response =
+        feedbackService.getMyFeedbacksAfter("user-789", null, cursor.encode(), 2, true);
+
+    // Then
+    assertThat(response.getItems()).hasSize(1);
+    assertThat(response.getNextCursor()).isNull();
+    assertThat(response.getTotal()).isEqualTo(3L);
+  }
+
+  @Test
+  void shouldRejectMalformedCursor() {
+    assertThatThrownBy(() -> feedbackService.getMyFeedbacksAfter("user-789", "en", "%%", 2, false))
+        .isInstanceOf(BadRequestException.class);
+  }
+
+  @Test
+  void shouldLoadOnlySelectedFields() {
+    // Given
+    FieldSelection selection =
+        FieldSelection.parse("overallScore, summary", FeedbackResponse.class);
+    Feedback projected =
+        Feedback.builder().id("fb-123").userId("user-789").overallScore(72).build();
+    when(feedbackRepository.findByIdWithFields("fb-123", selection.fields()))
+        .thenReturn(Optional.of(projected));
+
+    // When
+    FeedbackResponse response = feedbackService.getFeedback("fb-123", "user-789", selection);
+
+    // Then
+    verify(feedbackRepository, never()).findById(any());
+    Map<String, Object> expected = new LinkedHashMap<>();
+    expected.put("overallScore", 72);
+    expected.put("summary", null);
+    assertThat(selection.apply(response)).isEqualTo(expected);
+  }
+
+  @Test
+  void shouldRejectUnknownField() {
+    assertThatThrownBy(() -> FieldSelection.parse("overallScore,secret", FeedbackResponse.class))
+        .isInstanceOf(BadRequestException.class)
+        .hasMessageContaining("secret");
+  }
+
+  @Test
+  void shouldLocateSegmentsPlayingInTimeWindow() {
+    // Given
+    Transcript times =
+        Transcript.builder()
+            .id("trans-123")
+            .participantId("user-789")
+            .segments(
+                List.of(segment(0.0, 4.0), segment(4.0, 9.5), segment(9.5, 12.0), segment(12, 20)))
+            .build();
+    Transcript slice =
+        Transcript.builder()
+            .id("trans-123")
+            .participantId("user-789")
+            .segments(List.of(segment(4.0, 9.5), segment(9.5, 12.0)))
+            .build();
+    when(transcriptRepository.findSegmentTimes("trans-123")).thenReturn(Optional.of(times));
+    when(transcriptRepository.findSegmentSlice("trans-123", 1, 2)).thenReturn(Optional.of(slice));
+
+    // When
+    TranscriptSegmentsResponse response =
+        feedbackService.getSegmentsBetween("trans-123", "user-789", 5.0, 10.0);
+
+    // Then
+    assertThat(response.getOffset()).isEqualTo(1);
+    assertThat(response.getSegments()).hasSize(2);
+  }
+
+  @Test
+  void shouldCapLongTimeWindowAtMaxSegments() {
+    // Given
+    List<TranscriptSegment> all = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      all.add(segment(i, i + 1));
+    }
+    Transcript times =
+        Transcript.builder().id("trans-123").participantId("user-789").segments(all).build();
+    Transcript slice =
+        Transcript.builder()
+            .id("trans-123")
+            .participantId("user-789")
+            .segments(all.subList(10, 10 + FeedbackService.MAX_SEGMENTS))
+            .build();
+    when(transcriptRepository.findSegmentTimes("trans-123")).thenReturn(Optional.of(times));
+    when(transcriptRepository.findSegmentSlice("trans-123", 10, FeedbackService.MAX_SEGMENTS))
+        .thenReturn(Optional.of(slice));
+
+    // When
+    TranscriptSegmentsResponse response =
+        feedbackService.getSegmentsBetween("trans-123", "user-789", 10.5, 480.0);
+
+    // Then
+    assertThat(response.getOffset()).isEqualTo(10);
+    assertThat(response.getSegments()).hasSize(FeedbackService.MAX_SEGMENTS);
+  }
+
+  @Test
+  void shouldFindSegmentPlayingAtOffset() {
+    List<TranscriptSegment> segments =
+        List.of(segment(0.0, 4.0), segment(4.0, 9.5), segment(9.5, 12.0));
+
+    assertThat(FeedbackService.firstEndingAfter(segments, 0.0)).isZero();
+    assertThat(FeedbackService.firstEndingAfter(segments, 4.0)).isEqualTo(1);
+    assertThat(FeedbackService.firstEndingAfter(segments, 11.9)).isEqualTo(2);
+    assertThat(FeedbackService.firstEndingAfter(segments, 30.0)).isEqualTo(3);
+    assertThat(FeedbackService.firstStartingAfter(segments, 4.0)).isEqualTo(2);
+  }
+
+  @Test
+  void shouldRejectSegmentsOfAnotherParticipant() {
+    // Given
+    Transcript transcript = Transcript.builder().id("trans-123").participantId("user-789").build();
+    when(transcriptRepository.findSegmentSlice("trans-123", 0, 50))
+        .thenReturn(Optional.of(transcript));
+
+    // When/Then
+    assertThatThrownBy(() -> feedbackService.getSegments("trans-123", "other-user", 0, 50))
+        .isInstanceOf(ForbiddenException.class);
+  }
+
+  private static TranscriptSegment segment(double start, double end) {
+    return TranscriptSegment.builder().startTime(start).endTime(end).text("...").build();
+  }
+
+  @Test
+  void shouldTellForbiddenFromMissingWhenRawReadFindsNothing() {
+    // Given
+    when(rawDocumentStore.findFeedback(any(), any())).thenReturn(Optional.empty());
+    when(feedbackRepository.existsById("fb-123")).thenReturn(true);
+    when(feedbackRepository.existsById("fb-999")).thenReturn(false);
+
+    // When/Then
+    assertThatThrownBy(() -> feedbackService.getFeedbackJson("fb-123", "other-user"))
+        .isInstanceOf(ForbiddenException.class);
+    assertThatThrownBy(() -> feedbackService.getFeedbackJson("fb-999", "user-789"))
+        .isInstanceOf(ResourceNotFoundException.class);
+  }
 }
@@ -0,0 +1,84 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class KeyedExecutorTest {
+
+  private final KeyedExecutor executor =
+      new KeyedExecutor("test", 4, 100, new SimpleMeterRegistry());
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  void shouldRunTasksOfOneKeyInSubmissionOrder() {
+    // Given
+    List<Integer> order = new CopyOnWriteArrayList<>();
+    CompletableFuture<?>[] tasks = new CompletableFuture<?>[50];
+
+    // When
+    for (int i = 0; i < tasks.length; i++) {
+      int value = i;
+      tasks[i] = executor.submit("user-1", () -> order.add(value));
+    }
+    CompletableFuture.allOf(tasks).join();
+
+    // Then
+    assertThat(order).isSorted().hasSize(50);
+  }
+
+  @Test
+  void shouldRunOtherKeysWhileOneKeyIsBlocked() {
+    // Given
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Void> blocked = executor.submit("user-1", () -> awaitQuietly(release));
+    CompletableFuture<Void> behindBlocked = executor.submit("user-1", () -> {});
+
+    // When
+    CompletableFuture<Void> otherUser = executor.submit("user-2", () -> {});
+
+    // Then
+    otherUser.join();
+    assertThat(behindBlocked).isNotDone();
+    release.countDown();
+    blocked.join();
+    behindBlocked.join();
+  }
+
+  @Test
+  void shouldKeepRunningAKeyAfterOneOfItsTasksFailed() {
+    // Given
+    CompletableFuture<Void> failed =
+        executor.submit(
+            "user-1",
+            () -> {
+              throw new IllegalStateException("boom");
+            });
+
+    // When
+    CompletableFuture<Void> next = executor.submit("user-1", () -> {});
+
+    // Then
+    next.join();
+    assertThat(failed).isCompletedExceptionally();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
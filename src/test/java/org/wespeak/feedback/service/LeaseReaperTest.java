@@ -0,0 +1,106 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.wespeak.feedback.config.LeaseProperties;
+import org.wespeak.feedback.config.RetryProperties;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+class LeaseReaperTest {
+
+  private LifecycleStore lifecycleStore;
+  private SimpleMeterRegistry meterRegistry;
+  private LeaseReaper leaseReaper;
+
+  @BeforeEach
+  void setUp() {
+    lifecycleStore = mock(LifecycleStore.class);
+    meterRegistry = new SimpleMeterRegistry();
+    LeaseProperties properties = new LeaseProperties();
+    // Reaping is triggered by the tests, not by the background schedule
+    properties.setReapInterval(Duration.ofHours(1));
+    leaseReaper =
+        new LeaseReaper(
+            lifecycleStore, new RetryPolicy(new RetryProperties()), properties, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    leaseReaper.shutdown();
+  }
+
+  @Test
+  void shouldReclaimExpiredWorkAsAFailedAttempt() {
+    // Given
+    Transcript transcript =
+        Transcript.builder().id("trans-1").attempts(1).leaseOwner("pod-a").build();
+    Feedback feedback = Feedback.builder().id("fb-1").attempts(0).leaseOwner("pod-a").build();
+    when(lifecycleStore.findTranscriptsWithExpiredLease(any(Instant.class), anyInt()))
+        .thenReturn(List.of(transcript));
+    when(lifecycleStore.findFeedbacksWithExpiredLease(any(Instant.class), anyInt()))
+        .thenReturn(List.of(feedback));
+    when(lifecycleStore.reclaimTranscript(
+            eq(transcript), eq(2), any(Instant.class), eq("Lease of pod-a expired")))
+        .thenReturn(true);
+    when(lifecycleStore.reclaimFeedback(
+            eq(feedback), eq(1), any(Instant.class), eq("Lease of pod-a expired")))
+        .thenReturn(true);
+
+    // When
+    leaseReaper.reap();
+
+    // Then
+    assertThat(reclaimed("transcript")).isEqualTo(1.0);
+    assertThat(reclaimed("feedback")).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldDeadLetterWorkWhoseLastAttemptExpired() {
+    // Given
+    Transcript transcript = Transcript.builder().id("trans-1").attempts(4).build();
+    when(lifecycleStore.findTranscriptsWithExpiredLease(any(Instant.class), anyInt()))
+        .thenReturn(List.of(transcript));
+
+    // When
+    leaseReaper.reap();
+
+    // Then
+    verify(lifecycleStore)
+        .reclaimTranscript(eq(transcript), eq(5), isNull(), eq("Abandoned without a lease"));
+  }
+
+  @Test
+  void shouldNotCountWorkRenewedOrReclaimedByAnotherInstanceMeanwhile() {
+    // Given
+    Transcript transcript =
+        Transcript.builder().id("trans-1").attempts(0).leaseOwner("pod-a").build();
+    when(lifecycleStore.findTranscriptsWithExpiredLease(any(Instant.class), anyInt()))
+        .thenReturn(List.of(transcript));
+    when(lifecycleStore.reclaimTranscript(any(), anyInt(), any(), any())).thenReturn(false);
+
+    // When
+    leaseReaper.reap();
+
+    // Then
+    verify(lifecycleStore).reclaimTranscript(eq(transcript), eq(1), any(Instant.class), any());
+    assertThat(reclaimed("transcript")).isZero();
+  }
+
+  private double reclaimed(String kind) {
+    return meterRegistry.counter("pipeline.leases.reclaimed", "kind", kind).count();
+  }
+}
@@ -0,0 +1,121 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.wespeak.feedback.config.OutboxProperties;
+import org.wespeak.feedback.entity.OutboxEvent;
+import org.wespeak.feedback.repository.LeaderLeaseStore;
+import org.wespeak.feedback.repository.OutboxRepository;
+
+class OutboxRelayTest {
+
+  private final OutboxRepository outboxRepository = mock(OutboxRepository.class);
+  private final LeaderLeaseStore leaderLeases = mock(LeaderLeaseStore.class);
+  private final List<List<String>> publishedGroups = new ArrayList<>();
+  private OutboxRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    OutboxProperties properties = new OutboxProperties();
+    properties.setPollInterval(Duration.ofHours(1));
+    EventSink sink =
+        events -> {
+          if (events.get(0).getAggregateKey().equals("broken-user")) {
+            throw new IllegalStateException("Broker unavailable");
+          }
+          publishedGroups.add(events.stream().map(OutboxEvent::getId).toList());
+        };
+    relay =
+        new OutboxRelay(
+            outboxRepository, leaderLeases, sink, properties, new SimpleMeterRegistry());
+    when(leaderLeases.tryHold(eq(OutboxRelay.LEADER_LEASE), any())).thenReturn(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    relay.shutdown();
+  }
+
+  @Test
+  void shouldPublishEachUsersEventsInOrderAndDeleteThem() {
+    // Given
+    when(outboxRepository.findAllByOrderBySequenceAscIdAsc(any(Pageable.class)))
+        .thenReturn(
+            List.of(event("1", "user-a"), event("2", "user-b"), event("3", "user-a")), List.of());
+
+    // When
+    relay.drain();
+
+    // Then
+    assertThat(publishedGroups).containsExactly(List.of("1", "3"), List.of("2"));
+    verify(outboxRepository).deleteAllById(List.of("1", "3", "2"));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void shouldKeepFailedUsersEventsAndStopTheRound() {
+    // Given
+    when(outboxRepository.findAllByOrderBySequenceAscIdAsc(any(Pageable.class)))
+        .thenReturn(
+            List.of(event("1", "broken-user"), event("2", "user-a"), event("3", "broken-user")));
+
+    // When
+    relay.drain();
+
+    // Then
+    ArgumentCaptor<Iterable<String>> deleted = ArgumentCaptor.forClass(Iterable.class);
+    verify(outboxRepository).deleteAllById(deleted.capture());
+    assertThat(deleted.getValue()).containsExactly("2");
+    // The failed events are still at the head of the outbox, so the round ends here
+    verify(outboxRepository, times(1)).findAllByOrderBySequenceAscIdAsc(any(Pageable.class));
+  }
+
+  @Test
+  void shouldLeaveOutboxToInstanceHoldingTheLease() {
+    // Given
+    when(leaderLeases.tryHold(eq(OutboxRelay.LEADER_LEASE), any())).thenReturn(false);
+
+    // When
+    relay.drain();
+
+    // Then
+    verify(outboxRepository, never()).findAllByOrderBySequenceAscIdAsc(any(Pageable.class));
+    assertThat(publishedGroups).isEmpty();
+  }
+
+  @Test
+  void shouldStopDrainingWhenTheLeaseIsLost() {
+    // Given
+    when(leaderLeases.tryHold(eq(OutboxRelay.LEADER_LEASE), any())).thenReturn(true, false);
+    when(outboxRepository.findAllByOrderBySequenceAscIdAsc(any(Pageable.class)))
+        .thenReturn(List.of(event("1", "user-a")));
+
+    // When
+    relay.drain();
+
+    // Then
+    assertThat(publishedGroups).containsExactly(List.of("1"));
+    verify(outboxRepository, times(1)).findAllByOrderBySequenceAscIdAsc(any(Pageable.class));
+  }
+
+  private static OutboxEvent event(String id, String aggregateKey) {
+    return OutboxEvent.builder()
+        .id(id)
+        .aggregateKey(aggregateKey)
+        .eventType("feedback.generated")
+        .createdAt(Instant.now())
+        .build();
+  }
+}
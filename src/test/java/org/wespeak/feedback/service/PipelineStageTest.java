@@ -0,0 +1,92 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.wespeak.feedback.config.PipelineProperties;
+
+class PipelineStageTest {
+
+  private final PipelineStage stage =
+      new PipelineStage("test", new PipelineProperties.Stage(1, 1), new SimpleMeterRegistry());
+
+  @AfterEach
+  void tearDown() {
+    stage.shutdown();
+  }
+
+  @Test
+  void shouldRejectOfferWhenWorkersAndQueueAreBusy() throws InterruptedException {
+    // Given
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    assertThat(stage.offer(() -> blockUntil(started, release))).isTrue();
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When/Then
+    assertThat(stage.offer(() -> {})).isTrue();
+    assertThat(stage.offer(() -> {})).isFalse();
+
+    release.countDown();
+  }
+
+  @Test
+  void shouldRunSubmittedTasks() throws InterruptedException {
+    // Given
+    CountDownLatch done = new CountDownLatch(3);
+
+    // When
+    for (int i = 0; i < 3; i++) {
+      stage.submit(done::countDown);
+    }
+
+    // Then
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void shouldServeTasksWithLessSlackFirst() throws InterruptedException {
+    // Given
+    PipelineStage ordered =
+        new PipelineStage(
+            "ordered", new PipelineProperties.Stage(1, 10), new SimpleMeterRegistry());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(3);
+    List<String> order = new CopyOnWriteArrayList<>();
+    ordered.submit(() -> blockUntil(started, release));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When
+    ordered.submit(() -> record(order, "free", done), Duration.ofMinutes(2));
+    ordered.submit(() -> record(order, "free-later", done), Duration.ofMinutes(2));
+    ordered.submit(() -> record(order, "premium", done), Duration.ZERO);
+    release.countDown();
+
+    // Then
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(order).containsExactly("premium", "free", "free-later");
+    ordered.shutdown();
+  }
+
+  private static void record(List<String> order, String task, CountDownLatch done) {
+    order.add(task);
+    done.countDown();
+  }
+
+  private static void blockUntil(CountDownLatch started, CountDownLatch release) {
+    started.countDown();
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
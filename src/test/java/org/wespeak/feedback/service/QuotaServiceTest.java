@@ -0,0 +1,91 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.wespeak.feedback.entity.SubscriptionTier;
+import org.wespeak.feedback.exception.QuotaExceededException;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+@ExtendWith(MockitoExtension.class)
+class QuotaServiceTest {
+
+  @Mock private LifecycleStore lifecycleStore;
+
+  private QuotaService quotaService;
+
+  @BeforeEach
+  void setUp() {
+    quotaService =
+        new QuotaService(lifecycleStore, 3, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+  }
+
+  @Test
+  void shouldRejectFreeUserOnceTodaysRecordingsReachTheLimit() {
+    // Given
+    when(lifecycleStore.countTranscriptsSince(eq("user-1"), any(Instant.class))).thenReturn(2L);
+    quotaService.acquire("user-1", SubscriptionTier.FREE);
+
+    // When / Then
+    assertThatThrownBy(() -> quotaService.acquire("user-1", SubscriptionTier.FREE))
+        .isInstanceOf(QuotaExceededException.class)
+        .satisfies(
+            e ->
+                assertThat(((QuotaExceededException) e).getRetryAfter())
+                    .isPositive()
+                    .isLessThanOrEqualTo(Duration.ofDays(1)));
+    verify(lifecycleStore, times(1)).countTranscriptsSince(eq("user-1"), any(Instant.class));
+  }
+
+  @Test
+  void shouldAcceptAgainAfterARefund() {
+    // Given
+    when(lifecycleStore.countTranscriptsSince(eq("user-1"), any(Instant.class))).thenReturn(2L);
+    QuotaService.Grant grant = quotaService.acquire("user-1", SubscriptionTier.FREE);
+
+    // When
+    quotaService.refund(grant);
+
+    // Then
+    quotaService.acquire("user-1", SubscriptionTier.FREE);
+  }
+
+  @Test
+  void shouldRefundTheDayTheRecordingWasCountedOn() {
+    // Given
+    when(lifecycleStore.countTranscriptsSince(eq("user-1"), any(Instant.class))).thenReturn(2L);
+    quotaService.acquire("user-1", SubscriptionTier.FREE);
+
+    // When
+    LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+    quotaService.refund(new QuotaService.Grant("user-1", yesterday));
+
+    // Then
+    assertThatThrownBy(() -> quotaService.acquire("user-1", SubscriptionTier.FREE))
+        .isInstanceOf(QuotaExceededException.class);
+  }
+
+  @Test
+  void shouldNotLimitPremiumUsers() {
+    // When
+    for (int i = 0; i < 10; i++) {
+      quotaService.acquire("user-1", SubscriptionTier.PREMIUM);
+    }
+
+    // Then
+    verifyNoInteractions(lifecycleStore);
+  }
+}
@@ -0,0 +1,170 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class RangedDownloaderTest {
+
+  private static final String BUCKET = "recordings";
+  private static final String KEY = "recordings/rec-001.webm";
+  private static final byte[] AUDIO = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+  private static final HeadObjectResponse HEAD =
+      HeadObjectResponse.builder().contentLength((long) AUDIO.length).eTag("\"v1\"").build();
+
+  @TempDir Path tempDir;
+
+  private S3AsyncClient s3AsyncClient;
+  private List<GetObjectRequest> requests;
+
+  @BeforeEach
+  void setUp() {
+    s3AsyncClient = mock(S3AsyncClient.class);
+    requests = new ArrayList<>();
+  }
+
+  @Test
+  void shouldSplitObjectIntoRangesAndAssembleThem() throws Exception {
+    // Given
+    RangedDownloader downloader = new RangedDownloader(s3AsyncClient, 8, 8, 64);
+    answerGets(request -> CompletableFuture.completedFuture(rangeOf(request)));
+    Path target = tempDir.resolve("spool");
+
+    // When
+    downloader.download(BUCKET, KEY, HEAD, target);
+
+    // Then
+    assertThat(Files.readAllBytes(target)).isEqualTo(AUDIO);
+    assertThat(requests)
+        .extracting(GetObjectRequest::range)
+        .containsExactly("bytes=0-7", "bytes=8-15", "bytes=16-19");
+    assertThat(requests).allSatisfy(request -> assertThat(request.ifMatch()).isEqualTo("\"v1\""));
+    assertThat(downloader.availableBytesInFlight()).isEqualTo(64);
+  }
+
+  @Test
+  void shouldNotRequestMorePartsThanTheBudgetAllows() throws Exception {
+    // Given
+    RangedDownloader downloader = new RangedDownloader(s3AsyncClient, 5, 5, 10);
+    BlockingQueue<CompletableFuture<ResponseBytes<GetObjectResponse>>> pending =
+        new LinkedBlockingQueue<>();
+    answerGets(
+        request -> {
+          CompletableFuture<ResponseBytes<GetObjectResponse>> part = new CompletableFuture<>();
+          pending.add(part);
+          return part;
+        });
+    Path target = tempDir.resolve("spool");
+
+    // When
+    CompletableFuture<Void> download =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                downloader.download(BUCKET, KEY, HEAD, target);
+              } catch (Exception e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    CompletableFuture<ResponseBytes<GetObjectResponse>> first = pending.poll(5, TimeUnit.SECONDS);
+    CompletableFuture<ResponseBytes<GetObjectResponse>> second = pending.poll(5, TimeUnit.SECONDS);
+
+    // Then
+    assertThat(pending.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    assertThat(downloader.availableBytesInFlight()).isZero();
+
+    first.complete(rangeOf(requested(0)));
+    CompletableFuture<ResponseBytes<GetObjectResponse>> third = pending.poll(5, TimeUnit.SECONDS);
+    assertThat(third).isNotNull();
+    second.complete(rangeOf(requested(1)));
+    third.complete(rangeOf(requested(2)));
+    pending.poll(5, TimeUnit.SECONDS).complete(rangeOf(requested(3)));
+
+    download.get(5, TimeUnit.SECONDS);
+    assertThat(Files.readAllBytes(target)).isEqualTo(AUDIO);
+    assertThat(downloader.availableBytesInFlight()).isEqualTo(10);
+  }
+
+  @Test
+  void shouldStopAndReturnBudgetWhenAPartFails() {
+    // Given
+    RangedDownloader downloader = new RangedDownloader(s3AsyncClient, 5, 5, 64);
+    S3Exception replaced =
+        (S3Exception) S3Exception.builder().statusCode(412).message("Precondition").build();
+    answerGets(
+        request ->
+            request.range().equals("bytes=5-9")
+                ? CompletableFuture.failedFuture(replaced)
+                : CompletableFuture.completedFuture(rangeOf(request)));
+
+    // When / Then
+    assertThatThrownBy(() -> downloader.download(BUCKET, KEY, HEAD, tempDir.resolve("spool")))
+        .isSameAs(replaced);
+    assertThat(requests).hasSize(2);
+    assertThat(downloader.availableBytesInFlight()).isEqualTo(64);
+  }
+
+  @Test
+  void shouldRethrowHeadFailureUnwrapped() {
+    // Given
+    RangedDownloader downloader = new RangedDownloader(s3AsyncClient, 8, 8, 64);
+    S3Exception missing =
+        (S3Exception) S3Exception.builder().statusCode(404).message("Not Found").build();
+    when(s3AsyncClient.headObject(any(HeadObjectRequest.class)))
+        .thenReturn(CompletableFuture.failedFuture(missing));
+
+    // When / Then
+    assertThatThrownBy(() -> downloader.head(BUCKET, KEY)).isSameAs(missing);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void answerGets(
+      Function<GetObjectRequest, CompletableFuture<ResponseBytes<GetObjectResponse>>> answer) {
+    when(s3AsyncClient.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+        .thenAnswer(
+            invocation -> {
+              GetObjectRequest request = invocation.getArgument(0);
+              synchronized (requests) {
+                requests.add(request);
+              }
+              return answer.apply(request);
+            });
+  }
+
+  private GetObjectRequest requested(int index) {
+    synchronized (requests) {
+      return requests.get(index);
+    }
+  }
+
+  private static ResponseBytes<GetObjectResponse> rangeOf(GetObjectRequest request) {
+    String[] bounds = request.range().substring("bytes=".length()).split("-");
+    byte[] part =
+        Arrays.copyOfRange(AUDIO, Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) + 1);
+    return ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), part);
+  }
+}
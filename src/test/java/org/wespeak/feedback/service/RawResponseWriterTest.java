@@ -0,0 +1,180 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.beans.PropertyDescriptor;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.wespeak.feedback.dto.FeedbackResponse;
+import org.wespeak.feedback.dto.TranscriptResponse;
+import org.wespeak.feedback.entity.ErrorSeverity;
+import org.wespeak.feedback.entity.ErrorType;
+import org.wespeak.feedback.entity.FeedbackError;
+import org.wespeak.feedback.entity.FeedbackStatus;
+import org.wespeak.feedback.entity.TranscriptSegment;
+import org.wespeak.feedback.entity.TranscriptStatus;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Checks the raw BSON path against the JSON the application's own mapper writes for the same
+ * response, so both paths of the detail endpoints return the same document.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class RawResponseWriterTest {
+
+  @Container @ServiceConnection
+  static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+  /** The mapper behind the application's JSON message converter. */
+  @Autowired private JsonMapper jsonMapper;
+
+  private final Instant createdAt = Instant.parse("2026-03-01T10:15:30.250Z");
+
+  @Test
+  void shouldWriteFeedbackAsTheApplicationMapperWritesTheResponse() {
+    // Given
+    ErrorType type = ErrorType.values()[0];
+    ErrorSeverity severity = ErrorSeverity.values()[0];
+    Document stored =
+        new Document("_id", "fb-123")
+            .append("transcriptId", "trans-123")
+            .append("userId", "user-789")
+            .append("sessionId", "session-456")
+            .append("targetLanguageCode", "en")
+            .append("overallScore", 72)
+            .append("grammarScore", 68)
+            .append(
+                "errors",
+                List.of(
+                    new Document("type", type.name())
+                        .append("original", "I goes")
+                        .append("correction", "I go")
+                        .append("severity", severity.name())))
+            .append("strengths", List.of("Clear pronunciation"))
+            .append("xpAwarded", 25)
+            .append("status", FeedbackStatus.COMPLETED.name())
+            .append("createdAt", Date.from(createdAt))
+            .append("lastError", "internal");
+    FeedbackResponse response =
+        FeedbackResponse.builder()
+            .id("fb-123")
+            .transcriptId("trans-123")
+            .userId("user-789")
+            .sessionId("session-456")
+            .targetLanguageCode("en")
+            .overallScore(72)
+            .grammarScore(68)
+            .errors(
+                List.of(
+                    FeedbackError.builder()
+                        .type(type)
+                        .original("I goes")
+                        .correction("I go")
+                        .severity(severity)
+                        .build()))
+            .strengths(List.of("Clear pronunciation"))
+            .xpAwarded(25)
+            .status(FeedbackStatus.COMPLETED)
+            .createdAt(createdAt)
+            .build();
+
+    // When
+    byte[] json = RawResponseWriter.toJson(raw(stored), RawResponseWriter.FEEDBACK);
+
+    // Then
+    assertThat(jsonMapper.readTree(json)).isEqualTo(expected(response));
+  }
+
+  @Test
+  void shouldWriteTranscriptAsTheApplicationMapperWritesTheResponse() {
+    // Given
+    Document stored =
+        new Document("_id", "trans-123")
+            .append("sessionId", "session-456")
+            .append("participantId", "user-789")
+            .append("content", "Hello there")
+            .append(
+                "segments",
+                List.of(
+                    new Document("startTime", 0.0)
+                        .append("endTime", 1.5)
+                        .append("text", "Hello there")))
+            .append("duration", 90)
+            .append("confidence", 0.92)
+            .append("status", TranscriptStatus.COMPLETED.name())
+            .append("createdAt", Date.from(createdAt));
+    TranscriptResponse response =
+        TranscriptResponse.builder()
+            .id("trans-123")
+            .sessionId("session-456")
+            .participantId("user-789")
+            .content("Hello there")
+            .segments(
+                List.of(
+                    TranscriptSegment.builder()
+                        .startTime(0.0)
+                        .endTime(1.5)
+                        .text("Hello there")
+                        .build()))
+            .duration(90)
+            .confidence(0.92)
+            .status(TranscriptStatus.COMPLETED)
+            .createdAt(createdAt)
+            .build();
+
+    // When
+    byte[] json = RawResponseWriter.toJson(raw(stored), RawResponseWriter.TRANSCRIPT);
+
+    // Then
+    assertThat(jsonMapper.readTree(json)).isEqualTo(expected(response));
+  }
+
+  @Test
+  void shouldMapEveryResponseProperty() {
+    assertThat(names(RawResponseWriter.FEEDBACK))
+        .containsExactlyInAnyOrderElementsOf(properties(FeedbackResponse.class));
+    assertThat(names(RawResponseWriter.TRANSCRIPT))
+        .containsExactlyInAnyOrderElementsOf(properties(TranscriptResponse.class));
+    assertThat(names(RawResponseWriter.FEEDBACK_ERROR))
+        .containsExactlyInAnyOrderElementsOf(properties(FeedbackError.class));
+    assertThat(names(RawResponseWriter.TRANSCRIPT_SEGMENT))
+        .containsExactlyInAnyOrderElementsOf(properties(TranscriptSegment.class));
+  }
+
+  /** Compared as trees: member order carries no meaning, values and their types do. */
+  private JsonNode expected(Object response) {
+    return jsonMapper.readTree(jsonMapper.writeValueAsBytes(response));
+  }
+
+  private static RawBsonDocument raw(Document document) {
+    return new RawBsonDocument(document, new DocumentCodec());
+  }
+
+  private static List<String> names(List<RawResponseWriter.FieldMapping> fields) {
+    return fields.stream().map(RawResponseWriter.FieldMapping::name).toList();
+  }
+
+  private static List<String> properties(Class<?> type) {
+    return Arrays.stream(BeanUtils.getPropertyDescriptors(type))
+        .map(PropertyDescriptor::getName)
+        .filter(name -> !"class".equals(name))
+        .toList();
+  }
+}
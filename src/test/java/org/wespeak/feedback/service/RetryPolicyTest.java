@@ -0,0 +1,39 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.wespeak.feedback.config.RetryProperties;
+
+class RetryPolicyTest {
+
+  private final RetryPolicy retryPolicy = new RetryPolicy(properties());
+
+  @Test
+  void shouldDoubleTheDelayWithJitterPerAttempt() {
+    for (int i = 0; i < 100; i++) {
+      assertThat(retryPolicy.delayFor(1)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+      assertThat(retryPolicy.delayFor(3)).isBetween(Duration.ofSeconds(20), Duration.ofSeconds(40));
+    }
+  }
+
+  @Test
+  void shouldCapTheDelay() {
+    assertThat(retryPolicy.delayFor(30)).isBetween(Duration.ofMinutes(5), Duration.ofMinutes(10));
+  }
+
+  @Test
+  void shouldBeExhaustedAtTheAttemptLimit() {
+    assertThat(retryPolicy.isExhausted(2)).isFalse();
+    assertThat(retryPolicy.isExhausted(3)).isTrue();
+  }
+
+  private static RetryProperties properties() {
+    RetryProperties properties = new RetryProperties();
+    properties.setMaxAttempts(3);
+    properties.setBaseDelay(Duration.ofSeconds(10));
+    properties.setMaxDelay(Duration.ofMinutes(10));
+    return properties;
+  }
+}
@@ -0,0 +1,146 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.wespeak.feedback.config.RetryProperties;
+import org.wespeak.feedback.entity.DailyProgress;
+import org.wespeak.feedback.entity.ErrorType;
+import org.wespeak.feedback.entity.Feedback;
+import org.wespeak.feedback.entity.FeedbackError;
+import org.wespeak.feedback.entity.FeedbackStatus;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.UserFeedbackStats;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+import org.wespeak.feedback.repository.LifecycleStore;
+import org.wespeak.feedback.repository.StatsStore;
+
+/** Replays of a stats update against a real Mongo, as the pipeline runs them after parking. */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class StatsReplayTest {
+
+  @Container @ServiceConnection
+  static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+  @Autowired private MongoTemplate mongoTemplate;
+
+  @Autowired private DependencyGuards dependencyGuards;
+
+  private StatsStore statsStore;
+
+  private AnalysisService analysisService;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate.remove(query(where("userId").is("user-789")), UserFeedbackStats.class);
+    mongoTemplate.remove(query(where("userId").is("user-789")), DailyProgress.class);
+    statsStore = spy(new StatsStore(mongoTemplate, dependencyGuards));
+    analysisService =
+        new AnalysisService(
+            statsStore,
+            new CommonErrorTracker(statsStore, 50, 10),
+            mock(StatsService.class),
+            mock(LifecycleStore.class),
+            mock(AnalysisBatcher.class),
+            mock(AnalysisCache.class),
+            mock(OutboxRelay.class),
+            new RetryPolicy(new RetryProperties()),
+            mock(WorkLeases.class));
+  }
+
+  @Test
+  void shouldNotCountFeedbackTwiceWhenReplayedAfterSecondWriteFailed() {
+    // Given
+    Feedback feedback = feedback("fb-1", 80);
+    Transcript transcript = Transcript.builder().id("trans-1").duration(300).build();
+    doThrow(
+            new DependencyUnavailableException("mongo", Duration.ofSeconds(15), "bulkhead full"))
+        .doCallRealMethod()
+        .when(statsStore)
+        .recordDailyProgress(any(), anyInt());
+    assertThatThrownBy(() -> analysisService.recordStats(feedback, transcript))
+        .isInstanceOf(DependencyUnavailableException.class);
+
+    // When
+    analysisService.recordStats(feedback, transcript);
+    analysisService.recordStats(feedback, transcript);
+
+    // Then
+    UserFeedbackStats stats = findStats();
+    assertThat(stats.getTotalSessions()).isEqualTo(1);
+    assertThat(stats.getTotalMinutes()).isEqualTo(5);
+    assertThat(stats.getOverallScoreSum()).isEqualTo(80L);
+    assertThat(stats.recentOverallScores()).containsExactly(80);
+    assertThat(stats.getCommonErrors()).singleElement().extracting("frequency").isEqualTo(1);
+    DailyProgress day =
+        mongoTemplate.findOne(query(where("userId").is("user-789")), DailyProgress.class);
+    assertThat(day.getSessions()).isEqualTo(1);
+    assertThat(day.getOverallScoreSum()).isEqualTo(80L);
+  }
+
+  @Test
+  void shouldCountDistinctFeedbacks() {
+    // Given
+    Transcript transcript = Transcript.builder().id("trans-1").duration(60).build();
+
+    // When
+    analysisService.recordStats(feedback("fb-1", 80), transcript);
+    analysisService.recordStats(feedback("fb-2", 60), transcript);
+
+    // Then
+    UserFeedbackStats stats = findStats();
+    assertThat(stats.getTotalSessions()).isEqualTo(2);
+    assertThat(stats.getOverallScoreSum()).isEqualTo(140L);
+    assertThat(stats.recentOverallScores()).containsExactly(60, 80);
+    assertThat(stats.getCommonErrors()).singleElement().extracting("frequency").isEqualTo(2);
+  }
+
+  private UserFeedbackStats findStats() {
+    return mongoTemplate.findOne(
+        query(where("userId").is("user-789").and("targetLanguageCode").is("en")),
+        UserFeedbackStats.class);
+  }
+
+  private static Feedback feedback(String id, int score) {
+    return Feedback.builder()
+        .id(id)
+        .userId("user-789")
+        .targetLanguageCode("en")
+        .overallScore(score)
+        .grammarScore(score)
+        .vocabularyScore(score)
+        .fluencyScore(score)
+        .errors(
+            List.of(
+                FeedbackError.builder()
+                    .type(ErrorType.values()[0])
+                    .original("I goes")
+                    .correction("I go")
+                    .build()))
+        .status(FeedbackStatus.COMPLETED)
+        .completedAt(Instant.now())
+        .build();
+  }
+}
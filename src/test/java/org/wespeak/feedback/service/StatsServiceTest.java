@@ -0,0 +1,154 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.wespeak.feedback.dto.ProgressDataPoint;
+import org.wespeak.feedback.dto.ProgressHistoryResponse;
+import org.wespeak.feedback.dto.UserStatsResponse;
+import org.wespeak.feedback.entity.DailyProgress;
+import org.wespeak.feedback.entity.UserFeedbackStats;
+import org.wespeak.feedback.exception.ResourceNotFoundException;
+import org.wespeak.feedback.repository.DailyProgressRepository;
+import org.wespeak.feedback.repository.UserFeedbackStatsRepository;
+
+@ExtendWith(MockitoExtension.class)
+class StatsServiceTest {
+
+  @Mock private UserFeedbackStatsRepository statsRepository;
+
+  @Mock private DailyProgressRepository dailyProgressRepository;
+
+  @Mock private CommonErrorTracker commonErrorTracker;
+
+  private StatsService statsService;
+
+  @BeforeEach
+  void setUp() {
+    statsService =
+        new StatsService(
+            statsRepository,
+            dailyProgressRepository,
+            commonErrorTracker,
+            new SimpleMeterRegistry(),
+            100,
+            Duration.ofMinutes(1),
+            Duration.ofSeconds(10));
+  }
+
+  @Test
+  void shouldBuildHistoryFromDailyRollups() {
+    // Given
+    when(dailyProgressRepository
+            .findByUserIdAndTargetLanguageCodeAndDayGreaterThanEqualOrderByDayAsc(
+                eq("user-789"), eq("en"), anyString()))
+        .thenReturn(
+            List.of(
+                DailyProgress.builder()
+                    .day("2024-05-30")
+                    .sessions(2)
+                    .minutes(12)
+                    .overallScoreSum(150L)
+                    .build(),
+                DailyProgress.builder()
+                    .day("2024-05-31")
+                    .sessions(1)
+                    .minutes(5)
+                    .overallScoreSum(81L)
+                    .build()));
+
+    // When
+    ProgressHistoryResponse history = statsService.getMyHistory("user-789", "en", "WEEK");
+
+    // Then
+    assertThat(history.getDataPoints())
+        .extracting(ProgressDataPoint::getDate, ProgressDataPoint::getOverallScore)
+        .containsExactly(tuple("2024-05-30", 75), tuple("2024-05-31", 81));
+  }
+
+  @Test
+  void shouldReadEveryDayForAllTime() {
+    // When
+    statsService.getMyHistory("user-789", "en", "ALL");
+
+    // Then
+    verify(dailyProgressRepository)
+        .findByUserIdAndTargetLanguageCodeAndDayGreaterThanEqualOrderByDayAsc("user-789", "en", "");
+  }
+
+  @Test
+  void shouldCacheMissingStatsOfNewLearner() {
+    // Given
+    when(statsRepository.findByUserIdAndTargetLanguageCode("user-789", "en"))
+        .thenReturn(Optional.empty());
+
+    // When
+    for (int i = 0; i < 3; i++) {
+      assertThatThrownBy(() -> statsService.getMyStats("user-789", "en"))
+          .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    // Then
+    verify(statsRepository, times(1)).findByUserIdAndTargetLanguageCode("user-789", "en");
+  }
+
+  @Test
+  void shouldReloadStatsAfterEviction() {
+    // Given
+    when(statsRepository.findByUserIdAndTargetLanguageCode("user-789", "en"))
+        .thenReturn(Optional.empty())
+        .thenReturn(
+            Optional.of(
+                UserFeedbackStats.builder()
+                    .userId("user-789")
+                    .targetLanguageCode("en")
+                    .totalSessions(2)
+                    .overallScoreSum(150L)
+                    .build()));
+    assertThatThrownBy(() -> statsService.getMyStats("user-789", "en"))
+        .isInstanceOf(ResourceNotFoundException.class);
+
+    // When
+    statsService.evict("user-789", "en");
+    UserStatsResponse stats = statsService.getMyStats("user-789", "en");
+
+    // Then
+    assertThat(stats.getAverageOverallScore()).isEqualTo(75.0);
+    assertThat(statsService.getMyStats("user-789", "en")).isSameAs(stats);
+  }
+
+  @Test
+  void shouldAverageLegacyStatsTogetherWithNewScores() {
+    // Given: four sessions averaged at 70 before score sums, then one scored 90
+    when(statsRepository.findByUserIdAndTargetLanguageCode("user-789", "en"))
+        .thenReturn(
+            Optional.of(
+                UserFeedbackStats.builder()
+                    .userId("user-789")
+                    .targetLanguageCode("en")
+                    .totalSessions(5)
+                    .summedSessions(1)
+                    .overallScoreSum(90L)
+                    .legacyOverallScoreAverage(70.0)
+                    .build()));
+
+    // When
+    UserStatsResponse stats = statsService.getMyStats("user-789", "en");
+
+    // Then
+    assertThat(stats.getAverageOverallScore()).isEqualTo(74.0);
+  }
+}
@@ -0,0 +1,64 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.wespeak.feedback.entity.TranscriptSegment;
+
+class TranscriptStitcherTest {
+
+  @Test
+  void shouldShiftSegmentsByWindowOffset() {
+    // Given
+    List<AudioChunk> chunks = List.of(chunk(0, 0, 60, 0, 60), chunk(1, 60, 90, 60, 90));
+    List<TranscriptSegment> first = List.of(segment(1.0, 4.0, "First part."));
+    List<TranscriptSegment> second = List.of(segment(2.0, 5.0, "Second part."));
+
+    // When
+    List<TranscriptSegment> stitched = TranscriptStitcher.stitch(chunks, List.of(first, second));
+
+    // Then
+    assertThat(stitched).extracting(TranscriptSegment::getStartTime).containsExactly(1.0, 62.0);
+    assertThat(stitched).extracting(TranscriptSegment::getEndTime).containsExactly(4.0, 65.0);
+  }
+
+  @Test
+  void shouldDropSegmentsHeardTwiceInOverlap() {
+    // Given: hard cut at 60s with one second of overlap on both sides
+    List<AudioChunk> chunks = List.of(chunk(0, 0, 61, 0, 60), chunk(1, 59, 90, 60, 90));
+    List<TranscriptSegment> first =
+        List.of(segment(50.0, 55.0, "Before the cut."), segment(58.5, 60.5, "Across the cut."));
+    List<TranscriptSegment> second =
+        List.of(segment(0.0, 1.5, "across the cut"), segment(2.0, 6.0, "After the cut."));
+
+    // When
+    List<TranscriptSegment> stitched = TranscriptStitcher.stitch(chunks, List.of(first, second));
+
+    // Then
+    assertThat(stitched)
+        .extracting(TranscriptSegment::getText)
+        .containsExactly("Before the cut.", "Across the cut.", "After the cut.");
+  }
+
+  private static AudioChunk chunk(
+      int index, double start, double end, double ownedStart, double ownedEnd) {
+    return AudioChunk.builder()
+        .index(index)
+        .startSeconds(start)
+        .endSeconds(end)
+        .ownedStart(ownedStart)
+        .ownedEnd(ownedEnd)
+        .fileName("chunk-" + index + ".wav")
+        .build();
+  }
+
+  private static TranscriptSegment segment(double start, double end, String text) {
+    return TranscriptSegment.builder()
+        .startTime(start)
+        .endTime(end)
+        .text(text)
+        .confidence(0.9)
+        .build();
+  }
+}
@@ -0,0 +1,161 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.wespeak.feedback.config.PipelineProperties;
+import org.wespeak.feedback.config.RetryProperties;
+import org.wespeak.feedback.entity.SubscriptionTier;
+import org.wespeak.feedback.entity.Transcript;
+import org.wespeak.feedback.entity.TranscriptStatus;
+import org.wespeak.feedback.event.RecordingUploadedPayload;
+import org.wespeak.feedback.exception.DependencyUnavailableException;
+import org.wespeak.feedback.exception.QuotaExceededException;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+@ExtendWith(MockitoExtension.class)
+class TranscriptionServiceTest {
+
+  @Mock private LifecycleStore lifecycleStore;
+
+  @Mock private StorageService storageService;
+
+  @Mock private ChunkedTranscriber chunkedTranscriber;
+
+  @Mock private WorkLeases workLeases;
+
+  @Mock private QuotaService quotaService;
+
+  private TranscriptionService transcriptionService;
+
+  private RecordingUploadedPayload payload;
+
+  @BeforeEach
+  void setUp() {
+    transcriptionService =
+        new TranscriptionService(
+            lifecycleStore,
+            storageService,
+            new PipelineProperties(),
+            new RecentRecordingFilter(100, Duration.ofMinutes(5)),
+            chunkedTranscriber,
+            new RetryPolicy(new RetryProperties()),
+            workLeases,
+            quotaService);
+
+    payload =
+        RecordingUploadedPayload.builder()
+            .recordingId("rec-001")
+            .sessionId("session-456")
+            .participantId("user-789")
+            .targetLanguageCode("en")
+            .audioUrl("recordings/rec-001.webm")
+            .duration(120)
+            .build();
+  }
+
+  @Test
+  void shouldCreateTranscriptForNewRecording() {
+    // Given
+    when(lifecycleStore.claimTranscript(any(Transcript.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    // When
+    IngestResult result = transcriptionService.ingest(payload);
+
+    // Then
+    assertThat(result.isDuplicate()).isFalse();
+    assertThat(result.getTranscript().getRecordingId()).isEqualTo("rec-001");
+  }
+
+  @Test
+  void shouldRefundTheAcquiredDayWhenReleasingAnUnscheduledTranscript() {
+    // Given
+    QuotaService.Grant grant = new QuotaService.Grant("user-789", LocalDate.of(2026, 3, 1));
+    when(quotaService.acquire("user-789", SubscriptionTier.FREE)).thenReturn(grant);
+    when(lifecycleStore.claimTranscript(any(Transcript.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    IngestResult result = transcriptionService.ingest(payload);
+
+    // When
+    transcriptionService.release(result);
+
+    // Then
+    verify(lifecycleStore).releaseTranscript(result.getTranscriptId());
+    verify(quotaService).refund(grant);
+  }
+
+  @Test
+  void shouldReturnExistingTranscriptWhenRecordingIsRedelivered() {
+    // Given
+    Transcript existing = Transcript.builder().id("trans-existing").recordingId("rec-001").build();
+    QuotaService.Grant grant = new QuotaService.Grant("user-789", LocalDate.of(2026, 3, 1));
+    when(quotaService.acquire("user-789", SubscriptionTier.FREE)).thenReturn(grant);
+    when(lifecycleStore.claimTranscript(any(Transcript.class))).thenReturn(existing);
+
+    // When
+    IngestResult result = transcriptionService.ingest(payload);
+
+    // Then
+    assertThat(result.isDuplicate()).isTrue();
+    assertThat(result.getTranscriptId()).isEqualTo("trans-existing");
+    verify(quotaService).refund(grant);
+  }
+
+  @Test
+  void shouldRejectRecordingOverQuotaBeforeClaimingIt() {
+    // Given
+    doThrow(new QuotaExceededException("Daily limit reached", Duration.ofHours(1)))
+        .when(quotaService)
+        .acquire("user-789", SubscriptionTier.FREE);
+
+    // When / Then
+    assertThatThrownBy(() -> transcriptionService.ingest(payload))
+        .isInstanceOf(QuotaExceededException.class);
+    verify(lifecycleStore, never()).claimTranscript(any(Transcript.class));
+  }
+
+  @Test
+  void shouldLeaveTranscriptProcessingWhenStorageIsUnavailable() throws Exception {
+    // Given
+    Transcript transcript = Transcript.builder().id("trans-123").recordingId("rec-001").build();
+    when(lifecycleStore.markTranscriptProcessing("trans-123")).thenReturn(true);
+    doThrow(new DependencyUnavailableException("storage", Duration.ofSeconds(30), "circuit open"))
+        .when(storageService)
+        .downloadToFile(eq(payload.getAudioUrl()), any(Path.class));
+
+    // When / Then
+    assertThatThrownBy(() -> transcriptionService.downloadAudio(transcript, payload.getAudioUrl()))
+        .isInstanceOf(DependencyUnavailableException.class);
+    assertThat(transcript.getStatus()).isEqualTo(TranscriptStatus.PROCESSING);
+    verify(lifecycleStore, never()).markTranscriptFailed(anyString(), anyInt(), any(), any());
+  }
+
+  @Test
+  void shouldAnswerHotRedeliveriesWithoutTouchingMongo() {
+    // Given
+    when(lifecycleStore.claimTranscript(any(Transcript.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    IngestResult first = transcriptionService.ingest(payload);
+
+    // When
+    IngestResult second = transcriptionService.ingest(payload);
+
+    // Then
+    assertThat(second.isDuplicate()).isTrue();
+    assertThat(second.getTranscriptId()).isEqualTo(first.getTranscriptId());
+    verify(lifecycleStore, times(1)).claimTranscript(any(Transcript.class));
+  }
+}
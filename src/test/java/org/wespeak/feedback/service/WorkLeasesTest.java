@@ -0,0 +1,94 @@
+package org.wespeak.feedback.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.wespeak.feedback.config.LeaseProperties;
+import org.wespeak.feedback.repository.LifecycleStore;
+
+class WorkLeasesTest {
+
+  private LifecycleStore lifecycleStore;
+  private LeaseProperties properties;
+  private WorkLeases workLeases;
+
+  @BeforeEach
+  void setUp() {
+    lifecycleStore = mock(LifecycleStore.class);
+    properties = new LeaseProperties();
+    // Renewals are triggered by the tests, not by the background schedule
+    properties.setRenewInterval(Duration.ofHours(1));
+    workLeases = new WorkLeases(lifecycleStore, properties, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    workLeases.shutdown();
+  }
+
+  @Test
+  void shouldRenewEveryHeldLeaseOfAKindInOneUpdate() {
+    // Given
+    workLeases.holdTranscript("trans-1");
+    workLeases.holdTranscript("trans-2");
+    workLeases.holdFeedback("fb-1");
+    workLeases.holdTranscript("trans-3");
+    workLeases.releaseTranscript("trans-3");
+
+    // When
+    workLeases.renew();
+
+    // Then
+    assertThat(renewedTranscripts()).containsExactlyInAnyOrder("trans-1", "trans-2");
+    verify(lifecycleStore).renewFeedbackLeases(List.of("fb-1"));
+  }
+
+  @Test
+  void shouldStopRenewingWorkHeldLongerThanMaxHold() throws InterruptedException {
+    // Given
+    properties.setMaxHold(Duration.ofMillis(50));
+    workLeases.holdTranscript("stuck");
+    Thread.sleep(100);
+    workLeases.holdTranscript("recent");
+
+    // When
+    workLeases.renew();
+    workLeases.renew();
+
+    // Then
+    verify(lifecycleStore, times(2)).renewTranscriptLeases(List.of("recent"));
+  }
+
+  @Test
+  void shouldKeepRenewingAfterAFailedRenewal() {
+    // Given
+    workLeases.holdFeedback("fb-1");
+    when(lifecycleStore.renewTranscriptLeases(anyCollection()))
+        .thenThrow(new IllegalStateException("Mongo down"))
+        .thenReturn(0L);
+
+    // When
+    workLeases.renew();
+    workLeases.renew();
+
+    // Then
+    verify(lifecycleStore, times(1)).renewFeedbackLeases(List.of("fb-1"));
+    verify(lifecycleStore, times(2)).renewTranscriptLeases(anyCollection());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Collection<String> renewedTranscripts() {
+    ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+    verify(lifecycleStore).renewTranscriptLeases(ids.capture());
+    return ids.getValue();
+  }
+}